@@ -0,0 +1,6 @@
+-- Indexes used by bounding box prefilter in BeerDBHelper radius and adjacent breweries queries.
+-- Already included in mysql_dump.sql, apply only to databases created from older dump.
+
+ALTER TABLE `geocodes`
+  ADD KEY `idx_geocodes_lat_lon` (`latitude`,`longitude`),
+  ADD KEY `idx_geocodes_brewery_id` (`brewery_id`);
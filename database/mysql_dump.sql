@@ -124,7 +124,9 @@ CREATE TABLE `geocodes` (
   `latitude` double DEFAULT NULL,
   `longitude` double DEFAULT NULL,
   `accuracy` varchar(45) DEFAULT NULL,
-  PRIMARY KEY (`id`)
+  PRIMARY KEY (`id`),
+  KEY `idx_geocodes_lat_lon` (`latitude`,`longitude`),
+  KEY `idx_geocodes_brewery_id` (`brewery_id`)
 ) ENGINE=MyISAM DEFAULT CHARSET=latin1;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
@@ -0,0 +1,94 @@
+package beerdb;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distance computation and beer lookup over synthetic datasets
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class DataAccessBenchmark {
+
+    @Benchmark
+    public double distance(Coordinates coordinates) {
+        int i = coordinates.next();
+        return GeoDistance.distance(coordinates.latitudes[i], coordinates.longitudes[i],
+                coordinates.latitudes[i + 1], coordinates.longitudes[i + 1]);
+    }
+
+    @Benchmark
+    public double[] distanceKernel(Coordinates coordinates, Kernel kernel) {
+        int i = coordinates.next();
+        kernel.kernel.distances(coordinates.latitudes[i], coordinates.longitudes[i], kernel.accuracy,
+                0, kernel.result.length, kernel.result);
+        return kernel.result;
+    }
+
+    @Benchmark
+    public ArrayList<Beer> calculateDistinctBeerKinds(PlannerState state) {
+        return state.hamiltonInsertion.calculateDistinctBeerKinds(state.route);
+    }
+
+    /**
+     * Random coordinate pairs within synthetic dataset area
+     */
+    @State(Scope.Thread)
+    public static class Coordinates {
+        private static final int SIZE = 1024;
+
+        double[] latitudes = new double[SIZE + 1];
+        double[] longitudes = new double[SIZE + 1];
+        private int position;
+
+        @Setup
+        public void setUp() {
+            Random random = new Random(42);
+            for (int i = 0; i <= SIZE; i++) {
+                latitudes[i] = SyntheticDataset.MIN_LATITUDE
+                        + random.nextDouble() * (SyntheticDataset.MAX_LATITUDE - SyntheticDataset.MIN_LATITUDE);
+                longitudes[i] = SyntheticDataset.MIN_LONGITUDE
+                        + random.nextDouble() * (SyntheticDataset.MAX_LONGITUDE - SyntheticDataset.MIN_LONGITUDE);
+            }
+        }
+
+        int next() {
+            position = (position + 1) & (SIZE - 1);
+            return position;
+        }
+    }
+
+    /**
+     * Batch distance kernel over the same coordinates
+     */
+    @State(Scope.Thread)
+    public static class Kernel {
+        @Param({"LAW_OF_COSINES", "HAVERSINE", "EQUIRECTANGULAR"})
+        DistanceKernel.Accuracy accuracy;
+
+        DistanceKernel kernel;
+        double[] result;
+
+        @Setup
+        public void setUp(Coordinates coordinates) {
+            kernel = new DistanceKernel(coordinates.latitudes, coordinates.longitudes);
+            result = new double[kernel.size()];
+        }
+    }
+}
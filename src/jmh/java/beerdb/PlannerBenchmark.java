@@ -0,0 +1,82 @@
+package beerdb;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Route construction hot paths of HamiltonInsertion over synthetic datasets
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class PlannerBenchmark {
+
+    @Benchmark
+    public ArrayList<HamiltonBrewery> calculateHamiltonRoute(PlannerState state) {
+        return state.hamiltonInsertion.calculateHamiltonRoute(
+                PlannerState.LATITUDE, PlannerState.LONGITUDE, PlannerState.DISTANCE_LIMIT);
+    }
+
+    @Benchmark
+    public ArrayList<HamiltonBrewery> calculateHamiltonRouteLargeLimit(PlannerState state) {
+        return state.hamiltonInsertion.calculateHamiltonRoute(
+                PlannerState.LATITUDE, PlannerState.LONGITUDE, PlannerState.LARGE_DISTANCE_LIMIT);
+    }
+
+    @Benchmark
+    public ArrayList<HamiltonBrewery> calculateTiledRoute(PlannerState state) {
+        return state.tiledRoutePlanner.calculateHamiltonRoute(
+                PlannerState.LATITUDE, PlannerState.LONGITUDE, PlannerState.LARGE_DISTANCE_LIMIT);
+    }
+
+    @Benchmark
+    public int insertLocation(PlannerState state, InsertionState insertion) {
+        return state.hamiltonInsertion.insertLocation(insertion.route, state.store, insertion.available,
+                PlannerState.DISTANCE_LIMIT, PlannerState.DISTANCE_LIMIT, insertion.gapCandidates);
+    }
+
+    @Benchmark
+    public ArrayList<HamiltonBrewery> getCandidates(PlannerState state) {
+        return state.hamiltonInsertion.getCandidates(state.route, state.store, state.routeAvailable);
+    }
+
+    @Benchmark
+    public HamiltonBrewery findClosestBrewery(PlannerState state) {
+        ArrayList<HamiltonBrewery> route = state.route;
+        int gap = route.size() / 2 - 1;
+        return state.hamiltonInsertion.findClosestBrewery(route.get(gap), route.get(gap + 1), state.store, state.routeAvailable);
+    }
+
+    /**
+     * Fresh half built route with gap candidates for each insertLocation call
+     */
+    @State(Scope.Thread)
+    public static class InsertionState {
+        ArrayList<HamiltonBrewery> route;
+        BitSet available;
+        GapCandidateQueue gapCandidates;
+
+        @Setup(Level.Invocation)
+        public void setUp(PlannerState state) {
+            route = state.copyRoute();
+            available = (BitSet) state.routeAvailable.clone();
+            gapCandidates = state.hamiltonInsertion.initializeGapCandidates(route, state.store, available,
+                    PlannerState.DISTANCE_LIMIT);
+        }
+    }
+}
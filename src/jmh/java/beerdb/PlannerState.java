@@ -0,0 +1,69 @@
+package beerdb;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+
+/**
+ * Synthetic dataset with planner and half built route, shared by benchmark threads
+ */
+@State(Scope.Benchmark)
+public class PlannerState {
+
+    public static final double LATITUDE = 51.742503;
+    public static final double LONGITUDE = 19.432956;
+    public static final double DISTANCE_LIMIT = 1000;
+    public static final double LARGE_DISTANCE_LIMIT = 20_000;
+
+    @Param({"1000", "10000", "100000"})
+    public int breweries;
+
+    public BrewerySnapshot snapshot;
+    public HamiltonInsertion hamiltonInsertion;
+    public TiledRoutePlanner tiledRoutePlanner;
+    public BreweryStore store;
+    public BitSet available;
+
+    /**
+     * Route built with half of distance limit and breweries still available for it
+     */
+    public ArrayList<HamiltonBrewery> route;
+    public BitSet routeAvailable;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        snapshot = BrewerySnapshot.open(SyntheticDataset.write(breweries));
+        hamiltonInsertion = new HamiltonInsertion(snapshot, DISTANCE_LIMIT);
+        tiledRoutePlanner = new TiledRoutePlanner(hamiltonInsertion);
+        BreweryIndex index = hamiltonInsertion.getBreweryIndex();
+        store = index.getStore();
+        available = index.findAvailableWithinRadius(LATITUDE, LONGITUDE, DISTANCE_LIMIT);
+
+        route = hamiltonInsertion.calculateHamiltonRoute(LATITUDE, LONGITUDE, DISTANCE_LIMIT / 2);
+        routeAvailable = (BitSet) available.clone();
+        for (HamiltonBrewery bw : route) {
+            int slot = store.slotOf(bw.getId());
+            if (slot >= 0) {
+                routeAvailable.clear(slot);
+            }
+        }
+    }
+
+    /**
+     * Copies route, so benchmark can change it
+     *
+     * @return Route with copied elements
+     */
+    public ArrayList<HamiltonBrewery> copyRoute() {
+        ArrayList<HamiltonBrewery> copy = new ArrayList<>(route.size() + 1);
+        for (HamiltonBrewery bw : route) {
+            copy.add(bw.copy());
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,59 @@
+package beerdb;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Generates reproducible brewery snapshots for benchmarks.
+ * Breweries are spread uniformly over Europe, each brewery has a few beers of random category and style.
+ */
+public final class SyntheticDataset {
+
+    public static final double MIN_LATITUDE = 35.0;
+    public static final double MAX_LATITUDE = 70.0;
+    public static final double MIN_LONGITUDE = -10.0;
+    public static final double MAX_LONGITUDE = 40.0;
+
+    private static final long SEED = 20170503L;
+    private static final int CATEGORIES = 11;
+    private static final int STYLES = 141;
+    private static final int BEERS_PER_BREWERY = 4;
+
+    private SyntheticDataset() {
+    }
+
+    /**
+     * Writes snapshot with given number of breweries to temporary file
+     *
+     * @param breweries Number of breweries
+     * @return Snapshot file, deleted on exit
+     * @throws IOException
+     */
+    public static Path write(int breweries) throws IOException {
+        Random random = new Random(SEED);
+        BrewerySnapshot.Builder builder = new BrewerySnapshot.Builder();
+        for (int id = 1; id <= CATEGORIES; id++) {
+            builder.addCategory(id, "Category " + id);
+        }
+        for (int id = 1; id <= STYLES; id++) {
+            builder.addStyle(id, "Style " + id);
+        }
+        for (int id = 1; id <= breweries; id++) {
+            builder.addBrewery(id, "Brewery " + id, "City " + (id % 1000));
+            builder.addGeocode(id,
+                    MIN_LATITUDE + random.nextDouble() * (MAX_LATITUDE - MIN_LATITUDE),
+                    MIN_LONGITUDE + random.nextDouble() * (MAX_LONGITUDE - MIN_LONGITUDE));
+            for (int beer = 0; beer < BEERS_PER_BREWERY; beer++) {
+                builder.addBeer(id, "Beer " + random.nextInt(breweries * 2),
+                        1 + random.nextInt(CATEGORIES), 1 + random.nextInt(STYLES));
+            }
+        }
+
+        Path file = Files.createTempFile("synthetic-" + breweries, ".snapshot");
+        file.toFile().deleteOnExit();
+        builder.write(file);
+        return file;
+    }
+}
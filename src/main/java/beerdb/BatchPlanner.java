@@ -0,0 +1,231 @@
+package beerdb;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Plans many journeys concurrently with one shared HamiltonInsertion.
+ * Each journey runs on its own virtual thread when JDK supports them, otherwise on fixed pool of platform threads.
+ */
+public class BatchPlanner implements AutoCloseable {
+
+    private final HamiltonInsertion hamiltonInsertion;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+
+    /**
+     * @param hamiltonInsertion Route builder with loaded brewery index, shared by all journeys
+     */
+    public BatchPlanner(HamiltonInsertion hamiltonInsertion) {
+        this(hamiltonInsertion, newJourneyExecutor(), true);
+    }
+
+    /**
+     * @param hamiltonInsertion Route builder with loaded brewery index, shared by all journeys
+     * @param executor          Executor running journeys, it is not shut down by close
+     */
+    public BatchPlanner(HamiltonInsertion hamiltonInsertion, ExecutorService executor) {
+        this(hamiltonInsertion, executor, false);
+    }
+
+    private BatchPlanner(HamiltonInsertion hamiltonInsertion, ExecutorService executor, boolean ownsExecutor) {
+        this.hamiltonInsertion = hamiltonInsertion;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    /**
+     * Creates virtual thread per task executor (JDK 21+) or fixed thread pool sized by available processors
+     *
+     * @return Executor for journey planning
+     */
+    public static ExecutorService newJourneyExecutor() {
+        ExecutorService executor = newVirtualThreadExecutor();
+        if (executor != null) {
+            return executor;
+        }
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "journey-planner");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates virtual thread per task executor
+     *
+     * @return Executor or null if JDK does not support virtual threads
+     */
+    public static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Starts planning of all requests. Results are streamed in order of completion,
+     * closing the stream cancels journeys which are not planned yet
+     *
+     * @param requests
+     * @return Stream with one result per request
+     */
+    public Stream<Result> plan(Collection<Request> requests) {
+        CompletionService<Result> completion = new ExecutorCompletionService<>(executor);
+        List<Future<Result>> futures = new ArrayList<>(requests.size());
+        for (Request request : requests) {
+            futures.add(completion.submit(() -> planJourney(request)));
+        }
+
+        Iterator<Result> results = new Iterator<Result>() {
+            private int taken;
+
+            @Override
+            public boolean hasNext() {
+                return taken < futures.size();
+            }
+
+            @Override
+            public Result next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    Result result = completion.take().get();
+                    taken++;
+                    return result;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for journey", e);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Journey planning failed", e.getCause());
+                }
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliterator(results, futures.size(),
+                Spliterator.NONNULL | Spliterator.SIZED), false)
+                .onClose(() -> futures.forEach(future -> future.cancel(true)));
+    }
+
+    /**
+     * Plans one journey in calling thread
+     *
+     * @param request
+     * @return Result with route or with error
+     */
+    public Result planJourney(Request request) {
+        try {
+            ArrayList<HamiltonBrewery> route = hamiltonInsertion.calculateHamiltonRoute(
+                    request.getLatitude(), request.getLongitude(), request.getDistanceLimit());
+            return new Result(request, route, hamiltonInsertion.calculateRouteDistance(route), null);
+        } catch (RuntimeException e) {
+            return new Result(request, null, 0.0, e);
+        }
+    }
+
+    /**
+     * Shuts down executor created by this planner
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Journey start point and distance limit
+     */
+    public static class Request {
+        private final double latitude;
+        private final double longitude;
+        private final double distanceLimit;
+
+        public Request(double latitude, double longitude, double distanceLimit) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.distanceLimit = distanceLimit;
+        }
+
+        public double getLatitude() {
+            return latitude;
+        }
+
+        public double getLongitude() {
+            return longitude;
+        }
+
+        public double getDistanceLimit() {
+            return distanceLimit;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Request)) {
+                return false;
+            }
+            Request other = (Request) obj;
+            return Double.compare(latitude, other.latitude) == 0
+                    && Double.compare(longitude, other.longitude) == 0
+                    && Double.compare(distanceLimit, other.distanceLimit) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(latitude, longitude, distanceLimit);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%f,%f,%f", latitude, longitude, distanceLimit);
+        }
+    }
+
+    /**
+     * Planned route of one request. If planning failed, route is null and error is set
+     */
+    public static class Result {
+        private final Request request;
+        private final ArrayList<HamiltonBrewery> route;
+        private final double routeDistance;
+        private final RuntimeException error;
+
+        private Result(Request request, ArrayList<HamiltonBrewery> route, double routeDistance, RuntimeException error) {
+            this.request = request;
+            this.route = route;
+            this.routeDistance = routeDistance;
+            this.error = error;
+        }
+
+        public Request getRequest() {
+            return request;
+        }
+
+        public ArrayList<HamiltonBrewery> getRoute() {
+            return route;
+        }
+
+        public double getRouteDistance() {
+            return routeDistance;
+        }
+
+        public RuntimeException getError() {
+            return error;
+        }
+    }
+}
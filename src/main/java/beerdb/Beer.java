@@ -1,3 +1,5 @@
+package beerdb;
+
 import java.util.stream.Stream;
 
 /**
@@ -0,0 +1,213 @@
+package beerdb;
+
+import com.mysql.jdbc.jdbc2.optional.MysqlDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed size pool of MySQL connections. Each pooled connection caches its prepared statements,
+ * so one query is parsed only once per connection. Connection is used by one thread at a time.
+ */
+public class BeerConnectionPool {
+
+    public static final int DEFAULT_POOL_SIZE = 4;
+    public static final long DEFAULT_ACQUIRE_TIMEOUT_MILLIS = 10_000;
+    public static final long DEFAULT_HEALTH_CHECK_INTERVAL_MILLIS = 30_000;
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private final MysqlDataSource dataSource;
+    private final int poolSize;
+    private final long acquireTimeoutMillis;
+    private final long healthCheckIntervalMillis;
+    private final int statementCacheSize;
+
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final ArrayList<PooledConnection> connections = new ArrayList<>();
+    private volatile boolean closed;
+
+    public BeerConnectionPool(MysqlDataSource dataSource, int poolSize, long acquireTimeoutMillis,
+                              long healthCheckIntervalMillis, int statementCacheSize) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("Pool size must be positive: " + poolSize);
+        }
+        this.dataSource = dataSource;
+        this.poolSize = poolSize;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.healthCheckIntervalMillis = healthCheckIntervalMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(poolSize, true);
+    }
+
+    /**
+     * Takes idle connection or opens a new one if pool is not full yet.
+     * Connections idle longer than health check interval are validated before use
+     *
+     * @return Connection, which must be returned with release
+     * @throws SQLException if pool is closed, timeout elapsed or connection can not be opened
+     */
+    public PooledConnection acquire() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timeout waiting for connection after " + acquireTimeoutMillis + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for connection", e);
+        }
+
+        try {
+            PooledConnection connection;
+            while ((connection = idle.pollFirst()) != null) {
+                if (isHealthy(connection)) {
+                    return connection;
+                }
+                discard(connection);
+            }
+            return open();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns connection to the pool
+     *
+     * @param connection
+     */
+    public void release(PooledConnection connection) {
+        connection.lastUsed = System.currentTimeMillis();
+        if (closed) {
+            discard(connection);
+        } else {
+            idle.offerFirst(connection);
+        }
+        permits.release();
+    }
+
+    /**
+     * Closes all connections. Connections in use are closed when they are released
+     */
+    public void close() {
+        closed = true;
+        PooledConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            discard(connection);
+        }
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * Number of currently open connections
+     *
+     * @return Open connections count
+     */
+    public int getOpenConnections() {
+        synchronized (connections) {
+            return connections.size();
+        }
+    }
+
+    private PooledConnection open() throws SQLException {
+        PooledConnection connection = new PooledConnection(dataSource.getConnection(), statementCacheSize);
+        synchronized (connections) {
+            connections.add(connection);
+        }
+        return connection;
+    }
+
+    private boolean isHealthy(PooledConnection connection) {
+        if (System.currentTimeMillis() - connection.lastUsed < healthCheckIntervalMillis) {
+            return true;
+        }
+        try {
+            return connection.connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void discard(PooledConnection connection) {
+        synchronized (connections) {
+            connections.remove(connection);
+        }
+        connection.close();
+    }
+
+    /**
+     * Connection with cache of prepared statements
+     */
+    public static class PooledConnection {
+        private final Connection connection;
+        private final LinkedHashMap<String, PreparedStatement> statements;
+        private long lastUsed = System.currentTimeMillis();
+
+        private PooledConnection(Connection connection, int statementCacheSize) {
+            this.connection = connection;
+            this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() > statementCacheSize) {
+                        closeQuietly(eldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        /**
+         * Gets cached forward-only, read-only prepared statement for query or prepares a new one
+         *
+         * @param query SQL with ? placeholders
+         * @return Prepared statement
+         * @throws SQLException
+         */
+        public PreparedStatement prepareStatement(String query) throws SQLException {
+            PreparedStatement statement = statements.get(query);
+            if (statement == null) {
+                statement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statements.put(query, statement);
+            }
+            return statement;
+        }
+
+        private void close() {
+            for (PreparedStatement statement : statements.values()) {
+                closeQuietly(statement);
+            }
+            statements.clear();
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+
+        private static void closeQuietly(PreparedStatement statement) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
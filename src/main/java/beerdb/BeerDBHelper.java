@@ -0,0 +1,841 @@
+package beerdb;
+
+import com.mysql.jdbc.jdbc2.optional.MysqlDataSource;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetProvider;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Created by Ignas on 2017-04-27.
+ */
+public class BeerDBHelper {
+
+    private int MYSQL_PORT = 3306;
+
+    public static final int DEFAULT_FETCH_SIZE = 100;
+
+    /**
+     * Distance from point given by 3 parameters (latitude, longitude, latitude) to geocode g
+     */
+    private static final String DISTANCE_TO_PARAMETER = "111.111 * DEGREES(ACOS(COS(RADIANS(?)) * COS(RADIANS(g.latitude)) * COS(RADIANS(? - g.longitude)) + SIN(RADIANS(?)) * SIN(RADIANS(g.latitude))))";
+
+    /**
+     * Keeps geocodes inside bounding box given by 4 parameters. Can be resolved using geocodes latitude/longitude index
+     */
+    private static final String BOUNDING_BOX_CONDITION = "g.latitude BETWEEN ? AND ? AND g.longitude BETWEEN ? AND ?";
+
+    private static final String GEOCODED_BREWERIES_QUERY = String.join(" ",
+            "SELECT",
+            "bw.*,",
+            "g.latitude,",
+            "g.longitude,",
+            "0 AS distance_in_km",
+            "FROM",
+            "breweries bw",
+            "JOIN geocodes g ON g.brewery_id = bw.id"
+    );
+
+    private static final String BREWERIES_QUERY = String.join(" ",
+            "SELECT",
+            "*",
+            "FROM",
+            "(SELECT",
+            "bw.*,",
+            "g.latitude,",
+            "g.longitude,",
+            DISTANCE_TO_PARAMETER, "AS distance_in_km",
+            "FROM",
+            "geocodes g",
+            "JOIN breweries bw ON g.brewery_id = bw.id",
+            "WHERE",
+            BOUNDING_BOX_CONDITION, ") AS tbl",
+            "WHERE",
+            "distance_in_km <= ?",
+            "ORDER BY distance_in_km ASC"
+    );
+
+    private static final String ADJACENT_BREWERIES_QUERY = String.join(" ",
+            "SELECT  * FROM",
+            "(SELECT",
+            "*, distance_in_km_left + distance_in_km_right as distance_in_km",
+            "FROM",
+            "(SELECT",
+            "bw.*,",
+            "g.latitude,",
+            "g.longitude,",
+            DISTANCE_TO_PARAMETER, "AS distance_in_km_left,",
+            DISTANCE_TO_PARAMETER, "AS distance_in_km_right",
+            "FROM",
+            "geocodes g",
+            "JOIN breweries bw ON g.brewery_id = bw.id",
+            "WHERE",
+            BOUNDING_BOX_CONDITION, "AND", BOUNDING_BOX_CONDITION, ") AS tbl) AS tbl2",
+            "WHERE",
+            "distance_in_km <= ?",
+            "ORDER BY distance_in_km ASC"
+    );
+
+    private static final String DISTINCT_BEERS_QUERY = String.join(" ",
+            "SELECT DISTINCT(b.name), c.cat_name, s.style_name, bw.name AS brewery",
+            "FROM",
+            "beers b",
+            "LEFT JOIN",
+            "categories c ON b.cat_id = c.id",
+            "LEFT JOIN",
+            "styles s ON b.style_id = s.id",
+            "LEFT JOIN",
+            "breweries bw ON b.brewery_id = bw.id",
+            "WHERE",
+            "bw.id IN (%s)");
+
+    private static final String BREWERY_BEERS_QUERY = String.join(" ",
+            "SELECT b.brewery_id, b.name, c.cat_name, s.style_name, bw.name AS brewery",
+            "FROM",
+            "beers b",
+            "LEFT JOIN",
+            "categories c ON b.cat_id = c.id",
+            "LEFT JOIN",
+            "styles s ON b.style_id = s.id",
+            "JOIN",
+            "breweries bw ON b.brewery_id = bw.id",
+            "ORDER BY b.brewery_id, b.id");
+
+    MysqlDataSource mysqlDataSource;
+    private BeerConnectionPool pool;
+
+    private String serverIP;
+    private String dbName;
+    private String dbUserName;
+    private String password;
+
+    private int poolSize = BeerConnectionPool.DEFAULT_POOL_SIZE;
+    private long acquireTimeoutMillis = BeerConnectionPool.DEFAULT_ACQUIRE_TIMEOUT_MILLIS;
+    private long healthCheckIntervalMillis = BeerConnectionPool.DEFAULT_HEALTH_CHECK_INTERVAL_MILLIS;
+    private int statementCacheSize = BeerConnectionPool.DEFAULT_STATEMENT_CACHE_SIZE;
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+
+    public BeerDBHelper(String serverIP, String dbName, String dbUserName, String password) {
+        this.serverIP = serverIP;
+        this.dbName = dbName;
+        this.dbUserName = dbUserName;
+        this.password = password;
+    }
+
+    /**
+     * Sets connection parameters and opens connection pool to MySQL database.
+     * One connection is opened immediately to check that database is reachable
+     *
+     * @return true if success, false if failed
+     */
+    public boolean openConnection() {
+        boolean success = true;
+
+        mysqlDataSource = new MysqlDataSource();
+        mysqlDataSource.setServerName(this.serverIP);
+        mysqlDataSource.setPort(MYSQL_PORT);
+        mysqlDataSource.setDatabaseName(this.dbName);
+        mysqlDataSource.setUser(this.dbUserName);
+        mysqlDataSource.setPassword(this.password);
+        mysqlDataSource.setUseServerPrepStmts(true);
+        // Streamed queries set fetch size, with cursor fetch rows are read from server by fetch size instead of all at once
+        mysqlDataSource.setUseCursorFetch(true);
+        // Raw result sets are copied to CachedRowSet, which looks up columns by name, so aliases must be returned as names
+        mysqlDataSource.setUseOldAliasMetadataBehavior(true);
+
+        pool = new BeerConnectionPool(mysqlDataSource, poolSize, acquireTimeoutMillis, healthCheckIntervalMillis, statementCacheSize);
+        try {
+            pool.release(pool.acquire());
+        } catch (SQLException e) {
+            e.printStackTrace();
+            pool.close();
+            success = false;
+        }
+
+        return success;
+    }
+
+    /**
+     * Safely close connection and release resources
+     *
+     * @return true if success, false if failed
+     */
+    public boolean closeConnection() {
+        boolean success = pool != null;
+
+        if (success) {
+            pool.close();
+        }
+
+        return success;
+    }
+
+    /**
+     * Sets maximal number of simultaneously open connections. Applied on next openConnection
+     *
+     * @param poolSize
+     */
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    /**
+     * Sets how long a query waits for free connection. Applied on next openConnection
+     *
+     * @param acquireTimeoutMillis
+     */
+    public void setAcquireTimeoutMillis(long acquireTimeoutMillis) {
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    /**
+     * Sets after how long idle time connection is validated before use. Applied on next openConnection
+     *
+     * @param healthCheckIntervalMillis
+     */
+    public void setHealthCheckIntervalMillis(long healthCheckIntervalMillis) {
+        this.healthCheckIntervalMillis = healthCheckIntervalMillis;
+    }
+
+    /**
+     * Sets how many prepared statements are cached per connection. Applied on next openConnection
+     *
+     * @param statementCacheSize
+     */
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    /**
+     * Sets how many rows are fetched per round trip when result is streamed
+     *
+     * @param fetchSize
+     */
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Get list of breweries from DB
+     *
+     * @return List as ResultSet
+     */
+    public ResultSet getBreweriesList() {
+        String queryFormat = "SELECT * FROM `%s`.`breweries`";
+        String query = String.format(queryFormat, this.dbName);
+
+        return executeQuery("breweriesList", query, this::copyResultSet);
+    }
+
+    /**
+     * Get all rows of given table
+     *
+     * @param tableName One of beerdb tables
+     * @return Table rows as ResultSet
+     */
+    public ResultSet getTableRaw(String tableName) {
+        String queryFormat = "SELECT * FROM `%s`.`%s`";
+        String query = String.format(queryFormat, this.dbName, tableName.replace("`", ""));
+
+        return executeQuery("table", query, this::copyResultSet);
+    }
+
+    /**
+     * Get all breweries that have geocodes. Distance column is always 0
+     *
+     * @return ResultSet with breweries
+     */
+    public ResultSet getGeocodedBreweriesRaw() {
+        return executeQuery("geocodedBreweries", GEOCODED_BREWERIES_QUERY, this::copyResultSet);
+    }
+
+    /**
+     * Get all breweries that have geocodes as an array
+     *
+     * @return array of Brewery
+     */
+    public Brewery[] getGeocodedBreweries() {
+        return executeQuery("geocodedBreweries", GEOCODED_BREWERIES_QUERY, this::getBreweriesFromResultSet);
+    }
+
+    /**
+     * Get list of breweries that are at most radius kilometres away from given coordinates.
+     * Geocodes are first filtered by indexed latitude/longitude bounding box,
+     * exact distance is calculated only for rows inside the box
+     *
+     * @param latitude
+     * @param longitude
+     * @param radius
+     * @return ResultSet with breweries
+     */
+    public ResultSet getBreweriesRaw(double latitude, double longitude, double radius) {
+        return executeQuery("breweries", BREWERIES_QUERY, this::copyResultSet, getBreweriesParameters(latitude, longitude, radius));
+    }
+
+    /**
+     * Get breweries as an array
+     *
+     * @param latitude
+     * @param longitude
+     * @param radius
+     * @return array of Brewery
+     */
+    public Brewery[] getBreweries(double latitude, double longitude, double radius) {
+        return executeQuery("breweries", BREWERIES_QUERY, this::getBreweriesFromResultSet, getBreweriesParameters(latitude, longitude, radius));
+    }
+
+    /**
+     * Streams breweries ordered ASC by distance while they are read from forward-only result set.
+     * Connection is held until stream is closed or fully read, so use it in try-with-resources
+     *
+     * @param latitude
+     * @param longitude
+     * @param radius
+     * @return Stream of Brewery
+     */
+    public Stream<Brewery> streamBreweries(double latitude, double longitude, double radius) {
+        return streamQuery("breweries", BREWERIES_QUERY, this::getBreweryFromResultSet, getBreweriesParameters(latitude, longitude, radius));
+    }
+
+    private Object[] getBreweriesParameters(double latitude, double longitude, double radius) {
+        ArrayList<Object> parameters = new ArrayList<>();
+        addPoint(parameters, latitude, longitude);
+        addBoundingBox(parameters, GeoDistance.boundingBox(latitude, longitude, radius));
+        parameters.add(radius);
+        return parameters.toArray();
+    }
+
+    /**
+     * Get all breweries whose sum of distances to both points is no more than maxDistance. Ordered ASC by distance
+     *
+     * @param latitude0
+     * @param longitude0
+     * @param latitude1
+     * @param longitude1
+     * @param maxDistance
+     * @return ResultSet of breweries
+     */
+    public ResultSet getAdjacentBreweriesRaw(double latitude0, double longitude0, double latitude1, double longitude1, double maxDistance) {
+        return executeQuery("adjacentBreweries", ADJACENT_BREWERIES_QUERY, this::copyResultSet,
+                getAdjacentBreweriesParameters(latitude0, longitude0, latitude1, longitude1, maxDistance));
+    }
+
+    /**
+     * Get breweries array
+     *
+     * @param breweryLeft
+     * @param breweryRight
+     * @param maxDistance
+     * @return Array of breweries
+     */
+    public HamiltonBrewery[] getAdjacentBreweries(Brewery breweryLeft, Brewery breweryRight, double maxDistance) {
+        return executeQuery("adjacentBreweries", ADJACENT_BREWERIES_QUERY, this::getHamiltonBreweriesFromResultSet,
+                getAdjacentBreweriesParameters(
+                        breweryLeft.getLatitude(),
+                        breweryLeft.getLongitude(),
+                        breweryRight.getLatitude(),
+                        breweryRight.getLongitude(),
+                        maxDistance));
+    }
+
+    /**
+     * Streams adjacent breweries ordered ASC by distance while they are read from forward-only result set.
+     * Reading can be stopped after first suitable row. Connection is held until stream
+     * is closed or fully read, so use it in try-with-resources
+     *
+     * @param breweryLeft
+     * @param breweryRight
+     * @param maxDistance
+     * @return Stream of HamiltonBrewery
+     */
+    public Stream<HamiltonBrewery> streamAdjacentBreweries(Brewery breweryLeft, Brewery breweryRight, double maxDistance) {
+        return streamQuery("adjacentBreweries", ADJACENT_BREWERIES_QUERY, this::getHamiltonBreweryFromResultSet,
+                getAdjacentBreweriesParameters(
+                        breweryLeft.getLatitude(),
+                        breweryLeft.getLongitude(),
+                        breweryRight.getLatitude(),
+                        breweryRight.getLongitude(),
+                        maxDistance));
+    }
+
+    private Object[] getAdjacentBreweriesParameters(double latitude0, double longitude0, double latitude1, double longitude1, double maxDistance) {
+        // Any point p with d(left, p) + d(p, right) <= maxDistance is at most (maxDistance + d(left, right)) / 2 from both ends
+        double radius = (maxDistance + GeoDistance.distance(latitude0, longitude0, latitude1, longitude1)) / 2;
+        ArrayList<Object> parameters = new ArrayList<>();
+        addPoint(parameters, latitude0, longitude0);
+        addPoint(parameters, latitude1, longitude1);
+        addBoundingBox(parameters, GeoDistance.boundingBox(latitude0, longitude0, radius));
+        addBoundingBox(parameters, GeoDistance.boundingBox(latitude1, longitude1, radius));
+        parameters.add(maxDistance);
+        return parameters.toArray();
+    }
+
+    /**
+     * For each gap between consecutive route points gets one brewery which sum of distances
+     * to both gap ends is smallest and is no more than maxDistance. All gaps are sent in one query
+     * as a derived table, already used breweries are excluded on the server side.
+     * Result has column gap_idx, where gap i is between points i and i+1
+     *
+     * @param route       Route points
+     * @param excludedIds Breweries that can not be returned
+     * @param maxDistance
+     * @return ResultSet with at most one brewery per gap
+     */
+    public ResultSet getBestAdjacentBreweriesRaw(List<? extends Brewery> route, Stream<Integer> excludedIds, double maxDistance) {
+        ArrayList<Object> parameters = new ArrayList<>();
+        String query = getBestAdjacentBreweriesQuery(route, excludedIds.collect(Collectors.toList()), maxDistance, parameters);
+        return executeQuery("bestAdjacentBreweries", query, this::copyResultSet, parameters.toArray());
+    }
+
+    /**
+     * Get best brewery for each gap between consecutive route points in one query
+     *
+     * @param route       Route points
+     * @param excludedIds Breweries that can not be returned
+     * @param maxDistance
+     * @return Array with element for each gap. If gap has no brewery, element is null
+     */
+    public HamiltonBrewery[] getBestAdjacentBreweries(List<? extends Brewery> route, Stream<Integer> excludedIds, double maxDistance) {
+        HamiltonBrewery[] breweries = new HamiltonBrewery[Math.max(route.size() - 1, 0)];
+        if (breweries.length == 0) {
+            return breweries;
+        }
+        ArrayList<Object> parameters = new ArrayList<>();
+        String query = getBestAdjacentBreweriesQuery(route, excludedIds.collect(Collectors.toList()), maxDistance, parameters);
+        return executeQuery("bestAdjacentBreweries", query, resultSet -> {
+            while (resultSet.next()) {
+                HamiltonBrewery brewery = new HamiltonBrewery();
+                brewery.fillData(resultSet);
+                breweries[resultSet.getInt("gap_idx")] = brewery;
+            }
+            return breweries;
+        }, parameters.toArray());
+    }
+
+    /**
+     * Builds batched adjacent breweries query and fills its parameters
+     *
+     * @param route
+     * @param excludedIds
+     * @param maxDistance
+     * @param parameters  Filled with query parameters
+     * @return SQL query
+     */
+    private String getBestAdjacentBreweriesQuery(List<? extends Brewery> route, List<Integer> excludedIds,
+                                                 double maxDistance, ArrayList<Object> parameters) {
+        ArrayList<Object> gapParameters = new ArrayList<>();
+        StringJoiner gaps = new StringJoiner(" UNION ALL ", "(", ")");
+        for (int i = 0; i < route.size() - 1; i++) {
+            Brewery left = route.get(i);
+            Brewery right = route.get(i + 1);
+            double radius = (maxDistance + GeoDistance.distance(left.getLatitude(), left.getLongitude(), right.getLatitude(), right.getLongitude())) / 2;
+            double[] leftBox = GeoDistance.boundingBox(left.getLatitude(), left.getLongitude(), radius);
+            double[] rightBox = GeoDistance.boundingBox(right.getLatitude(), right.getLongitude(), radius);
+            gaps.add("SELECT ? AS gap_idx, ? AS lat0, ? AS lon0, ? AS lat1, ? AS lon1, ? AS min_lat, ? AS max_lat, ? AS min_lon, ? AS max_lon");
+            gapParameters.add(i);
+            gapParameters.add(left.getLatitude());
+            gapParameters.add(left.getLongitude());
+            gapParameters.add(right.getLatitude());
+            gapParameters.add(right.getLongitude());
+            gapParameters.add(Math.max(leftBox[0], rightBox[0]));
+            gapParameters.add(Math.min(leftBox[1], rightBox[1]));
+            gapParameters.add(Math.max(leftBox[2], rightBox[2]));
+            gapParameters.add(Math.min(leftBox[3], rightBox[3]));
+        }
+        StringJoiner excluded = new StringJoiner(",", "WHERE bw.id NOT IN (", ")");
+        excluded.setEmptyValue("");
+        for (int i = 0; i < excludedIds.size(); i++) {
+            excluded.add("?");
+        }
+
+        String distanceLeft = "111.111 * DEGREES(ACOS(COS(RADIANS(gaps.lat0)) * COS(RADIANS(g.latitude)) * COS(RADIANS(gaps.lon0 - g.longitude)) + SIN(RADIANS(gaps.lat0)) * SIN(RADIANS(g.latitude))))";
+        String distanceRight = "111.111 * DEGREES(ACOS(COS(RADIANS(gaps.lat1)) * COS(RADIANS(g.latitude)) * COS(RADIANS(gaps.lon1 - g.longitude)) + SIN(RADIANS(gaps.lat1)) * SIN(RADIANS(g.latitude))))";
+
+        parameters.addAll(gapParameters);
+        parameters.addAll(excludedIds);
+        parameters.add(maxDistance);
+        parameters.addAll(gapParameters);
+
+        return String.join(" ",
+                "SELECT",
+                "best.gap_idx,",
+                "bw.*,",
+                "g.latitude,",
+                "g.longitude,",
+                distanceLeft, "AS distance_in_km_left,",
+                distanceRight, "AS distance_in_km_right,",
+                distanceLeft, "+", distanceRight, "AS distance_in_km",
+                "FROM",
+                "(SELECT",
+                "c.gap_idx,",
+                "SUBSTRING_INDEX(GROUP_CONCAT(c.geocode_id ORDER BY c.distance_in_km ASC), ',', 1) AS geocode_id",
+                "FROM",
+                "(SELECT",
+                "gaps.gap_idx,",
+                "g.id AS geocode_id,",
+                distanceLeft, "+", distanceRight, "AS distance_in_km",
+                "FROM",
+                gaps.toString(), "AS gaps",
+                "JOIN geocodes g ON g.latitude BETWEEN gaps.min_lat AND gaps.max_lat AND g.longitude BETWEEN gaps.min_lon AND gaps.max_lon",
+                "JOIN breweries bw ON g.brewery_id = bw.id",
+                excluded.toString(), ") AS c",
+                "WHERE",
+                "c.distance_in_km <= ?",
+                "GROUP BY c.gap_idx) AS best",
+                "JOIN", gaps.toString(), "AS gaps ON gaps.gap_idx = best.gap_idx",
+                "JOIN geocodes g ON g.id = best.geocode_id",
+                "JOIN breweries bw ON bw.id = g.brewery_id"
+        );
+    }
+
+    /**
+     * Adds parameters of DISTANCE_TO_PARAMETER
+     */
+    private void addPoint(ArrayList<Object> parameters, double latitude, double longitude) {
+        parameters.add(latitude);
+        parameters.add(longitude);
+        parameters.add(latitude);
+    }
+
+    /**
+     * Adds parameters of BOUNDING_BOX_CONDITION
+     */
+    private void addBoundingBox(ArrayList<Object> parameters, double[] box) {
+        for (double value : box) {
+            parameters.add(value);
+        }
+    }
+
+    /**
+     * Transforms ResultSet into array of Brewery
+     *
+     * @param resultSet
+     * @return Array of Brewery
+     */
+    private Brewery[] getBreweriesFromResultSet(ResultSet resultSet) {
+        ArrayList<Brewery> breweries = new ArrayList<>();
+        try {
+            while (resultSet.next()) {
+                breweries.add(getBreweryFromResultSet(resultSet));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+
+        return breweries.toArray(new Brewery[breweries.size()]);
+    }
+
+    /**
+     * Transforms current row of ResultSet into Brewery
+     *
+     * @param resultSet
+     * @return Brewery
+     */
+    private Brewery getBreweryFromResultSet(ResultSet resultSet) {
+        Brewery brewery = new Brewery();
+        brewery.fillData(resultSet);
+        return brewery;
+    }
+
+    /**
+     * Transforms ResultSet into array of HamiltonBrewery
+     *
+     * @param resultSet
+     * @return Array of HamiltonBrewery
+     */
+    private HamiltonBrewery[] getHamiltonBreweriesFromResultSet(ResultSet resultSet) {
+        ArrayList<HamiltonBrewery> breweries = new ArrayList<>();
+        try {
+            while (resultSet.next()) {
+                breweries.add(getHamiltonBreweryFromResultSet(resultSet));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+
+        return breweries.toArray(new HamiltonBrewery[breweries.size()]);
+    }
+
+    /**
+     * Transforms current row of ResultSet into HamiltonBrewery
+     *
+     * @param resultSet
+     * @return HamiltonBrewery
+     */
+    private HamiltonBrewery getHamiltonBreweryFromResultSet(ResultSet resultSet) {
+        HamiltonBrewery brewery = new HamiltonBrewery();
+        brewery.fillData(resultSet);
+        return brewery;
+    }
+
+    /**
+     * Gets distinct list of beers manufactured in given breweries
+     *
+     * @param breweriesIds
+     * @return ResultSet of beers
+     */
+    public ResultSet getDistinctBeersRaw(Stream<Integer> breweriesIds) {
+        Object[] parameters = breweriesIds.toArray();
+        return executeQuery("distinctBeers", getDistinctBeersQuery(parameters.length), this::copyResultSet, parameters);
+    }
+
+    /**
+     * Gets distinct beers that are manufactured in given breweries.
+     *
+     * @param breweriesIds
+     * @return Array of Beer
+     */
+    public ArrayList<Beer> getDistinctBeers(Stream<Integer> breweriesIds) {
+        Object[] parameters = breweriesIds.toArray();
+        ArrayList<Beer> beers = executeQuery("distinctBeers", getDistinctBeersQuery(parameters.length), resultSet -> {
+            ArrayList<Beer> result = new ArrayList<>();
+            while (resultSet.next()) {
+                Beer beer = new Beer(resultSet.getString("name"),
+                        resultSet.getString("brewery"),
+                        resultSet.getString("cat_name"),
+                        resultSet.getString("style_name"));
+                result.add(beer);
+            }
+            return result;
+        }, parameters);
+
+        return beers == null ? new ArrayList<>() : beers;
+    }
+
+    /**
+     * Gets all beers with brewery id, category, style and brewery names, ordered by brewery id
+     *
+     * @return ResultSet of beers
+     */
+    public ResultSet getBreweryBeersRaw() {
+        return executeQuery("breweryBeers", BREWERY_BEERS_QUERY, this::copyResultSet);
+    }
+
+    /**
+     * Distinct beers query with given number of brewery id placeholders
+     *
+     * @param breweriesCount
+     * @return SQL query
+     */
+    private String getDistinctBeersQuery(int breweriesCount) {
+        StringJoiner placeholders = new StringJoiner(",");
+        placeholders.setEmptyValue("NULL");
+        for (int i = 0; i < breweriesCount; i++) {
+            placeholders.add("?");
+        }
+        return String.format(DISTINCT_BEERS_QUERY, placeholders.toString());
+    }
+
+    /**
+     * Copies ResultSet into disconnected, scrollable CachedRowSet,
+     * so connection can be returned to the pool before result is read
+     *
+     * @param resultSet
+     * @return Copy of result
+     * @throws SQLException
+     */
+    private ResultSet copyResultSet(ResultSet resultSet) throws SQLException {
+        CachedRowSet rowSet = RowSetProvider.newFactory().createCachedRowSet();
+        rowSet.populate(resultSet);
+        return rowSet;
+    }
+
+    /**
+     * Borrows connection from the pool, executes cached prepared statement with given parameters
+     * and maps result while connection is still held. Latency, rows and errors are recorded under metrics of query type
+     *
+     * @param type       Query type used in metric names
+     * @param query      SQL with ? placeholders
+     * @param mapper     Transforms result to return value
+     * @param parameters Values of placeholders
+     * @return Mapped result or null if query failed
+     */
+    private <T> T executeQuery(String type, String query, ResultSetMapper<T> mapper, Object... parameters) {
+        if (pool == null) {
+            return null;
+        }
+        T result = null;
+        BeerConnectionPool.PooledConnection connection = null;
+        MetricsRegistry metrics = Metrics.getRegistry();
+        PlannerEvents.SqlQuery event = new PlannerEvents.SqlQuery();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            connection = pool.acquire();
+            PreparedStatement statement = connection.prepareStatement(query);
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            statement.setFetchSize(0);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                result = mapper.map(resultSet);
+            }
+            event.rows = countRows(result);
+            metrics.counter("db.rows." + type).add(event.rows);
+        } catch (SQLException e) {
+            event.failed = true;
+            metrics.counter("db.errors." + type).increment();
+            e.printStackTrace();
+        } finally {
+            if (connection != null) {
+                pool.release(connection);
+            }
+            metrics.histogram("db.query." + type).record(System.nanoTime() - start);
+            event.end();
+            if (event.shouldCommit()) {
+                event.queryType = type;
+                event.commit();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Number of rows in mapped query result
+     *
+     * @param result Array, collection or row set
+     * @return Row count, 0 if it is unknown
+     */
+    private long countRows(Object result) {
+        if (result instanceof Object[]) {
+            return ((Object[]) result).length;
+        } else if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        } else if (result instanceof CachedRowSet) {
+            return ((CachedRowSet) result).size();
+        }
+        return 0;
+    }
+
+    /**
+     * Borrows connection from the pool and executes cached prepared statement with server side cursor,
+     * so rows are fetched by fetchSize while stream is consumed.
+     * Connection is returned when stream is closed or last row is read. Latency until first row and
+     * rows read are recorded under metrics of query type
+     *
+     * @param type       Query type used in metric names
+     * @param query      SQL with ? placeholders
+     * @param mapper     Transforms current row to stream element
+     * @param parameters Values of placeholders
+     * @return Stream of rows. Empty if query failed
+     */
+    private <T> Stream<T> streamQuery(String type, String query, ResultSetMapper<T> mapper, Object... parameters) {
+        // pool is replaced by openConnection, while stream may still hold connection of this one
+        BeerConnectionPool owner = pool;
+        if (owner == null) {
+            return Stream.empty();
+        }
+        BeerConnectionPool.PooledConnection connection = null;
+        ResultSet resultSet;
+        MetricsRegistry metrics = Metrics.getRegistry();
+        PlannerEvents.SqlQuery event = new PlannerEvents.SqlQuery();
+        event.queryType = type;
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            connection = owner.acquire();
+            PreparedStatement statement = connection.prepareStatement(query);
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            statement.setFetchSize(fetchSize);
+            resultSet = statement.executeQuery();
+        } catch (SQLException e) {
+            metrics.counter("db.errors." + type).increment();
+            e.printStackTrace();
+            if (connection != null) {
+                owner.release(connection);
+            }
+            event.failed = true;
+            event.commit();
+            return Stream.empty();
+        } finally {
+            metrics.histogram("db.query." + type).record(System.nanoTime() - start);
+        }
+
+        ResultSetSpliterator<T> spliterator = new ResultSetSpliterator<>(owner, connection, resultSet, mapper,
+                metrics.counter("db.rows." + type), event);
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+    }
+
+    /**
+     * Reads forward-only result set row by row and releases its connection to the pool it was acquired from when finished
+     */
+    private static class ResultSetSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+        private final BeerConnectionPool pool;
+        private final BeerConnectionPool.PooledConnection connection;
+        private final ResultSet resultSet;
+        private final ResultSetMapper<T> mapper;
+        private final LongAdder rowCounter;
+        private final PlannerEvents.SqlQuery event;
+        private long rows;
+        private boolean closed;
+
+        private ResultSetSpliterator(BeerConnectionPool pool, BeerConnectionPool.PooledConnection connection, ResultSet resultSet,
+                                     ResultSetMapper<T> mapper, LongAdder rowCounter, PlannerEvents.SqlQuery event) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.pool = pool;
+            this.connection = connection;
+            this.resultSet = resultSet;
+            this.mapper = mapper;
+            this.rowCounter = rowCounter;
+            this.event = event;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (closed) {
+                return false;
+            }
+            try {
+                if (resultSet.next()) {
+                    rows++;
+                    action.accept(mapper.map(resultSet));
+                    return true;
+                }
+            } catch (SQLException e) {
+                event.failed = true;
+                e.printStackTrace();
+            }
+            close();
+            return false;
+        }
+
+        private void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            rowCounter.add(rows);
+            event.rows = rows;
+            event.commit();
+            try {
+                resultSet.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+            pool.release(connection);
+        }
+    }
+
+    /**
+     * Transforms open ResultSet into result object
+     */
+    private interface ResultSetMapper<T> {
+        T map(ResultSet resultSet) throws SQLException;
+    }
+}
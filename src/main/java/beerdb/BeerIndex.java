@@ -0,0 +1,205 @@
+package beerdb;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * In-memory brewery to beers index. Every distinct beer (name, brewery, category and style names) gets a number,
+ * brewery keeps sorted list of its beer numbers. Distinct beers of many breweries are found by OR-ing
+ * their numbers into a BitSet, without any SQL.
+ */
+public class BeerIndex {
+
+    private final Beer[] beers;
+    private final int[] breweryIds;
+    private final int[] beerOffsets;
+    private final int[] beerNumbers;
+
+    private BeerIndex(Beer[] beers, int[] breweryIds, int[] beerOffsets, int[] beerNumbers) {
+        this.beers = beers;
+        this.breweryIds = breweryIds;
+        this.beerOffsets = beerOffsets;
+        this.beerNumbers = beerNumbers;
+    }
+
+    /**
+     * Builds index of all beers in snapshot
+     *
+     * @param snapshot
+     * @return Beer index
+     */
+    public static BeerIndex fromSnapshot(BrewerySnapshot snapshot) {
+        Builder builder = new Builder();
+        for (int breweryId : snapshot.getBreweryIds()) {
+            for (Beer beer : snapshot.getDistinctBeers(Stream.of(breweryId))) {
+                builder.add(breweryId, beer);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Builds index of all beers in database
+     *
+     * @param dh Database helper with open connection
+     * @return Beer index or null, if beers can not be read
+     */
+    public static BeerIndex fromDatabase(BeerDBHelper dh) {
+        ResultSet resultSet = dh.getBreweryBeersRaw();
+        if (resultSet == null) {
+            return null;
+        }
+        Builder builder = new Builder();
+        try {
+            while (resultSet.next()) {
+                builder.add(resultSet.getInt("brewery_id"), new Beer(resultSet.getString("name"),
+                        resultSet.getString("brewery"),
+                        resultSet.getString("cat_name"),
+                        resultSet.getString("style_name")));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+        return builder.build();
+    }
+
+    /**
+     * Number of distinct beers in index
+     *
+     * @return Beer count
+     */
+    public int size() {
+        return beers.length;
+    }
+
+    /**
+     * Gets distinct beers of given breweries, same as BeerDBHelper.getDistinctBeers.
+     * Beers are ordered by brewery order, then by order they were added
+     *
+     * @param breweriesIds
+     * @return Distinct beers
+     */
+    public ArrayList<Beer> getDistinctBeers(Stream<Integer> breweriesIds) {
+        return getDistinctBeers(breweriesIds.mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Same as getDistinctBeers with stream of ids
+     *
+     * @param breweriesIds
+     * @return Distinct beers
+     */
+    public ArrayList<Beer> getDistinctBeers(int[] breweriesIds) {
+        ArrayList<Beer> result = new ArrayList<>();
+        BitSet seen = new BitSet(beers.length);
+        for (int breweryId : breweriesIds) {
+            int idx = Arrays.binarySearch(breweryIds, breweryId);
+            if (idx < 0) {
+                continue;
+            }
+            for (int i = beerOffsets[idx]; i < beerOffsets[idx + 1]; i++) {
+                int number = beerNumbers[i];
+                if (!seen.get(number)) {
+                    seen.set(number);
+                    result.add(beers[number]);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Counts distinct beers of given breweries without creating beer list
+     *
+     * @param breweriesIds
+     * @return Distinct beer count
+     */
+    public int countDistinctBeers(int[] breweriesIds) {
+        return getBeerSet(breweriesIds).cardinality();
+    }
+
+    /**
+     * Numbers of distinct beers of given breweries
+     *
+     * @param breweriesIds
+     * @return BitSet of beer numbers
+     */
+    public BitSet getBeerSet(int[] breweriesIds) {
+        BitSet beerSet = new BitSet(beers.length);
+        for (int breweryId : breweriesIds) {
+            int idx = Arrays.binarySearch(breweryIds, breweryId);
+            if (idx < 0) {
+                continue;
+            }
+            for (int i = beerOffsets[idx]; i < beerOffsets[idx + 1]; i++) {
+                beerSet.set(beerNumbers[i]);
+            }
+        }
+        return beerSet;
+    }
+
+    /**
+     * Collects beers of breweries. Beers with equal names, brewery, category and style get the same number
+     */
+    public static class Builder {
+        private final HashMap<List<String>, Integer> numbers = new HashMap<>();
+        private final ArrayList<Beer> beers = new ArrayList<>();
+        private final ArrayList<long[]> rows = new ArrayList<>();
+
+        public Builder add(int breweryId, Beer beer) {
+            List<String> key = Arrays.asList(beer.getName(), beer.getBreweryName(), beer.getCategory(), beer.getStyle());
+            Integer number = numbers.get(key);
+            if (number == null) {
+                number = beers.size();
+                numbers.put(key, number);
+                beers.add(beer);
+            }
+            rows.add(new long[]{breweryId, rows.size(), number});
+            return this;
+        }
+
+        /**
+         * Creates index of collected beers
+         *
+         * @return Beer index
+         */
+        public BeerIndex build() {
+            // by brewery, then in order of adding
+            rows.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+
+            int[] breweryIds = new int[rows.size()];
+            int[] beerOffsets = new int[rows.size() + 1];
+            int[] beerNumbers = new int[rows.size()];
+            int breweries = 0;
+            int count = 0;
+            BitSet breweryBeers = new BitSet();
+            for (int i = 0; i < rows.size(); i++) {
+                long[] row = rows.get(i);
+                if (breweries == 0 || breweryIds[breweries - 1] != (int) row[0]) {
+                    breweryIds[breweries] = (int) row[0];
+                    beerOffsets[breweries] = count;
+                    breweries++;
+                    breweryBeers.clear();
+                }
+                int number = (int) row[2];
+                if (!breweryBeers.get(number)) {
+                    breweryBeers.set(number);
+                    beerNumbers[count++] = number;
+                }
+            }
+            beerOffsets[breweries] = count;
+
+            return new BeerIndex(beers.toArray(new Beer[beers.size()]),
+                    Arrays.copyOf(breweryIds, breweries),
+                    Arrays.copyOf(beerOffsets, breweries + 1),
+                    Arrays.copyOf(beerNumbers, count));
+        }
+    }
+}
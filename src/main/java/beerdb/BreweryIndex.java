@@ -0,0 +1,431 @@
+package beerdb;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory spatial index (k-d tree) over geocoded breweries.
+ * Breweries are stored as points on unit sphere, so straight line distance between
+ * bounding box and point gives lower bound of great-circle distance.
+ * Breweries are kept in BreweryStore ordered by tree leaves, so store position is also tree position.
+ * Leaves are scanned with haversine DistanceKernel, which agrees with SQL law of cosines up to rounding.
+ */
+public class BreweryIndex {
+
+    private static final int LEAF_SIZE = 8;
+
+    /**
+     * Node bounds are chord distances converted with arc sine, leaves are scanned with haversine. Both are exact
+     * on the sphere but round differently, so bounds are loosened by this many kilometres, which is far above
+     * the rounding error, to keep points lying exactly at the limit
+     */
+    private static final double BOUND_TOLERANCE = 0.001;
+
+    private final BreweryStore store;
+    private final double[] x;
+    private final double[] y;
+    private final double[] z;
+
+    private int nodeCount;
+    private int[] nodeFrom;
+    private int[] nodeTo;
+    private int[] nodeLeft;
+    private int[] nodeRight;
+    private double[] nodeMin;
+    private double[] nodeMax;
+
+    public BreweryIndex(Brewery[] breweries) {
+        int size = breweries.length;
+        Brewery[] ordered = breweries.clone();
+        this.x = new double[size];
+        this.y = new double[size];
+        this.z = new double[size];
+        for (int i = 0; i < size; i++) {
+            double[] vector = GeoDistance.toUnitVector(ordered[i].getLatitude(), ordered[i].getLongitude());
+            x[i] = vector[0];
+            y[i] = vector[1];
+            z[i] = vector[2];
+        }
+
+        int maxNodes = 4 * (size / LEAF_SIZE + 1);
+        nodeFrom = new int[maxNodes];
+        nodeTo = new int[maxNodes];
+        nodeLeft = new int[maxNodes];
+        nodeRight = new int[maxNodes];
+        nodeMin = new double[maxNodes * 3];
+        nodeMax = new double[maxNodes * 3];
+        if (size > 0) {
+            build(0, size, ordered);
+        }
+        this.store = new BreweryStore(ordered);
+    }
+
+    /**
+     * Number of indexed breweries
+     *
+     * @return Size of index
+     */
+    public int size() {
+        return store.size();
+    }
+
+    /**
+     * Indexed breweries. Availability BitSets passed to index are indexed by slots of this store
+     *
+     * @return Brewery store
+     */
+    public BreweryStore getStore() {
+        return store;
+    }
+
+    /**
+     * Finds available brewery which sum of distances to left and right points is smallest.
+     * Same as first available row of BeerDBHelper.getAdjacentBreweries
+     *
+     * @param latitude0   Left point latitude
+     * @param longitude0  Left point longitude
+     * @param latitude1   Right point latitude
+     * @param longitude1  Right point longitude
+     * @param maxDistance Maximal sum of distances
+     * @param available   Tells if brewery with given id can be used
+     * @return Brewery with distances to the left and right points. If nothing found, null is returned.
+     */
+    public HamiltonBrewery findClosest(double latitude0, double longitude0, double latitude1, double longitude1,
+                                       double maxDistance, IntPredicate available) {
+        return findClosestInSlots(latitude0, longitude0, latitude1, longitude1, maxDistance,
+                slot -> available.test(store.getSlotId(slot)));
+    }
+
+    /**
+     * Same as findClosest with id predicate, but availability is given as BitSet indexed by store slots
+     *
+     * @param latitude0   Left point latitude
+     * @param longitude0  Left point longitude
+     * @param latitude1   Right point latitude
+     * @param longitude1  Right point longitude
+     * @param maxDistance Maximal sum of distances
+     * @param available   Available slots of brewery store
+     * @return Brewery with distances to the left and right points. If nothing found, null is returned.
+     */
+    public HamiltonBrewery findClosest(double latitude0, double longitude0, double latitude1, double longitude1,
+                                       double maxDistance, BitSet available) {
+        return findClosestInSlots(latitude0, longitude0, latitude1, longitude1, maxDistance, available::get);
+    }
+
+    /**
+     * Same as findClosest with BitSet, but gives store position instead of creating brewery object
+     *
+     * @param latitude0   Left point latitude
+     * @param longitude0  Left point longitude
+     * @param latitude1   Right point latitude
+     * @param longitude1  Right point longitude
+     * @param maxDistance Maximal sum of distances
+     * @param available   Available slots of brewery store
+     * @param distances   Distances to the left and right points are written to distances[0] and distances[1]
+     * @return Store position of found brewery or -1 if nothing found
+     */
+    public int findClosestPosition(double latitude0, double longitude0, double latitude1, double longitude1,
+                                   double maxDistance, BitSet available, double[] distances) {
+        Search search = search(latitude0, longitude0, latitude1, longitude1, maxDistance, available::get);
+        if (search.bestIdx != -1) {
+            distances[0] = search.bestLeft;
+            distances[1] = search.bestRight;
+        }
+        return search.bestIdx;
+    }
+
+    private HamiltonBrewery findClosestInSlots(double latitude0, double longitude0, double latitude1, double longitude1,
+                                               double maxDistance, IntPredicate availableSlot) {
+        Search search = search(latitude0, longitude0, latitude1, longitude1, maxDistance, availableSlot);
+        if (search.bestIdx == -1) {
+            return null;
+        }
+        return store.toHamiltonBrewery(search.bestIdx, search.bestLeft, search.bestRight);
+    }
+
+    private Search search(double latitude0, double longitude0, double latitude1, double longitude1,
+                          double maxDistance, IntPredicate availableSlot) {
+        Search search = new Search(latitude0, longitude0, latitude1, longitude1, maxDistance, availableSlot);
+        if (nodeCount > 0) {
+            search.visit(0);
+        }
+        return search;
+    }
+
+    /**
+     * Finds breweries that are at most radius kilometres away from given point,
+     * same as BeerDBHelper.getBreweries
+     *
+     * @param latitude
+     * @param longitude
+     * @param radius
+     * @return Breweries with distance, ordered ASC by distance
+     */
+    public Brewery[] findWithinRadius(double latitude, double longitude, double radius) {
+        ArrayList<Brewery> result = new ArrayList<>();
+        if (nodeCount > 0) {
+            collectWithinRadius(0, latitude, longitude, GeoDistance.toUnitVector(latitude, longitude), radius,
+                    (position, distance) -> result.add(store.toBrewery(position, distance)));
+        }
+        result.sort(Comparator.comparingDouble(Brewery::getDistance));
+        return result.toArray(new Brewery[result.size()]);
+    }
+
+    /**
+     * Finds breweries that are at most radius kilometres away from given point without creating brewery objects
+     *
+     * @param latitude
+     * @param longitude
+     * @param radius
+     * @return Availability set with slots of found breweries, see getStore
+     */
+    public BitSet findAvailableWithinRadius(double latitude, double longitude, double radius) {
+        BitSet available = new BitSet(store.getSlotCount());
+        if (nodeCount > 0) {
+            collectWithinRadius(0, latitude, longitude, GeoDistance.toUnitVector(latitude, longitude), radius,
+                    (position, distance) -> available.set(store.getSlot(position)));
+        }
+        return available;
+    }
+
+    /**
+     * Finds store positions of breweries that are at most radius kilometres away from given point
+     *
+     * @param latitude
+     * @param longitude
+     * @param radius
+     * @return Positions in store, see getStore
+     */
+    public int[] findPositionsWithinRadius(double latitude, double longitude, double radius) {
+        IntStream.Builder positions = IntStream.builder();
+        if (nodeCount > 0) {
+            collectWithinRadius(0, latitude, longitude, GeoDistance.toUnitVector(latitude, longitude), radius,
+                    (position, distance) -> positions.add(position));
+        }
+        return positions.build().toArray();
+    }
+
+    private void collectWithinRadius(int node, double latitude, double longitude, double[] center, double radius,
+                                     PositionConsumer consumer) {
+        if (GeoDistance.chordToDistance(boxDistance(node, center)) - BOUND_TOLERANCE > radius) {
+            return;
+        }
+        if (nodeLeft[node] != -1) {
+            collectWithinRadius(nodeLeft[node], latitude, longitude, center, radius, consumer);
+            collectWithinRadius(nodeRight[node], latitude, longitude, center, radius, consumer);
+            return;
+        }
+        int from = nodeFrom[node];
+        double[] distances = new double[nodeTo[node] - from];
+        store.getDistanceKernel().distances(latitude, longitude, DistanceKernel.Accuracy.HAVERSINE,
+                from, nodeTo[node], distances);
+        for (int i = 0; i < distances.length; i++) {
+            if (distances[i] <= radius) {
+                consumer.accept(from + i, distances[i]);
+            }
+        }
+    }
+
+    /**
+     * Straight line distance from point on unit sphere to node's bounding box
+     */
+    private double boxDistance(int node, double[] point) {
+        double sum = 0.0;
+        for (int a = 0; a < 3; a++) {
+            double min = nodeMin[node * 3 + a];
+            double max = nodeMax[node * 3 + a];
+            double d = point[a] < min ? min - point[a] : point[a] > max ? point[a] - max : 0.0;
+            sum += d * d;
+        }
+        return Math.sqrt(sum);
+    }
+
+    /**
+     * Recursively splits breweries[from..to) by widest axis
+     *
+     * @param from
+     * @param to
+     * @param breweries Breweries reordered together with coordinates
+     * @return Index of created node
+     */
+    private int build(int from, int to, Brewery[] breweries) {
+        int node = nodeCount++;
+        nodeFrom[node] = from;
+        nodeTo[node] = to;
+        nodeLeft[node] = -1;
+        nodeRight[node] = -1;
+
+        double[] min = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE};
+        double[] max = {-Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+        for (int i = from; i < to; i++) {
+            min[0] = Math.min(min[0], x[i]);
+            min[1] = Math.min(min[1], y[i]);
+            min[2] = Math.min(min[2], z[i]);
+            max[0] = Math.max(max[0], x[i]);
+            max[1] = Math.max(max[1], y[i]);
+            max[2] = Math.max(max[2], z[i]);
+        }
+        System.arraycopy(min, 0, nodeMin, node * 3, 3);
+        System.arraycopy(max, 0, nodeMax, node * 3, 3);
+
+        if (to - from > LEAF_SIZE) {
+            int axis = 0;
+            for (int a = 1; a < 3; a++) {
+                if (max[a] - min[a] > max[axis] - min[axis]) {
+                    axis = a;
+                }
+            }
+            int middle = (from + to) >>> 1;
+            select(from, to - 1, middle, axis, breweries);
+            nodeLeft[node] = build(from, middle, breweries);
+            nodeRight[node] = build(middle, to, breweries);
+        }
+
+        return node;
+    }
+
+    /**
+     * Quickselect: places k-th element by given axis to its sorted position
+     */
+    private void select(int left, int right, int k, int axis, Brewery[] breweries) {
+        while (right > left) {
+            double pivot = coordinate((left + right) >>> 1, axis);
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (coordinate(i, axis) < pivot) {
+                    i++;
+                }
+                while (coordinate(j, axis) > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--, breweries);
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private double coordinate(int i, int axis) {
+        return axis == 0 ? x[i] : axis == 1 ? y[i] : z[i];
+    }
+
+    private void swap(int i, int j, Brewery[] breweries) {
+        Brewery brewery = breweries[i];
+        breweries[i] = breweries[j];
+        breweries[j] = brewery;
+        double t = x[i];
+        x[i] = x[j];
+        x[j] = t;
+        t = y[i];
+        y[i] = y[j];
+        y[j] = t;
+        t = z[i];
+        z[i] = z[j];
+        z[j] = t;
+    }
+
+    /**
+     * Branch and bound search state of one findClosest call
+     */
+    private class Search {
+        private final double latitude0;
+        private final double longitude0;
+        private final double latitude1;
+        private final double longitude1;
+        private final double[] left;
+        private final double[] right;
+        private final double maxDistance;
+        private final IntPredicate availableSlot;
+        private final double[] leftDistances = new double[LEAF_SIZE];
+        private final double[] rightDistances = new double[LEAF_SIZE];
+
+        private int bestIdx = -1;
+        private double bestDistance = Double.MAX_VALUE;
+        private double bestLeft;
+        private double bestRight;
+
+        private Search(double latitude0, double longitude0, double latitude1, double longitude1,
+                       double maxDistance, IntPredicate availableSlot) {
+            this.latitude0 = latitude0;
+            this.longitude0 = longitude0;
+            this.latitude1 = latitude1;
+            this.longitude1 = longitude1;
+            this.left = GeoDistance.toUnitVector(latitude0, longitude0);
+            this.right = GeoDistance.toUnitVector(latitude1, longitude1);
+            this.maxDistance = maxDistance;
+            this.availableSlot = availableSlot;
+        }
+
+        private void visit(int node) {
+            if (nodeLeft[node] == -1) {
+                visitLeaf(nodeFrom[node], nodeTo[node]);
+                return;
+            }
+
+            int first = nodeLeft[node];
+            int second = nodeRight[node];
+            double firstBound = lowerBound(first);
+            double secondBound = lowerBound(second);
+            if (secondBound < firstBound) {
+                int t = first;
+                first = second;
+                second = t;
+                double b = firstBound;
+                firstBound = secondBound;
+                secondBound = b;
+            }
+            if (firstBound <= limit()) {
+                visit(first);
+            }
+            if (secondBound <= limit()) {
+                visit(second);
+            }
+        }
+
+        private void visitLeaf(int from, int to) {
+            store.getDistanceKernel().distances(latitude0, longitude0, latitude1, longitude1,
+                    DistanceKernel.Accuracy.HAVERSINE, from, to, leftDistances, rightDistances);
+            for (int i = from; i < to; i++) {
+                double distanceLeft = leftDistances[i - from];
+                double distanceRight = rightDistances[i - from];
+                double distance = distanceLeft + distanceRight;
+                if (distance <= maxDistance && distance < bestDistance && availableSlot.test(store.getSlot(i))) {
+                    bestIdx = i;
+                    bestDistance = distance;
+                    bestLeft = distanceLeft;
+                    bestRight = distanceRight;
+                }
+            }
+        }
+
+        private double limit() {
+            return Math.min(bestDistance, maxDistance);
+        }
+
+        /**
+         * Lower bound of sum of distances from left and right points to any point in node's bounding box
+         */
+        private double lowerBound(int node) {
+            return GeoDistance.chordToDistance(boxDistance(node, left)) + GeoDistance.chordToDistance(boxDistance(node, right))
+                    - BOUND_TOLERANCE;
+        }
+    }
+
+    /**
+     * Receives store position of found brewery with its distance
+     */
+    private interface PositionConsumer {
+        void accept(int position, double distance);
+    }
+}
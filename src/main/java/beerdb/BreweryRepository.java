@@ -0,0 +1,54 @@
+package beerdb;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Source of brewery and beer data used by route planning. Every lookup returns a future,
+ * so caller can start several lookups or continue computation while data is loaded.
+ * Failed lookups complete the future exceptionally.
+ * Implementations: MySqlBreweryRepository over BeerDBHelper and InMemoryBreweryRepository over BrewerySnapshot
+ */
+public interface BreweryRepository extends AutoCloseable {
+
+    /**
+     * Gets all breweries that have geocodes
+     *
+     * @return Future of breweries
+     */
+    CompletableFuture<Brewery[]> findGeocodedBreweries();
+
+    /**
+     * Gets breweries that are at most radius kilometres away from given point
+     *
+     * @param latitude
+     * @param longitude
+     * @param radius
+     * @return Future of breweries with distance, ordered ASC by distance
+     */
+    CompletableFuture<Brewery[]> findWithinRadius(double latitude, double longitude, double radius);
+
+    /**
+     * Gets breweries whose sum of distances to both points is no more than maxDistance
+     *
+     * @param breweryLeft
+     * @param breweryRight
+     * @param maxDistance
+     * @return Future of breweries with distances to the left and right points, ordered ASC by distance
+     */
+    CompletableFuture<HamiltonBrewery[]> findAdjacent(Brewery breweryLeft, Brewery breweryRight, double maxDistance);
+
+    /**
+     * Gets all distinct beers that are manufactured within given breweries
+     *
+     * @param breweriesIds
+     * @return Future of distinct beers
+     */
+    CompletableFuture<ArrayList<Beer>> findDistinctBeers(int[] breweriesIds);
+
+    /**
+     * Releases resources of repository, lookups must not be started after close
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,550 @@
+package beerdb;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Read-only binary snapshot of brewery dataset (breweries, geocodes, categories, styles and beers).
+ * File is memory-mapped, so it can be opened in milliseconds and data stays outside of heap.
+ * Snapshot is created by Builder from mysql dump or from live database.
+ * <p>
+ * File layout: header with row counts, then every table as columns of int/double arrays
+ * and a string table. Strings are referenced by index, -1 means NULL.
+ * Breweries, categories and styles are sorted by id, beers by brewery id.
+ */
+public class BrewerySnapshot {
+
+    private static final int MAGIC = 0x42454552;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+
+    private final ByteBuffer buffer;
+
+    private final int breweryCount;
+    private final int geocodeCount;
+    private final int categoryCount;
+    private final int styleCount;
+    private final int beerCount;
+
+    private final int breweryIdOffset;
+    private final int breweryNameOffset;
+    private final int breweryCityOffset;
+    private final int geocodeBreweryIdOffset;
+    private final int geocodeLatitudeOffset;
+    private final int geocodeLongitudeOffset;
+    private final int categoryIdOffset;
+    private final int categoryNameOffset;
+    private final int styleIdOffset;
+    private final int styleNameOffset;
+    private final int beerBreweryIdOffset;
+    private final int beerNameOffset;
+    private final int beerCategoryIdOffset;
+    private final int beerStyleIdOffset;
+    private final int stringOffsetsOffset;
+    private final int stringBytesOffset;
+
+    private BrewerySnapshot(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a brewery snapshot or unsupported version");
+        }
+        breweryCount = buffer.getInt(8);
+        geocodeCount = buffer.getInt(12);
+        categoryCount = buffer.getInt(16);
+        styleCount = buffer.getInt(20);
+        beerCount = buffer.getInt(24);
+        int stringCount = buffer.getInt(28);
+
+        Layout layout = new Layout(HEADER_SIZE);
+        breweryIdOffset = layout.ints(breweryCount);
+        breweryNameOffset = layout.ints(breweryCount);
+        breweryCityOffset = layout.ints(breweryCount);
+        geocodeBreweryIdOffset = layout.ints(geocodeCount);
+        geocodeLatitudeOffset = layout.doubles(geocodeCount);
+        geocodeLongitudeOffset = layout.doubles(geocodeCount);
+        categoryIdOffset = layout.ints(categoryCount);
+        categoryNameOffset = layout.ints(categoryCount);
+        styleIdOffset = layout.ints(styleCount);
+        styleNameOffset = layout.ints(styleCount);
+        beerBreweryIdOffset = layout.ints(beerCount);
+        beerNameOffset = layout.ints(beerCount);
+        beerCategoryIdOffset = layout.ints(beerCount);
+        beerStyleIdOffset = layout.ints(beerCount);
+        stringOffsetsOffset = layout.ints(stringCount + 1);
+        stringBytesOffset = layout.position;
+    }
+
+    /**
+     * Memory-maps snapshot file
+     *
+     * @param file
+     * @return Opened snapshot
+     * @throws IOException if file can not be read or is not a snapshot
+     */
+    public static BrewerySnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new BrewerySnapshot(buffer);
+        }
+    }
+
+    public int getBreweryCount() {
+        return breweryCount;
+    }
+
+    public int getGeocodeCount() {
+        return geocodeCount;
+    }
+
+    public int getBeerCount() {
+        return beerCount;
+    }
+
+    /**
+     * Get all breweries that have geocodes, same as BeerDBHelper.getGeocodedBreweries
+     *
+     * @return array of Brewery
+     */
+    public Brewery[] getBreweries() {
+        ArrayList<Brewery> breweries = new ArrayList<>(geocodeCount);
+        for (int i = 0; i < geocodeCount; i++) {
+            int idx = findBrewery(getInt(geocodeBreweryIdOffset, i));
+            if (idx < 0) {
+                continue;
+            }
+            Brewery brewery = new Brewery();
+            brewery.setId(getInt(breweryIdOffset, idx));
+            brewery.setName(getString(getInt(breweryNameOffset, idx)));
+            brewery.setCity(getString(getInt(breweryCityOffset, idx)));
+            brewery.setLatitude(getDouble(geocodeLatitudeOffset, i));
+            brewery.setLongitude(getDouble(geocodeLongitudeOffset, i));
+            breweries.add(brewery);
+        }
+        return breweries.toArray(new Brewery[breweries.size()]);
+    }
+
+    /**
+     * Gets distinct beers that are manufactured in given breweries, same as BeerDBHelper.getDistinctBeers
+     *
+     * @param breweriesIds
+     * @return Array of Beer
+     */
+    public ArrayList<Beer> getDistinctBeers(Stream<Integer> breweriesIds) {
+        ArrayList<Beer> beers = new ArrayList<>();
+        LinkedHashSet<String> seen = new LinkedHashSet<>();
+        breweriesIds.distinct().forEach(breweryId -> {
+            int breweryIdx = findBrewery(breweryId);
+            if (breweryIdx < 0) {
+                return;
+            }
+            String breweryName = getString(getInt(breweryNameOffset, breweryIdx));
+            for (int i = firstBeerOf(breweryId); i < beerCount && getInt(beerBreweryIdOffset, i) == breweryId; i++) {
+                Beer beer = new Beer(getString(getInt(beerNameOffset, i)),
+                        breweryName,
+                        getCategoryName(getInt(beerCategoryIdOffset, i)),
+                        getStyleName(getInt(beerStyleIdOffset, i)));
+                if (seen.add(beer.toString())) {
+                    beers.add(beer);
+                }
+            }
+        });
+        return beers;
+    }
+
+    /**
+     * Ids of all breweries, ascending
+     *
+     * @return Brewery ids
+     */
+    public int[] getBreweryIds() {
+        int[] ids = new int[breweryCount];
+        for (int i = 0; i < breweryCount; i++) {
+            ids[i] = getInt(breweryIdOffset, i);
+        }
+        return ids;
+    }
+
+    /**
+     * Brewery id and style id of every beer, ordered by brewery id
+     *
+     * @return Two columns: brewery ids and style ids
+     */
+    public int[][] getBeerStyles() {
+        int[][] columns = new int[2][beerCount];
+        for (int i = 0; i < beerCount; i++) {
+            columns[0][i] = getInt(beerBreweryIdOffset, i);
+            columns[1][i] = getInt(beerStyleIdOffset, i);
+        }
+        return columns;
+    }
+
+    private String getCategoryName(int categoryId) {
+        int idx = binarySearch(categoryIdOffset, categoryCount, categoryId);
+        return idx < 0 ? null : getString(getInt(categoryNameOffset, idx));
+    }
+
+    private String getStyleName(int styleId) {
+        int idx = binarySearch(styleIdOffset, styleCount, styleId);
+        return idx < 0 ? null : getString(getInt(styleNameOffset, idx));
+    }
+
+    private int findBrewery(int breweryId) {
+        return binarySearch(breweryIdOffset, breweryCount, breweryId);
+    }
+
+    /**
+     * Index of first beer of given brewery. Beers are sorted by brewery id
+     */
+    private int firstBeerOf(int breweryId) {
+        int low = 0;
+        int high = beerCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (getInt(beerBreweryIdOffset, middle) < breweryId) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int binarySearch(int columnOffset, int count, int key) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int value = getInt(columnOffset, middle);
+            if (value < key) {
+                low = middle + 1;
+            } else if (value > key) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private int getInt(int columnOffset, int i) {
+        return buffer.getInt(columnOffset + i * 4);
+    }
+
+    private double getDouble(int columnOffset, int i) {
+        return buffer.getDouble(columnOffset + i * 8);
+    }
+
+    private String getString(int ref) {
+        if (ref < 0) {
+            return null;
+        }
+        int from = getInt(stringOffsetsOffset, ref);
+        int to = getInt(stringOffsetsOffset, ref + 1);
+        byte[] bytes = new byte[to - from];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(stringBytesOffset + from + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Converts mysql dump or live database into snapshot file.
+     * Usage: BrewerySnapshot dump.sql output.snapshot
+     * or BrewerySnapshot --mysql serverIP dbName user password output.snapshot
+     *
+     * @param args
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+        Builder builder;
+        Path output;
+        if (args.length == 2) {
+            builder = Builder.fromDump(Paths.get(args[0]));
+            output = Paths.get(args[1]);
+        } else if (args.length == 6 && "--mysql".equals(args[0])) {
+            BeerDBHelper dh = new BeerDBHelper(args[1], args[2], args[3], args[4]);
+            if (!dh.openConnection()) {
+                System.err.println("Can not connect to database");
+                return;
+            }
+            builder = Builder.fromDatabase(dh);
+            dh.closeConnection();
+            output = Paths.get(args[5]);
+        } else {
+            System.err.println("Usage: BrewerySnapshot dump.sql output.snapshot");
+            System.err.println("       BrewerySnapshot --mysql serverIP dbName user password output.snapshot");
+            return;
+        }
+        builder.write(output);
+    }
+
+    /**
+     * Computes aligned offsets of columns in file
+     */
+    private static class Layout {
+        private int position;
+
+        private Layout(int position) {
+            this.position = position;
+        }
+
+        private int ints(int count) {
+            int offset = position;
+            position += count * 4;
+            return offset;
+        }
+
+        private int doubles(int count) {
+            position = (position + 7) & ~7;
+            int offset = position;
+            position += count * 8;
+            return offset;
+        }
+    }
+
+    /**
+     * Collects table rows and writes them as snapshot file
+     */
+    public static class Builder {
+        private final ArrayList<int[]> breweries = new ArrayList<>();
+        private final ArrayList<int[]> geocodeBreweries = new ArrayList<>();
+        private final ArrayList<double[]> geocodeCoordinates = new ArrayList<>();
+        private final ArrayList<int[]> categories = new ArrayList<>();
+        private final ArrayList<int[]> styles = new ArrayList<>();
+        private final ArrayList<int[]> beers = new ArrayList<>();
+
+        private final ArrayList<String> strings = new ArrayList<>();
+        private final HashMap<String, Integer> stringRefs = new HashMap<>();
+
+        /**
+         * Reads tables from mysql dump file
+         *
+         * @param dumpFile
+         * @return Filled builder
+         * @throws IOException
+         */
+        public static Builder fromDump(Path dumpFile) throws IOException {
+            HashMap<String, List<String[]>> tables = MysqlDumpReader.read(dumpFile);
+            Builder builder = new Builder();
+            for (String[] row : tables.getOrDefault("breweries", new ArrayList<>())) {
+                builder.addBrewery(parseInt(row[0]), row[1], row[4]);
+            }
+            for (String[] row : tables.getOrDefault("geocodes", new ArrayList<>())) {
+                if (row[1] != null && row[2] != null && row[3] != null) {
+                    builder.addGeocode(parseInt(row[1]), Double.parseDouble(row[2]), Double.parseDouble(row[3]));
+                }
+            }
+            for (String[] row : tables.getOrDefault("categories", new ArrayList<>())) {
+                builder.addCategory(parseInt(row[0]), row[1]);
+            }
+            for (String[] row : tables.getOrDefault("styles", new ArrayList<>())) {
+                builder.addStyle(parseInt(row[0]), row[2]);
+            }
+            for (String[] row : tables.getOrDefault("beers", new ArrayList<>())) {
+                builder.addBeer(parseInt(row[1]), row[2], parseInt(row[3]), parseInt(row[4]));
+            }
+            return builder;
+        }
+
+        /**
+         * Reads tables from live database
+         *
+         * @param dh Database helper with open connection
+         * @return Filled builder
+         * @throws IOException if reading fails
+         */
+        public static Builder fromDatabase(BeerDBHelper dh) throws IOException {
+            Builder builder = new Builder();
+            try {
+                ResultSet resultSet = getTable(dh, "breweries");
+                while (resultSet.next()) {
+                    builder.addBrewery(resultSet.getInt("id"), resultSet.getString("name"), resultSet.getString("city"));
+                }
+                resultSet = getTable(dh, "geocodes");
+                while (resultSet.next()) {
+                    builder.addGeocode(resultSet.getInt("brewery_id"), resultSet.getDouble("latitude"), resultSet.getDouble("longitude"));
+                }
+                resultSet = getTable(dh, "categories");
+                while (resultSet.next()) {
+                    builder.addCategory(resultSet.getInt("id"), resultSet.getString("cat_name"));
+                }
+                resultSet = getTable(dh, "styles");
+                while (resultSet.next()) {
+                    builder.addStyle(resultSet.getInt("id"), resultSet.getString("style_name"));
+                }
+                resultSet = getTable(dh, "beers");
+                while (resultSet.next()) {
+                    builder.addBeer(resultSet.getInt("brewery_id"), resultSet.getString("name"),
+                            getInt(resultSet, "cat_id"), getInt(resultSet, "style_id"));
+                }
+            } catch (SQLException e) {
+                throw new IOException("Can not read tables from database", e);
+            }
+            return builder;
+        }
+
+        /**
+         * Same as parseInt of dump values: SQL NULL is -1, not 0 as returned by ResultSet.getInt
+         */
+        private static int getInt(ResultSet resultSet, String column) throws SQLException {
+            int value = resultSet.getInt(column);
+            return resultSet.wasNull() ? -1 : value;
+        }
+
+        private static ResultSet getTable(BeerDBHelper dh, String table) throws IOException {
+            ResultSet resultSet = dh.getTableRaw(table);
+            if (resultSet == null) {
+                throw new IOException("Can not read table " + table);
+            }
+            return resultSet;
+        }
+
+        public Builder addBrewery(int id, String name, String city) {
+            breweries.add(new int[]{id, stringRef(name), stringRef(city)});
+            return this;
+        }
+
+        public Builder addGeocode(int breweryId, double latitude, double longitude) {
+            geocodeBreweries.add(new int[]{breweryId});
+            geocodeCoordinates.add(new double[]{latitude, longitude});
+            return this;
+        }
+
+        public Builder addCategory(int id, String name) {
+            categories.add(new int[]{id, stringRef(name)});
+            return this;
+        }
+
+        public Builder addStyle(int id, String name) {
+            styles.add(new int[]{id, stringRef(name)});
+            return this;
+        }
+
+        public Builder addBeer(int breweryId, String name, int categoryId, int styleId) {
+            beers.add(new int[]{breweryId, stringRef(name), categoryId, styleId});
+            return this;
+        }
+
+        /**
+         * Writes collected rows to snapshot file
+         *
+         * @param file
+         * @throws IOException
+         */
+        public void write(Path file) throws IOException {
+            try (OutputStream stream = Files.newOutputStream(file)) {
+                writeTo(stream);
+            }
+        }
+
+        /**
+         * Creates snapshot of collected rows in heap memory, without writing a file
+         *
+         * @return Snapshot
+         * @throws IOException
+         */
+        public BrewerySnapshot build() throws IOException {
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            writeTo(stream);
+            return new BrewerySnapshot(ByteBuffer.wrap(stream.toByteArray()));
+        }
+
+        private void writeTo(OutputStream stream) throws IOException {
+            breweries.sort(Comparator.comparingInt(row -> row[0]));
+            categories.sort(Comparator.comparingInt(row -> row[0]));
+            styles.sort(Comparator.comparingInt(row -> row[0]));
+            beers.sort(Comparator.comparingInt(row -> row[0]));
+
+            byte[][] encoded = new byte[strings.size()][];
+            for (int i = 0; i < encoded.length; i++) {
+                encoded[i] = strings.get(i).getBytes(StandardCharsets.UTF_8);
+            }
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(breweries.size());
+                out.writeInt(geocodeBreweries.size());
+                out.writeInt(categories.size());
+                out.writeInt(styles.size());
+                out.writeInt(beers.size());
+                out.writeInt(encoded.length);
+
+                writeColumn(out, breweries, 0);
+                writeColumn(out, breweries, 1);
+                writeColumn(out, breweries, 2);
+                writeColumn(out, geocodeBreweries, 0);
+                writeDoubleColumn(out, geocodeCoordinates, 0);
+                writeDoubleColumn(out, geocodeCoordinates, 1);
+                writeColumn(out, categories, 0);
+                writeColumn(out, categories, 1);
+                writeColumn(out, styles, 0);
+                writeColumn(out, styles, 1);
+                writeColumn(out, beers, 0);
+                writeColumn(out, beers, 1);
+                writeColumn(out, beers, 2);
+                writeColumn(out, beers, 3);
+
+                int offset = 0;
+                for (byte[] bytes : encoded) {
+                    out.writeInt(offset);
+                    offset += bytes.length;
+                }
+                out.writeInt(offset);
+                for (byte[] bytes : encoded) {
+                    out.write(bytes);
+                }
+            }
+        }
+
+        private void writeColumn(DataOutputStream out, List<int[]> rows, int column) throws IOException {
+            for (int[] row : rows) {
+                out.writeInt(row[column]);
+            }
+        }
+
+        private void writeDoubleColumn(DataOutputStream out, List<double[]> rows, int column) throws IOException {
+            int padding = (8 - out.size() % 8) % 8;
+            out.write(new byte[padding]);
+            for (double[] row : rows) {
+                out.writeDouble(row[column]);
+            }
+        }
+
+        private int stringRef(String value) {
+            if (value == null) {
+                return -1;
+            }
+            Integer ref = stringRefs.get(value);
+            if (ref == null) {
+                ref = strings.size();
+                strings.add(value);
+                stringRefs.put(value, ref);
+            }
+            return ref;
+        }
+
+        private static int parseInt(String value) {
+            return value == null ? -1 : Integer.parseInt(value);
+        }
+    }
+}
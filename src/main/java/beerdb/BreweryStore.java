@@ -0,0 +1,196 @@
+package beerdb;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Read-only column store of breweries: ids, coordinates, names and cities are kept in primitive arrays
+ * indexed by position. Breweries with several geocodes share one slot, so availability of brewery can be
+ * tracked by planner in a BitSet indexed by slot instead of HashMap with Brewery objects.
+ */
+public class BreweryStore {
+
+    private final int[] ids;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final String[] names;
+    private final String[] cities;
+
+    private final int[] slots;
+    private final int[] slotIds;
+    private final DistanceKernel distanceKernel;
+
+    /**
+     * Copies breweries into column arrays, position i holds breweries[i]
+     *
+     * @param breweries
+     */
+    public BreweryStore(Brewery[] breweries) {
+        int size = breweries.length;
+        ids = new int[size];
+        latitudes = new double[size];
+        longitudes = new double[size];
+        names = new String[size];
+        cities = new String[size];
+        for (int i = 0; i < size; i++) {
+            Brewery brewery = breweries[i];
+            ids[i] = brewery.getId();
+            latitudes[i] = brewery.getLatitude();
+            longitudes[i] = brewery.getLongitude();
+            names[i] = brewery.getName();
+            cities[i] = (String) brewery.getCity();
+        }
+
+        int[] sortedIds = ids.clone();
+        Arrays.sort(sortedIds);
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || sortedIds[i] != sortedIds[i - 1]) {
+                sortedIds[distinct++] = sortedIds[i];
+            }
+        }
+        slotIds = Arrays.copyOf(sortedIds, distinct);
+        slots = new int[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = Arrays.binarySearch(slotIds, ids[i]);
+        }
+        distanceKernel = new DistanceKernel(latitudes, longitudes);
+    }
+
+    /**
+     * Number of stored breweries (positions)
+     *
+     * @return Size of store
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Number of distinct brewery ids, which is size of availability BitSet
+     *
+     * @return Slot count
+     */
+    public int getSlotCount() {
+        return slotIds.length;
+    }
+
+    public int getId(int position) {
+        return ids[position];
+    }
+
+    public double getLatitude(int position) {
+        return latitudes[position];
+    }
+
+    public double getLongitude(int position) {
+        return longitudes[position];
+    }
+
+    public String getName(int position) {
+        return names[position];
+    }
+
+    public String getCity(int position) {
+        return cities[position];
+    }
+
+    /**
+     * Batch distance kernel, which point indexes are store positions
+     *
+     * @return Distance kernel
+     */
+    public DistanceKernel getDistanceKernel() {
+        return distanceKernel;
+    }
+
+    /**
+     * Availability slot of brewery at given position
+     *
+     * @param position
+     * @return Slot index
+     */
+    public int getSlot(int position) {
+        return slots[position];
+    }
+
+    /**
+     * Brewery id of given availability slot
+     *
+     * @param slot
+     * @return Brewery id
+     */
+    public int getSlotId(int slot) {
+        return slotIds[slot];
+    }
+
+    /**
+     * Finds availability slot of brewery id
+     *
+     * @param id
+     * @return Slot index or -1 if brewery is not in the store
+     */
+    public int slotOf(int id) {
+        int slot = Arrays.binarySearch(slotIds, id);
+        return slot < 0 ? -1 : slot;
+    }
+
+    /**
+     * Creates availability set where every stored brewery is available
+     *
+     * @return BitSet with all slots set
+     */
+    public BitSet allAvailable() {
+        BitSet available = new BitSet(slotIds.length);
+        available.set(0, slotIds.length);
+        return available;
+    }
+
+    /**
+     * Tells if brewery with given id is in availability set
+     *
+     * @param available Availability set indexed by slot
+     * @param id
+     * @return True if brewery is stored and available
+     */
+    public boolean isAvailable(BitSet available, int id) {
+        int slot = slotOf(id);
+        return slot >= 0 && available.get(slot);
+    }
+
+    /**
+     * Creates brewery object of given position
+     *
+     * @param position
+     * @param distance Distance to set
+     * @return New brewery
+     */
+    public Brewery toBrewery(int position, double distance) {
+        Brewery brewery = new Brewery();
+        brewery.setId(ids[position]);
+        brewery.setName(names[position]);
+        brewery.setCity(cities[position]);
+        brewery.setLatitude(latitudes[position]);
+        brewery.setLongitude(longitudes[position]);
+        brewery.setDistance(distance);
+        return brewery;
+    }
+
+    /**
+     * Creates route element of given position
+     *
+     * @param position
+     * @param leftDistance  Distance to the left route element
+     * @param rightDistance Distance to the right route element
+     * @return New hamilton brewery, which distance is sum of left and right distances
+     */
+    public HamiltonBrewery toHamiltonBrewery(int position, double leftDistance, double rightDistance) {
+        HamiltonBrewery brewery = HamiltonBrewery.getInstance(latitudes[position], longitudes[position],
+                leftDistance + rightDistance, names[position]);
+        brewery.setId(ids[position]);
+        brewery.setCity(cities[position]);
+        brewery.setLeftDistance(leftDistance);
+        brewery.setRightDistance(rightDistance);
+        return brewery;
+    }
+}
@@ -0,0 +1,139 @@
+package beerdb;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * Bitsets of beer styles brewed by each brewery of BreweryStore, indexed by store slot.
+ * Style ids are mapped to dense bit numbers, so bitset of a brewery is only a few longs.
+ */
+public class BreweryStyles {
+
+    private final int words;
+    private final long[] bits;
+    private final int[] styleIds;
+
+    /**
+     * @param store        Breweries which slots index bitsets
+     * @param breweryIds   Brewery id of each beer
+     * @param beerStyleIds Style id of each beer, not positive ids are ignored
+     */
+    public BreweryStyles(BreweryStore store, int[] breweryIds, int[] beerStyleIds) {
+        styleIds = Arrays.stream(beerStyleIds).filter(id -> id > 0).distinct().sorted().toArray();
+        words = (styleIds.length + 63) / 64;
+        bits = new long[store.getSlotCount() * words];
+        for (int i = 0; i < breweryIds.length; i++) {
+            int slot = store.slotOf(breweryIds[i]);
+            if (slot >= 0 && beerStyleIds[i] > 0) {
+                int bit = Arrays.binarySearch(styleIds, beerStyleIds[i]);
+                bits[slot * words + bit / 64] |= 1L << (bit % 64);
+            }
+        }
+    }
+
+    /**
+     * Reads styles of all beers from snapshot
+     *
+     * @param store
+     * @param snapshot
+     * @return Brewery styles
+     */
+    public static BreweryStyles fromSnapshot(BreweryStore store, BrewerySnapshot snapshot) {
+        int[][] beerStyles = snapshot.getBeerStyles();
+        return new BreweryStyles(store, beerStyles[0], beerStyles[1]);
+    }
+
+    /**
+     * Reads styles of all beers from database
+     *
+     * @param store
+     * @param dh    Database helper with open connection
+     * @return Brewery styles or null, if beers can not be read
+     */
+    public static BreweryStyles fromDatabase(BreweryStore store, BeerDBHelper dh) {
+        ResultSet resultSet = dh.getTableRaw("beers");
+        if (resultSet == null) {
+            return null;
+        }
+        try {
+            int count = 0;
+            int[] breweryIds = new int[1024];
+            int[] styleIds = new int[1024];
+            while (resultSet.next()) {
+                if (count == breweryIds.length) {
+                    breweryIds = Arrays.copyOf(breweryIds, count * 2);
+                    styleIds = Arrays.copyOf(styleIds, count * 2);
+                }
+                breweryIds[count] = resultSet.getInt("brewery_id");
+                styleIds[count] = resultSet.getInt("style_id");
+                count++;
+            }
+            return new BreweryStyles(store, Arrays.copyOf(breweryIds, count), Arrays.copyOf(styleIds, count));
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Number of distinct styles
+     *
+     * @return Style count
+     */
+    public int getStyleCount() {
+        return styleIds.length;
+    }
+
+    /**
+     * Creates empty set of styles, which can be filled with add
+     *
+     * @return Empty style set
+     */
+    public long[] newStyleSet() {
+        return new long[words];
+    }
+
+    /**
+     * Counts styles of brewery, that are not in given set
+     *
+     * @param slot    Store slot of brewery
+     * @param covered Style set
+     * @return Number of new styles
+     */
+    public int countNew(int slot, long[] covered) {
+        int count = 0;
+        int offset = slot * words;
+        for (int w = 0; w < words; w++) {
+            count += Long.bitCount(bits[offset + w] & ~covered[w]);
+        }
+        return count;
+    }
+
+    /**
+     * Adds styles of brewery to given set
+     *
+     * @param slot    Store slot of brewery
+     * @param covered Style set
+     */
+    public void add(int slot, long[] covered) {
+        int offset = slot * words;
+        for (int w = 0; w < words; w++) {
+            covered[w] |= bits[offset + w];
+        }
+    }
+
+    /**
+     * Number of styles in set
+     *
+     * @param covered Style set
+     * @return Style count
+     */
+    public static int count(long[] covered) {
+        int count = 0;
+        for (long word : covered) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+}
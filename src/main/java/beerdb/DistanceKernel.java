@@ -0,0 +1,195 @@
+package beerdb;
+
+/**
+ * Batch great-circle distances from one or two reference points to many points.
+ * Point coordinates are converted to radians and sine and cosine of point latitudes are computed once in constructor,
+ * functions of reference point once per call. Per point law of cosines then needs one cosine and one arc cosine,
+ * haversine two sines, one square root and one arc sine and equirectangular one square root.
+ * Formula is selected once per call, so loops over plain double arrays do not dispatch per point.
+ * JIT compiler does not vectorize Math.sin, Math.cos, Math.asin and Math.acos, so time of law of cosines and haversine
+ * loops is dominated by these calls
+ */
+public class DistanceKernel {
+
+    /**
+     * Distance formula used by kernel
+     */
+    public enum Accuracy {
+        /**
+         * Spherical law of cosines, same as GeoDistance.distance and SQL queries
+         */
+        LAW_OF_COSINES,
+        /**
+         * Haversine formula, exact also for very short distances
+         */
+        HAVERSINE,
+        /**
+         * Equirectangular projection, fast approximation for distances up to a few hundred kilometres
+         */
+        EQUIRECTANGULAR
+    }
+
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final double[] sinLatitudes;
+    private final double[] cosLatitudes;
+
+    /**
+     * @param latitudes  Point latitudes in degrees
+     * @param longitudes Point longitudes in degrees
+     */
+    public DistanceKernel(double[] latitudes, double[] longitudes) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("Latitudes and longitudes differ in length: "
+                    + latitudes.length + " != " + longitudes.length);
+        }
+        int size = latitudes.length;
+        this.latitudes = new double[size];
+        this.longitudes = new double[size];
+        this.sinLatitudes = new double[size];
+        this.cosLatitudes = new double[size];
+        for (int i = 0; i < size; i++) {
+            this.latitudes[i] = Math.toRadians(latitudes[i]);
+            this.longitudes[i] = Math.toRadians(longitudes[i]);
+            this.sinLatitudes[i] = Math.sin(this.latitudes[i]);
+            this.cosLatitudes[i] = Math.cos(this.latitudes[i]);
+        }
+    }
+
+    /**
+     * Number of points
+     *
+     * @return Size of kernel
+     */
+    public int size() {
+        return latitudes.length;
+    }
+
+    /**
+     * Distances from reference point to points from..to-1
+     *
+     * @param latitude  Reference latitude in degrees
+     * @param longitude Reference longitude in degrees
+     * @param accuracy
+     * @param from      First point, inclusive
+     * @param to        Last point, exclusive
+     * @param result    Distance in kilometres of point i is written to result[i - from]
+     */
+    public void distances(double latitude, double longitude, Accuracy accuracy, int from, int to, double[] result) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        double sinLat = Math.sin(lat);
+        double cosLat = Math.cos(lat);
+        switch (accuracy) {
+            case LAW_OF_COSINES:
+                for (int i = from; i < to; i++) {
+                    result[i - from] = lawOfCosines(lat, lon, sinLat, cosLat, i);
+                }
+                break;
+            case HAVERSINE:
+                for (int i = from; i < to; i++) {
+                    result[i - from] = haversine(lat, lon, cosLat, i);
+                }
+                break;
+            default:
+                for (int i = from; i < to; i++) {
+                    result[i - from] = equirectangular(lat, lon, cosLat, i);
+                }
+        }
+    }
+
+    /**
+     * Distances from reference point to points with given indexes
+     *
+     * @param latitude  Reference latitude in degrees
+     * @param longitude Reference longitude in degrees
+     * @param accuracy
+     * @param points    Point indexes
+     * @param count     Number of indexes to use
+     * @param result    Distance in kilometres of points[k] is written to result[k]
+     */
+    public void distances(double latitude, double longitude, Accuracy accuracy, int[] points, int count, double[] result) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        double sinLat = Math.sin(lat);
+        double cosLat = Math.cos(lat);
+        switch (accuracy) {
+            case LAW_OF_COSINES:
+                for (int k = 0; k < count; k++) {
+                    result[k] = lawOfCosines(lat, lon, sinLat, cosLat, points[k]);
+                }
+                break;
+            case HAVERSINE:
+                for (int k = 0; k < count; k++) {
+                    result[k] = haversine(lat, lon, cosLat, points[k]);
+                }
+                break;
+            default:
+                for (int k = 0; k < count; k++) {
+                    result[k] = equirectangular(lat, lon, cosLat, points[k]);
+                }
+        }
+    }
+
+    /**
+     * Distance from reference point to one point
+     *
+     * @param latitude  Reference latitude in degrees
+     * @param longitude Reference longitude in degrees
+     * @param accuracy
+     * @param point     Point index
+     * @return Distance in kilometres
+     */
+    public double distance(double latitude, double longitude, Accuracy accuracy, int point) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        double cosLat = Math.cos(lat);
+        switch (accuracy) {
+            case LAW_OF_COSINES:
+                return lawOfCosines(lat, lon, Math.sin(lat), cosLat, point);
+            case HAVERSINE:
+                return haversine(lat, lon, cosLat, point);
+            default:
+                return equirectangular(lat, lon, cosLat, point);
+        }
+    }
+
+    /**
+     * Distances from left and right reference points to points from..to-1
+     *
+     * @param latitude0  Left latitude in degrees
+     * @param longitude0 Left longitude in degrees
+     * @param latitude1  Right latitude in degrees
+     * @param longitude1 Right longitude in degrees
+     * @param accuracy
+     * @param from       First point, inclusive
+     * @param to         Last point, exclusive
+     * @param left       Distance to left point of point i is written to left[i - from]
+     * @param right      Distance to right point of point i is written to right[i - from]
+     */
+    public void distances(double latitude0, double longitude0, double latitude1, double longitude1, Accuracy accuracy,
+                          int from, int to, double[] left, double[] right) {
+        distances(latitude0, longitude0, accuracy, from, to, left);
+        distances(latitude1, longitude1, accuracy, from, to, right);
+    }
+
+    private double lawOfCosines(double lat, double lon, double sinLat, double cosLat, int i) {
+        double cos = cosLat * cosLatitudes[i] * Math.cos(lon - longitudes[i]) + sinLat * sinLatitudes[i];
+        return GeoDistance.KM_PER_RADIAN * Math.acos(Math.max(-1.0, Math.min(1.0, cos)));
+    }
+
+    private double haversine(double lat, double lon, double cosLat, int i) {
+        double sinLat = Math.sin((latitudes[i] - lat) / 2);
+        double sinLon = Math.sin((longitudes[i] - lon) / 2);
+        double h = sinLat * sinLat + cosLat * cosLatitudes[i] * sinLon * sinLon;
+        return GeoDistance.KM_PER_RADIAN * 2.0 * Math.asin(Math.sqrt(Math.min(1.0, h)));
+    }
+
+    private double equirectangular(double lat, double lon, double cosLat, int i) {
+        double deltaLon = Math.abs(longitudes[i] - lon);
+        deltaLon = Math.min(deltaLon, 2 * Math.PI - deltaLon);
+        double x = deltaLon * (cosLat + cosLatitudes[i]) / 2;
+        double y = latitudes[i] - lat;
+        return GeoDistance.KM_PER_RADIAN * Math.sqrt(x * x + y * y);
+    }
+}
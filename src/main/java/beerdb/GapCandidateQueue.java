@@ -0,0 +1,95 @@
+package beerdb;
+
+import java.util.IdentityHashMap;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps best insertion candidate of every Hamilton route gap in a min-heap ordered by candidate distance.
+ * Gap is identified by its left route element. When gap is split or recalculated old heap entry
+ * becomes stale and is skipped lazily.
+ */
+public class GapCandidateQueue {
+
+    private final PriorityQueue<Gap> queue = new PriorityQueue<>(
+            (a, b) -> Double.compare(a.candidate.getDistance(), b.candidate.getDistance()));
+    private final IdentityHashMap<HamiltonBrewery, Gap> gapsByLeft = new IdentityHashMap<>();
+    private long putCount;
+
+    /**
+     * Sets best candidate for gap (left..right), replacing previous candidate of this gap.
+     * If candidate is null gap is forgotten, since nothing can be inserted there
+     *
+     * @param left
+     * @param right
+     * @param candidate
+     */
+    public void put(HamiltonBrewery left, HamiltonBrewery right, HamiltonBrewery candidate) {
+        putCount++;
+        if (candidate == null) {
+            gapsByLeft.remove(left);
+            return;
+        }
+        Gap gap = new Gap(left, right, candidate);
+        gapsByLeft.put(left, gap);
+        queue.add(gap);
+    }
+
+    /**
+     * Gets gap with smallest candidate distance without removing it
+     *
+     * @return Gap or null if queue is empty
+     */
+    public Gap peek() {
+        Gap gap = queue.peek();
+        while (gap != null && gapsByLeft.get(gap.left) != gap) {
+            queue.poll();
+            gap = queue.peek();
+        }
+        return gap;
+    }
+
+    /**
+     * Number of put calls, that is how many gap candidates were searched
+     *
+     * @return Put count
+     */
+    public long getPutCount() {
+        return putCount;
+    }
+
+    /**
+     * Number of gaps that have candidates
+     *
+     * @return Size of queue
+     */
+    public int size() {
+        return gapsByLeft.size();
+    }
+
+    /**
+     * Gap between two adjacent route elements with best candidate for insertion
+     */
+    public static class Gap {
+        private final HamiltonBrewery left;
+        private final HamiltonBrewery right;
+        private final HamiltonBrewery candidate;
+
+        private Gap(HamiltonBrewery left, HamiltonBrewery right, HamiltonBrewery candidate) {
+            this.left = left;
+            this.right = right;
+            this.candidate = candidate;
+        }
+
+        public HamiltonBrewery getLeft() {
+            return left;
+        }
+
+        public HamiltonBrewery getRight() {
+            return right;
+        }
+
+        public HamiltonBrewery getCandidate() {
+            return candidate;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package beerdb;
+
+/**
+ * Great-circle distance helpers matching the formula used in BeerDBHelper SQL queries
+ */
+public final class GeoDistance {
+
+    /**
+     * Kilometres per degree of arc, same constant as in SQL queries
+     */
+    public static final double KM_PER_DEGREE = 111.111;
+
+    /**
+     * Kilometres per radian of arc
+     */
+    public static final double KM_PER_RADIAN = KM_PER_DEGREE * 180.0 / Math.PI;
+
+    /**
+     * Bounding boxes are widened by this angle (radians), so rounding in SQL does not drop border points
+     */
+    private static final double BOX_TOLERANCE = 1e-7;
+
+    private GeoDistance() {
+    }
+
+    /**
+     * Spherical law of cosines distance, equal to
+     * 111.111 * DEGREES(ACOS(COS(RADIANS(lat0)) * COS(RADIANS(lat1)) * COS(RADIANS(lon0 - lon1)) + SIN(RADIANS(lat0)) * SIN(RADIANS(lat1))))
+     *
+     * @param latitude0
+     * @param longitude0
+     * @param latitude1
+     * @param longitude1
+     * @return Distance in kilometres
+     */
+    public static double distance(double latitude0, double longitude0, double latitude1, double longitude1) {
+        double lat0 = Math.toRadians(latitude0);
+        double lat1 = Math.toRadians(latitude1);
+        double cos = Math.cos(lat0) * Math.cos(lat1) * Math.cos(Math.toRadians(longitude0 - longitude1))
+                + Math.sin(lat0) * Math.sin(lat1);
+        return KM_PER_RADIAN * Math.acos(Math.max(-1.0, Math.min(1.0, cos)));
+    }
+
+    /**
+     * Converts straight line (chord) distance between two points on unit sphere to distance in kilometres
+     *
+     * @param chord Chord length on unit sphere
+     * @return Distance in kilometres
+     */
+    public static double chordToDistance(double chord) {
+        return KM_PER_RADIAN * 2.0 * Math.asin(Math.min(1.0, chord / 2.0));
+    }
+
+    /**
+     * Latitude/longitude box that contains every point at most radius kilometres away from given point.
+     * If circle contains a pole or crosses 180th meridian, longitude range is not limited
+     *
+     * @param latitude
+     * @param longitude
+     * @param radius
+     * @return Array with min latitude, max latitude, min longitude and max longitude
+     */
+    public static double[] boundingBox(double latitude, double longitude, double radius) {
+        double angularRadius = radius / KM_PER_RADIAN + BOX_TOLERANCE;
+        double lat = Math.toRadians(latitude);
+        double minLat = lat - angularRadius;
+        double maxLat = lat + angularRadius;
+        double minLon = -Math.PI;
+        double maxLon = Math.PI;
+
+        if (minLat > -Math.PI / 2 && maxLat < Math.PI / 2) {
+            double deltaLon = Math.asin(Math.sin(angularRadius) / Math.cos(lat));
+            double lon = Math.toRadians(longitude);
+            if (lon - deltaLon >= -Math.PI && lon + deltaLon <= Math.PI) {
+                minLon = lon - deltaLon;
+                maxLon = lon + deltaLon;
+            }
+        }
+
+        return new double[]{
+                Math.toDegrees(Math.max(minLat, -Math.PI / 2)),
+                Math.toDegrees(Math.min(maxLat, Math.PI / 2)),
+                Math.toDegrees(minLon),
+                Math.toDegrees(maxLon)};
+    }
+
+    /**
+     * Converts coordinates to unit vector (x, y, z)
+     *
+     * @param latitude
+     * @param longitude
+     * @return Array with x, y and z
+     */
+    public static double[] toUnitVector(double latitude, double longitude) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        double cosLat = Math.cos(lat);
+        return new double[]{cosLat * Math.cos(lon), cosLat * Math.sin(lon), Math.sin(lat)};
+    }
+}
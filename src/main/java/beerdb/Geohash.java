@@ -0,0 +1,74 @@
+package beerdb;
+
+/**
+ * Geohash encoding of coordinates. Bits alternate between longitude and latitude halving, starting with longitude,
+ * so points with common hash prefix lie in the same rectangular tile and sorting by hash gives Z-order
+ */
+public final class Geohash {
+
+    /**
+     * Number of bits in hash returned by encode, 12 base32 characters
+     */
+    public static final int MAX_BITS = 60;
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    private Geohash() {
+    }
+
+    /**
+     * Encodes coordinates into hash of MAX_BITS bits
+     *
+     * @param latitude
+     * @param longitude
+     * @return Hash which first bit is the most significant of MAX_BITS bits
+     */
+    public static long encode(double latitude, double longitude) {
+        double minLatitude = -90.0;
+        double maxLatitude = 90.0;
+        double minLongitude = -180.0;
+        double maxLongitude = 180.0;
+        long hash = 0L;
+        for (int bit = 0; bit < MAX_BITS; bit++) {
+            hash <<= 1;
+            if (bit % 2 == 0) {
+                double middle = (minLongitude + maxLongitude) / 2;
+                if (longitude >= middle) {
+                    hash |= 1L;
+                    minLongitude = middle;
+                } else {
+                    maxLongitude = middle;
+                }
+            } else {
+                double middle = (minLatitude + maxLatitude) / 2;
+                if (latitude >= middle) {
+                    hash |= 1L;
+                    minLatitude = middle;
+                } else {
+                    maxLatitude = middle;
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Encodes coordinates into base32 geohash string
+     *
+     * @param latitude
+     * @param longitude
+     * @param precision Number of characters, 1 to 12
+     * @return Geohash string
+     */
+    public static String toString(double latitude, double longitude, int precision) {
+        if (precision < 1 || precision * 5 > MAX_BITS) {
+            throw new IllegalArgumentException("Precision must be from 1 to " + MAX_BITS / 5 + ": " + precision);
+        }
+        long hash = encode(latitude, longitude);
+        char[] chars = new char[precision];
+        for (int i = 0; i < precision; i++) {
+            chars[i] = BASE32[(int) (hash >>> (MAX_BITS - 5 * (i + 1))) & 31];
+        }
+        return new String(chars);
+    }
+}
@@ -1,3 +1,5 @@
+package beerdb;
+
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
@@ -71,6 +73,22 @@ public class HamiltonBrewery extends Brewery implements HamiltonPoint {
         return brewery;
     }
 
+    /**
+     * Creates copy of this brewery, which can be changed without changing this one
+     *
+     * @return HamiltonBrewery instance with the same fields
+     */
+    public HamiltonBrewery copy() {
+        HamiltonBrewery brewery = getInstance(getLatitude(), getLongitude(), getDistance(), getName());
+
+        brewery.setId(getId());
+        brewery.setCity((String) getCity());
+        brewery.setLeftDistance(leftDistance);
+        brewery.setRightDistance(rightDistance);
+
+        return brewery;
+    }
+
     @Override
     public String toString() {
         return String.format("%s | %s", getName(), getCity());
@@ -0,0 +1,1350 @@
+package beerdb;
+
+import org.jetbrains.annotations.Contract;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BinaryOperator;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Created by Ignas on 2017-05-03.
+ */
+public class HamiltonInsertion {
+
+    private static final String SERVER_IP = "127.0.0.1";
+    private static final String DB_NAME = "beerdb";
+    private static final String DB_USERNAME = "root";
+    private static final String DB_PASSWORD = "";
+
+    /**
+     * Insertion cost below this many kilometres counts as this many in diversity score, so score stays finite
+     */
+    private static final double MIN_DIVERSITY_INCREASE = 1.0;
+
+    private BeerDBHelper dh;
+    private BreweryRepository repository;
+    private BreweryIndex breweryIndex;
+    private BreweryStyles breweryStyles;
+    private BeerIndex beerIndex;
+    /**
+     * Limit of gap searches which are not given one. Planning methods search within limit of the call
+     */
+    private double distanceLimit;
+    private RouteOptimizer routeOptimizer = new RouteOptimizer();
+    private long localSearchTimeBudgetMillis;
+    private boolean loadIndex = true;
+
+    public HamiltonInsertion(double latitude, double longitude, double distanceLimit) {
+        this(latitude, longitude, distanceLimit, true);
+    }
+
+    /**
+     * Creates insertion algorithm working on MySQL database
+     *
+     * @param latitude
+     * @param longitude
+     * @param distanceLimit
+     * @param loadIndex     If false, breweries are not loaded into in-memory index by openDBHelper,
+     *                      so every lookup is answered by database queries
+     */
+    public HamiltonInsertion(double latitude, double longitude, double distanceLimit, boolean loadIndex) {
+        this.dh = new BeerDBHelper(SERVER_IP, DB_NAME, DB_USERNAME, DB_PASSWORD);
+        this.distanceLimit = distanceLimit;
+        this.loadIndex = loadIndex;
+    }
+
+    /**
+     * Creates insertion algorithm working on binary snapshot instead of MySQL database.
+     * Opening and closing database helper is not needed
+     *
+     * @param snapshot      Opened brewery snapshot
+     * @param distanceLimit
+     */
+    public HamiltonInsertion(BrewerySnapshot snapshot, double distanceLimit) {
+        this.breweryIndex = new BreweryIndex(snapshot.getBreweries());
+        this.breweryStyles = BreweryStyles.fromSnapshot(breweryIndex.getStore(), snapshot);
+        this.beerIndex = BeerIndex.fromSnapshot(snapshot);
+        this.distanceLimit = distanceLimit;
+    }
+
+    /**
+     * Creates insertion algorithm working on brewery repository. Breweries are loaded into in-memory spatial index,
+     * beers are looked up in repository. Use create to load breweries from repository without waiting.
+     * Repository does not give beer styles, so DIVERSITY strategy can not be used
+     *
+     * @param repository    Brewery repository, it is not closed by closeDBHelper
+     * @param breweries     Geocoded breweries of repository
+     * @param distanceLimit
+     */
+    public HamiltonInsertion(BreweryRepository repository, Brewery[] breweries, double distanceLimit) {
+        this.repository = repository;
+        this.breweryIndex = new BreweryIndex(breweries);
+        this.distanceLimit = distanceLimit;
+    }
+
+    /**
+     * Loads geocoded breweries from repository and creates insertion algorithm when they arrive.
+     * Returns at once, so caller may continue other work while repository query runs
+     *
+     * @param repository    Brewery repository, it is not closed by closeDBHelper
+     * @param distanceLimit
+     * @return Future of insertion algorithm, completed exceptionally if breweries can not be loaded
+     */
+    public static CompletableFuture<HamiltonInsertion> create(BreweryRepository repository, double distanceLimit) {
+        return repository.findGeocodedBreweries()
+                .thenApply(breweries -> new HamiltonInsertion(repository, breweries, distanceLimit));
+    }
+
+    /**
+     * Open connection in database helper, since some methods require CBHelper services
+     * Manual connection open implemented to avoid crashing in constructor when opening a connection.
+     * On first open all geocoded breweries are loaded into in-memory spatial index, unless it is disabled in constructor
+     *
+     * @return
+     */
+    public boolean openDBHelper() {
+        if (dh == null) {
+            return true;
+        }
+        boolean success = dh.openConnection();
+        if (success && loadIndex && breweryIndex == null) {
+            reloadBreweries();
+        }
+        return success;
+    }
+
+    /**
+     * Loads breweries from database again and replaces in-memory index, so routes cached
+     * with RouteCache are invalidated. Connection must be open
+     *
+     * @return True if breweries were loaded
+     */
+    public boolean reloadBreweries() {
+        if (dh == null) {
+            return false;
+        }
+        PlannerEvents.BreweryLoad event = new PlannerEvents.BreweryLoad();
+        event.begin();
+        Brewery[] breweries = dh.getGeocodedBreweries();
+        if (breweries == null) {
+            return false;
+        }
+        BreweryIndex index = new BreweryIndex(breweries);
+        breweryStyles = BreweryStyles.fromDatabase(index.getStore(), dh);
+        beerIndex = BeerIndex.fromDatabase(dh);
+        breweryIndex = index;
+        event.end();
+        if (event.shouldCommit()) {
+            event.source = "index";
+            event.breweryCount = breweries.length;
+            event.commit();
+        }
+        return true;
+    }
+
+    /**
+     * Close connection in database helper, since some methods require CBHelper services
+     * Manual connection open implemented to avoid crashing in constructor when opening a connection
+     *
+     * @return
+     */
+    public boolean closeDBHelper() {
+        return dh == null || dh.closeConnection();
+    }
+
+    /**
+     * Produces Hamilton route using insertion algorithm.
+     * Starting at (latitude,longitude) algorithm searches for nearest
+     * points within reachable radius. Available breweries are tracked in BitSet over BreweryStore slots.
+     * If local search time budget is set, route is shortened with 2-opt and Or-opt moves and insertion resumes
+     *
+     * @param latitude      latitude to start
+     * @param longitude     longitude to start
+     * @param distanceLimit distance limit from starting point
+     * @return Collection with visited points which first and last elements are starting points
+     */
+    public ArrayList<HamiltonBrewery> calculateHamiltonRoute(double latitude, double longitude, double distanceLimit) {
+        return calculateHamiltonRoute(latitude, longitude, distanceLimit, InsertionStrategy.CHEAPEST, 0);
+    }
+
+    /**
+     * Produces Hamilton route using given construction heuristic. Local search, if enabled,
+     * continues with cheapest insertion. Method may be called from several threads at once,
+     * when in-memory index is loaded
+     *
+     * @param latitude      latitude to start
+     * @param longitude     longitude to start
+     * @param distanceLimit distance limit from starting point
+     * @param strategy      Construction heuristic
+     * @param seed          Random seed of RANDOM strategy
+     * @return Collection with visited points which first and last elements are starting points
+     */
+    public ArrayList<HamiltonBrewery> calculateHamiltonRoute(double latitude, double longitude, double distanceLimit,
+                                                             InsertionStrategy strategy, long seed) {
+        return planRoute(latitude, longitude, distanceLimit, strategy, seed).getRoute();
+    }
+
+    /**
+     * Same as calculateHamiltonRoute, but route is published while it is built, see RoutePublisher.
+     * Planning starts when subscriber subscribes
+     *
+     * @param latitude      latitude to start
+     * @param longitude     longitude to start
+     * @param distanceLimit distance limit from starting point
+     * @return Publisher of route updates
+     */
+    public RoutePublisher publishHamiltonRoute(double latitude, double longitude, double distanceLimit) {
+        return new RoutePublisher(this, latitude, longitude, distanceLimit);
+    }
+
+    /**
+     * Produces Hamilton route with cheapest insertion and keeps insertion state,
+     * so route can be extended or trimmed later with changeDistanceLimit
+     *
+     * @param latitude      latitude to start
+     * @param longitude     longitude to start
+     * @param distanceLimit distance limit from starting point
+     * @return Planned route with remaining available breweries
+     */
+    public PlannedRoute planRoute(double latitude, double longitude, double distanceLimit) {
+        return planRoute(latitude, longitude, distanceLimit, InsertionStrategy.CHEAPEST, 0);
+    }
+
+    /**
+     * Same as calculateHamiltonRoute with strategy, but keeps insertion state
+     *
+     * @param latitude      latitude to start
+     * @param longitude     longitude to start
+     * @param distanceLimit distance limit from starting point
+     * @param strategy      Construction heuristic
+     * @param seed          Random seed of RANDOM strategy
+     * @return Planned route with remaining available breweries
+     */
+    public PlannedRoute planRoute(double latitude, double longitude, double distanceLimit,
+                                  InsertionStrategy strategy, long seed) {
+        return planRoute(latitude, longitude, distanceLimit, strategy, seed, PlanningBudget.unlimited());
+    }
+
+    /**
+     * Anytime planning: insertion stops when budget is exhausted and the route built so far is returned.
+     * Every insertion is reported to listener of the budget. Local search also stops at budget deadline
+     *
+     * @param latitude      latitude to start
+     * @param longitude     longitude to start
+     * @param distanceLimit distance limit from starting point
+     * @param budget        Time and iteration budget of this call
+     * @return Route which fits into distance limit, with fewer breweries if budget ran out
+     */
+    public ArrayList<HamiltonBrewery> calculateHamiltonRoute(double latitude, double longitude, double distanceLimit,
+                                                             PlanningBudget budget) {
+        return planRoute(latitude, longitude, distanceLimit, InsertionStrategy.CHEAPEST, 0, budget).getRoute();
+    }
+
+    /**
+     * Same as planRoute with strategy, but stops when budget is exhausted
+     *
+     * @param latitude      latitude to start
+     * @param longitude     longitude to start
+     * @param distanceLimit distance limit from starting point
+     * @param strategy      Construction heuristic
+     * @param seed          Random seed of RANDOM strategy
+     * @param budget        Time and iteration budget of this call
+     * @return Planned route with remaining available breweries
+     */
+    public PlannedRoute planRoute(double latitude, double longitude, double distanceLimit,
+                                  InsertionStrategy strategy, long seed, PlanningBudget budget) {
+        long start = System.nanoTime();
+        BreweryStore store = getStore(latitude, longitude, distanceLimit);
+        BitSet availableLocations = getAvailableLocations(store, latitude, longitude, distanceLimit);
+        ArrayList<HamiltonBrewery> hamiltonRoute = initializeHamiltonRoute(latitude, longitude);
+        double totalDistance = 0.0;
+        if (strategy == InsertionStrategy.NEAREST || strategy == InsertionStrategy.FARTHEST) {
+            int[] positions = getCandidatePositions(store, latitude, longitude, distanceLimit);
+            totalDistance = insertBySelection(hamiltonRoute, store, availableLocations, positions,
+                    strategy == InsertionStrategy.NEAREST, distanceLimit, budget);
+        } else {
+            if (strategy == InsertionStrategy.DIVERSITY) {
+                int[] positions = getCandidatePositions(store, latitude, longitude, distanceLimit);
+                totalDistance = insertByDiversity(hamiltonRoute, store, getBreweryStyles(store), availableLocations,
+                        positions, distanceLimit, budget);
+            } else if (strategy == InsertionStrategy.RANDOM) {
+                int[] positions = getCandidatePositions(store, latitude, longitude, distanceLimit);
+                totalDistance = insertRandom(hamiltonRoute, store, availableLocations, positions, new Random(seed), distanceLimit);
+            }
+            totalDistance = insertLocations(hamiltonRoute, store, availableLocations, totalDistance,
+                    distanceLimit, budget);
+        }
+        totalDistance = searchLocally(hamiltonRoute, store, availableLocations, totalDistance, distanceLimit, budget);
+
+        MetricsRegistry metrics = Metrics.getRegistry();
+        metrics.histogram("planner.plan").record(System.nanoTime() - start);
+        metrics.counter("planner.iterations").add(budget.getIterations());
+        if (budget.isExhausted()) {
+            metrics.counter("planner.budgetExhausted").increment();
+        }
+        return new PlannedRoute(latitude, longitude, distanceLimit, hamiltonRoute, store, availableLocations, totalDistance);
+    }
+
+    /**
+     * Adapts planned route to new distance limit without building it from scratch.
+     * When limit shrinks, breweries which removal saves most distance are removed until route fits.
+     * Then breweries within reach of new limit are inserted with cheapest insertion, continuing from current route.
+     * Planned route is updated in place
+     *
+     * @param plannedRoute  Route from planRoute
+     * @param distanceLimit New distance limit
+     */
+    public void changeDistanceLimit(PlannedRoute plannedRoute, double distanceLimit) {
+        ArrayList<HamiltonBrewery> hamiltonRoute = plannedRoute.getRoute();
+        double totalDistance = plannedRoute.getTotalDistance();
+        while (totalDistance > distanceLimit && hamiltonRoute.size() > 2) {
+            totalDistance -= removeMostExpensive(hamiltonRoute);
+        }
+
+        double latitude = plannedRoute.getLatitude();
+        double longitude = plannedRoute.getLongitude();
+        BreweryStore store = distanceLimit > plannedRoute.getDistanceLimit() || breweryIndex != null
+                ? getStore(latitude, longitude, distanceLimit)
+                : plannedRoute.getStore();
+        BitSet availableLocations = getAvailableLocations(store, latitude, longitude, distanceLimit);
+        for (HamiltonBrewery bw : hamiltonRoute) {
+            int slot = bw.getId() >= 0 ? store.slotOf(bw.getId()) : -1;
+            if (slot >= 0) {
+                availableLocations.clear(slot);
+            }
+        }
+
+        PlanningBudget budget = PlanningBudget.unlimited();
+        totalDistance = insertLocations(hamiltonRoute, store, availableLocations, totalDistance,
+                distanceLimit, budget);
+        totalDistance = searchLocally(hamiltonRoute, store, availableLocations, totalDistance, distanceLimit, budget);
+        plannedRoute.update(distanceLimit, store, availableLocations, totalDistance);
+    }
+
+    /**
+     * Removes route element which removal saves most distance
+     *
+     * @return Saved distance
+     */
+    double removeMostExpensive(ArrayList<HamiltonBrewery> hamiltonRoute) {
+        int bestIdx = -1;
+        double bestSaving = -Double.MAX_VALUE;
+        double bestBridge = 0.0;
+        for (int i = 1; i < hamiltonRoute.size() - 1; i++) {
+            HamiltonBrewery left = hamiltonRoute.get(i - 1);
+            HamiltonBrewery bw = hamiltonRoute.get(i);
+            HamiltonBrewery right = hamiltonRoute.get(i + 1);
+            double bridge = GeoDistance.distance(left.getLatitude(), left.getLongitude(),
+                    right.getLatitude(), right.getLongitude());
+            double saving = bw.getLeftDistance() + bw.getRightDistance() - bridge;
+            if (saving > bestSaving) {
+                bestIdx = i;
+                bestSaving = saving;
+                bestBridge = bridge;
+            }
+        }
+        hamiltonRoute.remove(bestIdx);
+        hamiltonRoute.get(bestIdx - 1).setRightDistance(bestBridge);
+        hamiltonRoute.get(bestIdx).setLeftDistance(bestBridge);
+        return bestSaving;
+    }
+
+    /**
+     * Shortens route with local search and inserts more breweries into saved distance, while time budget lasts
+     *
+     * @return Route distance after local search
+     */
+    private double searchLocally(ArrayList<HamiltonBrewery> hamiltonRoute, BreweryStore store, BitSet availableLocations,
+                                 double totalDistance, double distanceLimit, PlanningBudget budget) {
+        long deadline = PlanningBudget.earlier(budget.getDeadlineNanos(),
+                PlanningBudget.deadlineAfter(TimeUnit.MILLISECONDS.toNanos(localSearchTimeBudgetMillis)));
+        while (localSearchTimeBudgetMillis > 0 && !budget.isExhausted() && !PlanningBudget.isPast(deadline)
+                && routeOptimizer.optimize(hamiltonRoute, deadline) > 0.0) {
+            // saved distance goes back to the reserve, all gaps changed, so candidates are searched again
+            totalDistance = calculateRouteDistance(hamiltonRoute);
+            budget.reorder(hamiltonRoute, totalDistance);
+            totalDistance = insertLocations(hamiltonRoute, store, availableLocations, totalDistance,
+                    distanceLimit, budget);
+        }
+        return totalDistance;
+    }
+
+    /**
+     * Breweries which can be reached from starting point: in-memory index store or breweries loaded with SQL
+     */
+    private BreweryStore getStore(double latitude, double longitude, double distanceLimit) {
+        if (breweryIndex != null) {
+            return breweryIndex.getStore();
+        }
+        PlannerEvents.BreweryLoad event = new PlannerEvents.BreweryLoad();
+        event.begin();
+        BreweryStore store = new BreweryStore(dh.getBreweries(latitude, longitude, distanceLimit));
+        event.end();
+        if (event.shouldCommit()) {
+            event.source = "sql";
+            event.breweryCount = store.size();
+            event.distanceLimit = distanceLimit;
+            event.commit();
+        }
+        return store;
+    }
+
+    private BitSet getAvailableLocations(BreweryStore store, double latitude, double longitude, double distanceLimit) {
+        if (breweryIndex != null && store == breweryIndex.getStore()) {
+            return breweryIndex.findAvailableWithinRadius(latitude, longitude, distanceLimit);
+        }
+        return store.allAvailable();
+    }
+
+    /**
+     * Store positions of breweries within reach of starting point
+     */
+    private int[] getCandidatePositions(BreweryStore store, double latitude, double longitude, double distanceLimit) {
+        if (breweryIndex != null) {
+            return breweryIndex.findPositionsWithinRadius(latitude, longitude, distanceLimit);
+        }
+        return IntStream.range(0, store.size()).toArray();
+    }
+
+    /**
+     * Nearest or farthest insertion: repeatedly selects brewery by its distance to the closest route element
+     * and inserts it at cheapest position. Brewery that does not fit into distance reserve is skipped
+     *
+     * @param hamiltonRoute
+     * @param store              Breweries which slots are used in availableLocations
+     * @param availableLocations
+     * @param positions          Store positions of breweries to select from
+     * @param nearest            True to select nearest brewery, false to select farthest
+     * @param distanceLimit
+     * @param budget             Stops insertion when exhausted
+     * @return Route distance after insertions
+     */
+    private double insertBySelection(ArrayList<HamiltonBrewery> hamiltonRoute, BreweryStore store, BitSet availableLocations,
+                                     int[] positions, boolean nearest, double distanceLimit, PlanningBudget budget) {
+        DistanceKernel kernel = store.getDistanceKernel();
+        double[] routeDistances = new double[positions.length];
+        double[] distances = new double[positions.length];
+        HamiltonBrewery start = hamiltonRoute.get(0);
+        kernel.distances(start.getLatitude(), start.getLongitude(), DistanceKernel.Accuracy.HAVERSINE,
+                positions, positions.length, routeDistances);
+        BitSet candidates = new BitSet(positions.length);
+        candidates.set(0, positions.length);
+
+        double totalDistance = calculateRouteDistance(hamiltonRoute);
+        while (!budget.isExhausted()) {
+            int selected = -1;
+            for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                if (!availableLocations.get(store.getSlot(positions[i]))) {
+                    candidates.clear(i);
+                } else if (selected == -1 || (nearest
+                        ? routeDistances[i] < routeDistances[selected]
+                        : routeDistances[i] > routeDistances[selected])) {
+                    selected = i;
+                }
+            }
+            if (selected == -1) {
+                return totalDistance;
+            }
+            candidates.clear(selected);
+
+            int position = positions[selected];
+            double increase = insertAtCheapestGap(hamiltonRoute, store, position, distanceLimit - totalDistance);
+            if (increase < 0.0) {
+                continue;
+            }
+            availableLocations.clear(store.getSlot(position));
+            totalDistance += increase;
+            if (!budget.step(hamiltonRoute, totalDistance)) {
+                return totalDistance;
+            }
+            kernel.distances(store.getLatitude(position), store.getLongitude(position),
+                    DistanceKernel.Accuracy.HAVERSINE, positions, positions.length, distances);
+            for (int i = 0; i < positions.length; i++) {
+                routeDistances[i] = Math.min(routeDistances[i], distances[i]);
+            }
+        }
+        return totalDistance;
+    }
+
+    /**
+     * Prize-collecting insertion: repeatedly inserts brewery with largest number of new beer styles
+     * per kilometre of route growth. Stops when no fitting brewery brings a new style.
+     * Cheapest insertion cost of every candidate is kept with lower bound of its cost in other gaps.
+     * When its gap is split, all gaps are searched again only if both new gaps are dearer than the bound.
+     * Route is linked for insertion and copied back
+     *
+     * @param hamiltonRoute      Route which first and last elements are starting points
+     * @param store              Breweries which slots are used in availableLocations
+     * @param styles             Styles of store breweries
+     * @param availableLocations
+     * @param positions          Store positions of breweries to select from
+     * @param distanceLimit
+     * @param budget             Stops insertion when exhausted
+     * @return Route distance after insertions
+     */
+    private double insertByDiversity(ArrayList<HamiltonBrewery> hamiltonRoute, BreweryStore store, BreweryStyles styles,
+                                     BitSet availableLocations, int[] positions, double distanceLimit,
+                                     PlanningBudget budget) {
+        DistanceKernel kernel = store.getDistanceKernel();
+        int count = positions.length;
+        double[] increases = new double[count];
+        double[] otherIncreases = new double[count];
+        double[] leftDistances = new double[count];
+        double[] rightDistances = new double[count];
+        int[] gapLefts = new int[count];
+        double[] toLeft = new double[count];
+        double[] toNew = new double[count];
+        double[] toRight = new double[count];
+
+        double totalDistance = calculateRouteDistance(hamiltonRoute);
+        LinkedRoute route = new LinkedRoute(store, hamiltonRoute, totalDistance);
+        int start = route.getFirst();
+        kernel.distances(route.getLatitude(start), route.getLongitude(start), DistanceKernel.Accuracy.HAVERSINE,
+                positions, count, toLeft);
+        for (int i = 0; i < count; i++) {
+            increases[i] = 2 * toLeft[i];
+            otherIncreases[i] = Double.MAX_VALUE;
+            leftDistances[i] = toLeft[i];
+            rightDistances[i] = toLeft[i];
+            gapLefts[i] = start;
+        }
+
+        long[] covered = styles.newStyleSet();
+        while (true) {
+            double reserve = distanceLimit - totalDistance;
+            int selected = -1;
+            double bestScore = 0.0;
+            for (int i = 0; i < count; i++) {
+                int slot = store.getSlot(positions[i]);
+                if (increases[i] > reserve || !availableLocations.get(slot)) {
+                    continue;
+                }
+                int newStyles = styles.countNew(slot, covered);
+                double score = newStyles / Math.max(increases[i], MIN_DIVERSITY_INCREASE);
+                if (score > bestScore) {
+                    selected = i;
+                    bestScore = score;
+                }
+            }
+            if (selected == -1) {
+                break;
+            }
+
+            int position = positions[selected];
+            int left = gapLefts[selected];
+            int right = route.getNext(left);
+            int inserted = route.insertAfter(left, position, leftDistances[selected], rightDistances[selected]);
+            totalDistance += Math.max(0.0, increases[selected]);
+            availableLocations.clear(store.getSlot(position));
+            styles.add(store.getSlot(position), covered);
+            if (!budget.step(route, inserted)) {
+                break;
+            }
+
+            // gap (left, right) is replaced by (left, inserted) and (inserted, right)
+            kernel.distances(route.getLatitude(left), route.getLongitude(left), DistanceKernel.Accuracy.HAVERSINE,
+                    positions, count, toLeft);
+            kernel.distances(route.getLatitude(inserted), route.getLongitude(inserted), DistanceKernel.Accuracy.HAVERSINE,
+                    positions, count, toNew);
+            kernel.distances(route.getLatitude(right), route.getLongitude(right), DistanceKernel.Accuracy.HAVERSINE,
+                    positions, count, toRight);
+            for (int i = 0; i < count; i++) {
+                if (!availableLocations.get(store.getSlot(positions[i]))) {
+                    continue;
+                }
+                double leftIncrease = toLeft[i] + toNew[i] - route.getRightDistance(left);
+                double rightIncrease = toNew[i] + toRight[i] - route.getRightDistance(inserted);
+                boolean leftIsBetter = leftIncrease <= rightIncrease;
+                double newIncrease = Math.min(leftIncrease, rightIncrease);
+                double newOtherIncrease = Math.max(leftIncrease, rightIncrease);
+                if (gapLefts[i] != left) {
+                    if (newIncrease < increases[i]) {
+                        otherIncreases[i] = Math.min(otherIncreases[i], Math.min(increases[i], newOtherIncrease));
+                    } else {
+                        otherIncreases[i] = Math.min(otherIncreases[i], newIncrease);
+                        continue;
+                    }
+                } else if (newIncrease <= otherIncreases[i]) {
+                    // other gaps are not cheaper than the bound, so new gap is the best one
+                    otherIncreases[i] = Math.min(otherIncreases[i], newOtherIncrease);
+                } else {
+                    searchGaps(route, kernel, positions[i], i, increases, otherIncreases, leftDistances,
+                            rightDistances, gapLefts);
+                    continue;
+                }
+                increases[i] = newIncrease;
+                leftDistances[i] = leftIsBetter ? toLeft[i] : toNew[i];
+                rightDistances[i] = leftIsBetter ? toNew[i] : toRight[i];
+                gapLefts[i] = leftIsBetter ? left : inserted;
+            }
+        }
+        route.copyTo(hamiltonRoute);
+        return totalDistance;
+    }
+
+    /**
+     * Finds cheapest gap of candidate i and lower bound of its cost in other gaps by walking the whole route
+     */
+    private void searchGaps(LinkedRoute route, DistanceKernel kernel, int position, int i, double[] increases,
+                            double[] otherIncreases, double[] leftDistances, double[] rightDistances, int[] gapLefts) {
+        increases[i] = Double.MAX_VALUE;
+        otherIncreases[i] = Double.MAX_VALUE;
+        int left = route.getFirst();
+        double distanceLeft = kernel.distance(route.getLatitude(left), route.getLongitude(left),
+                DistanceKernel.Accuracy.HAVERSINE, position);
+        while (left != route.getLast()) {
+            int right = route.getNext(left);
+            double distanceRight = kernel.distance(route.getLatitude(right), route.getLongitude(right),
+                    DistanceKernel.Accuracy.HAVERSINE, position);
+            double increase = distanceLeft + distanceRight - route.getRightDistance(left);
+            if (increase < increases[i]) {
+                otherIncreases[i] = increases[i];
+                increases[i] = increase;
+                leftDistances[i] = distanceLeft;
+                rightDistances[i] = distanceRight;
+                gapLefts[i] = left;
+            } else if (increase < otherIncreases[i]) {
+                otherIncreases[i] = increase;
+            }
+            distanceLeft = distanceRight;
+            left = right;
+        }
+    }
+
+    /**
+     * Styles of breweries in given store
+     */
+    private BreweryStyles getBreweryStyles(BreweryStore store) {
+        if (breweryIndex != null && store == breweryIndex.getStore() && breweryStyles != null) {
+            return breweryStyles;
+        }
+        BreweryStyles styles = dh != null ? BreweryStyles.fromDatabase(store, dh) : null;
+        if (styles == null) {
+            throw new IllegalStateException("Beer styles can not be loaded");
+        }
+        return styles;
+    }
+
+    /**
+     * Counts distinct beer styles brewed in breweries of hamilton route
+     *
+     * @param hamiltonRoute
+     * @return Number of distinct styles
+     */
+    public int calculateDistinctStyles(ArrayList<HamiltonBrewery> hamiltonRoute) {
+        BreweryStore store = breweryIndex != null
+                ? breweryIndex.getStore()
+                : new BreweryStore(hamiltonRoute.toArray(new Brewery[hamiltonRoute.size()]));
+        BreweryStyles styles = getBreweryStyles(store);
+        long[] covered = styles.newStyleSet();
+        for (HamiltonBrewery bw : hamiltonRoute) {
+            int slot = store.slotOf(bw.getId());
+            if (slot >= 0) {
+                styles.add(slot, covered);
+            }
+        }
+        return BreweryStyles.count(covered);
+    }
+
+    /**
+     * Inserts random brewery which fits into distance limit
+     *
+     * @return Route distance after insertion
+     */
+    private double insertRandom(ArrayList<HamiltonBrewery> hamiltonRoute, BreweryStore store, BitSet availableLocations,
+                                int[] positions, Random random, double distanceLimit) {
+        double totalDistance = calculateRouteDistance(hamiltonRoute);
+        if (positions.length == 0) {
+            return totalDistance;
+        }
+        int position = positions[random.nextInt(positions.length)];
+        double increase = insertAtCheapestGap(hamiltonRoute, store, position, distanceLimit - totalDistance);
+        if (increase < 0.0) {
+            return totalDistance;
+        }
+        availableLocations.clear(store.getSlot(position));
+        return totalDistance + increase;
+    }
+
+    /**
+     * Inserts brewery of store position between route elements where route distance grows least
+     *
+     * @return Distance increase or -1 if brewery does not fit into distance reserve
+     */
+    private double insertAtCheapestGap(ArrayList<HamiltonBrewery> hamiltonRoute, BreweryStore store, int position,
+                                       double distanceReserve) {
+        double latitude = store.getLatitude(position);
+        double longitude = store.getLongitude(position);
+        int bestGap = -1;
+        double bestIncrease = Double.MAX_VALUE;
+        double bestLeft = 0.0;
+        double bestRight = 0.0;
+        for (int i = 0; i < hamiltonRoute.size() - 1; i++) {
+            HamiltonBrewery left = hamiltonRoute.get(i);
+            HamiltonBrewery right = hamiltonRoute.get(i + 1);
+            double distanceLeft = GeoDistance.distance(left.getLatitude(), left.getLongitude(), latitude, longitude);
+            double distanceRight = GeoDistance.distance(latitude, longitude, right.getLatitude(), right.getLongitude());
+            double increase = distanceLeft + distanceRight - left.getRightDistance();
+            if (increase < bestIncrease) {
+                bestGap = i;
+                bestIncrease = increase;
+                bestLeft = distanceLeft;
+                bestRight = distanceRight;
+            }
+        }
+        if (bestGap == -1 || bestIncrease > distanceReserve) {
+            return -1.0;
+        }
+
+        hamiltonRoute.add(bestGap + 1, store.toHamiltonBrewery(position, bestLeft, bestRight));
+        hamiltonRoute.get(bestGap).setRightDistance(bestLeft);
+        hamiltonRoute.get(bestGap + 2).setLeftDistance(bestRight);
+        return Math.max(0.0, bestIncrease);
+    }
+
+    /**
+     * Inserts locations into hamilton route while they fit into distance limit.
+     * With in-memory index the route is linked into LinkedRoute for insertion and copied back
+     *
+     * @param hamiltonRoute
+     * @param store              Breweries which slots are used in availableLocations
+     * @param availableLocations
+     * @param totalDistance      Current route distance
+     * @param distanceLimit
+     * @param budget             Stops insertion when exhausted
+     * @return Route distance after insertions
+     */
+    private double insertLocations(ArrayList<HamiltonBrewery> hamiltonRoute, BreweryStore store, BitSet availableLocations,
+                                   double totalDistance, double distanceLimit, PlanningBudget budget) {
+        if (breweryIndex != null && store == breweryIndex.getStore()) {
+            LinkedRoute route = new LinkedRoute(store, hamiltonRoute, totalDistance);
+            LinkedGapQueue gapCandidates = initializeGapCandidates(route, availableLocations, distanceLimit);
+            ValueHistogram iterationCandidates = Metrics.getRegistry().distribution("planner.iteration.candidates");
+            long putCount = gapCandidates.getPutCount();
+            while (route.getTotalDistance() < distanceLimit && !budget.isExhausted()) {
+                int node = insertLocation(route, availableLocations, distanceLimit,
+                        distanceLimit - route.getTotalDistance(), gapCandidates);
+                if (node == -1) {
+                    break;
+                }
+                iterationCandidates.record(gapCandidates.getPutCount() - putCount);
+                putCount = gapCandidates.getPutCount();
+                budget.step(route, node);
+            }
+            Metrics.getRegistry().counter("planner.candidates").add(gapCandidates.getPutCount());
+            route.copyTo(hamiltonRoute);
+            return route.getTotalDistance();
+        }
+
+        GapCandidateQueue gapCandidates = initializeGapCandidates(hamiltonRoute, store, availableLocations, distanceLimit);
+        ValueHistogram iterationCandidates = Metrics.getRegistry().distribution("planner.iteration.candidates");
+        long putCount = gapCandidates.getPutCount();
+        while (totalDistance < distanceLimit && !budget.isExhausted()) {
+            double distanceReserve = distanceLimit - totalDistance;
+            int idx = insertLocation(hamiltonRoute, store, availableLocations, distanceLimit, distanceReserve,
+                    gapCandidates);
+            if (idx == -1) {
+                break;
+            } else {
+                iterationCandidates.record(gapCandidates.getPutCount() - putCount);
+                putCount = gapCandidates.getPutCount();
+                double oldDistance = hamiltonRoute.get(idx - 1).getRightDistance();
+                double newLeftDistance = hamiltonRoute.get(idx).getLeftDistance();
+                double newRightDistance = hamiltonRoute.get(idx).getRightDistance();
+
+                hamiltonRoute.get(idx - 1).setRightDistance(newLeftDistance);
+                hamiltonRoute.get(idx + 1).setLeftDistance(newRightDistance);
+
+                totalDistance = totalDistance - oldDistance + newLeftDistance + newRightDistance;
+                budget.step(hamiltonRoute, idx, totalDistance);
+            }
+        }
+        Metrics.getRegistry().counter("planner.candidates").add(gapCandidates.getPutCount());
+        return totalDistance;
+    }
+
+    /**
+     * Sets time budget of local search (2-opt and Or-opt) which runs after insertion cannot add more breweries.
+     * Distance saved by local search is used for further insertions. Zero disables local search
+     *
+     * @param localSearchTimeBudgetMillis
+     */
+    public void setLocalSearchTimeBudgetMillis(long localSearchTimeBudgetMillis) {
+        this.localSearchTimeBudgetMillis = localSearchTimeBudgetMillis;
+    }
+
+    /**
+     * In-memory index of geocoded breweries. Availability BitSets of this object are indexed by its store slots
+     *
+     * @return Brewery index or null, if it is not loaded yet
+     */
+    public BreweryIndex getBreweryIndex() {
+        return breweryIndex;
+    }
+
+    /**
+     * Sets optimizer used by local search, for example with different neighbour list size
+     *
+     * @param routeOptimizer
+     */
+    public void setRouteOptimizer(RouteOptimizer routeOptimizer) {
+        this.routeOptimizer = routeOptimizer;
+    }
+
+    /**
+     * Copies list of breweries to HashMap
+     *
+     * @param breweries
+     * @return HashMap filled with breweries
+     */
+    public HashMap<Integer, Brewery> copyBreweriesToHash(Brewery[] breweries) {
+        HashMap<Integer, Brewery> result = new HashMap<>(breweries.length);
+        for (Brewery bw : breweries) {
+            result.put(bw.getId(), bw);
+        }
+        return result;
+    }
+
+    /**
+     * Creates a Hamilton route with initial element ar the beginning and end
+     *
+     * @param latitude  Initial element's initialLatitude
+     * @param longitude Initial element's initialLongitude
+     * @return Hamilton route with 2 elements
+     */
+    public ArrayList<HamiltonBrewery> initializeHamiltonRoute(double latitude, double longitude) {
+        ArrayList<HamiltonBrewery> hamiltonRoute = new ArrayList<>();
+
+        hamiltonRoute.add(HamiltonBrewery.getInstance(latitude, longitude, 0.0, "Initial"));
+        hamiltonRoute.add(HamiltonBrewery.getInstance(latitude, longitude, 0.0, "Initial"));
+
+        return hamiltonRoute;
+    }
+
+    /**
+     * Finds and inserts element into hamilton route such that total distanceLimit grows minimally
+     * When new node is added, it is removed from availableLocations
+     *
+     * @param hamiltonRoute
+     * @param availableLocations
+     * @param distanceReserve
+     * @return Inserted element index in the collection. If no element was inserted, returns -1
+     */
+    public int insertLocation(ArrayList<HamiltonBrewery> hamiltonRoute, HashMap<Integer, Brewery> availableLocations, double distanceReserve) {
+        ArrayList<HamiltonBrewery> candidates = getCandidates(hamiltonRoute, availableLocations);
+
+        int optimalCandidateIdx = getOptimalCandidateIndex(candidates);
+
+        HamiltonBrewery optimalCandidate = candidates.get(optimalCandidateIdx);
+
+        double distanceIncrease = optimalCandidate.getDistance() - hamiltonRoute.get(optimalCandidateIdx).getRightDistance();
+        if (distanceIncrease > distanceReserve || distanceIncrease < 0.0) {
+            return -1;
+        } else {
+            hamiltonRoute.add(optimalCandidateIdx + 1, optimalCandidate);
+
+            availableLocations.remove(optimalCandidate.getId());
+
+            return optimalCandidateIdx + 1;
+        }
+    }
+
+    /**
+     * Same as insertLocation, but instead of searching candidates for every gap uses cached candidates.
+     * After insertion only two new gaps are recalculated. Gap which cached candidate was already
+     * used elsewhere is recalculated when it reaches the top of the queue.
+     *
+     * @param hamiltonRoute
+     * @param store              Breweries which slots are used in availableLocations
+     * @param availableLocations
+     * @param distanceLimit      Distance limit of the route, gaps are searched within it
+     * @param distanceReserve
+     * @param gapCandidates      Candidates of all route gaps, see initializeGapCandidates
+     * @return Inserted element index in the collection. If no element was inserted, returns -1
+     */
+    public int insertLocation(ArrayList<HamiltonBrewery> hamiltonRoute, BreweryStore store, BitSet availableLocations,
+                              double distanceLimit, double distanceReserve, GapCandidateQueue gapCandidates) {
+        PlannerEvents.InsertionRound event = new PlannerEvents.InsertionRound();
+        event.begin();
+        long putCount = gapCandidates.getPutCount();
+        int idx = insertCheapestGapCandidate(hamiltonRoute, store, availableLocations, distanceLimit, distanceReserve,
+                gapCandidates);
+        event.end();
+        if (event.shouldCommit()) {
+            event.routeSize = hamiltonRoute.size();
+            event.distanceReserve = distanceReserve;
+            event.candidateSearches = gapCandidates.getPutCount() - putCount;
+            event.inserted = idx != -1;
+            event.commit();
+        }
+        return idx;
+    }
+
+    /**
+     * Body of insertLocation with gap candidates, which is timed by insertion round event
+     */
+    private int insertCheapestGapCandidate(ArrayList<HamiltonBrewery> hamiltonRoute, BreweryStore store,
+                                           BitSet availableLocations, double distanceLimit, double distanceReserve,
+                                           GapCandidateQueue gapCandidates) {
+        GapCandidateQueue.Gap gap = gapCandidates.peek();
+        while (gap != null && !store.isAvailable(availableLocations, gap.getCandidate().getId())) {
+            gapCandidates.put(gap.getLeft(), gap.getRight(),
+                    findClosestBrewery(gap.getLeft(), gap.getRight(), store, availableLocations, distanceLimit));
+            gap = gapCandidates.peek();
+        }
+        if (gap == null) {
+            return -1;
+        }
+
+        HamiltonBrewery left = gap.getLeft();
+        HamiltonBrewery right = gap.getRight();
+        HamiltonBrewery optimalCandidate = gap.getCandidate();
+
+        double distanceIncrease = optimalCandidate.getDistance() - left.getRightDistance();
+        if (distanceIncrease > distanceReserve || distanceIncrease < 0.0) {
+            return -1;
+        }
+
+        int idx = indexOf(hamiltonRoute, left) + 1;
+        hamiltonRoute.add(idx, optimalCandidate);
+        availableLocations.clear(store.slotOf(optimalCandidate.getId()));
+
+        ArrayList<HamiltonBrewery> newGaps = new ArrayList<>(3);
+        newGaps.add(left);
+        newGaps.add(optimalCandidate);
+        newGaps.add(right);
+        ArrayList<HamiltonBrewery> candidates = getCandidates(newGaps, hamiltonRoute,
+                id -> store.isAvailable(availableLocations, id),
+                (breweryLeft, breweryRight) -> findClosestBrewery(breweryLeft, breweryRight, store, availableLocations,
+                        distanceLimit),
+                distanceLimit);
+        gapCandidates.put(left, optimalCandidate, candidates.get(0));
+        gapCandidates.put(optimalCandidate, right, candidates.get(1));
+
+        return idx;
+    }
+
+    /**
+     * Same as insertLocation with gap candidates, but for linked route: insertion and update
+     * of the two affected edges take constant time and no brewery objects are created
+     *
+     * @param route              Route linked over brewery index store
+     * @param availableLocations
+     * @param distanceLimit      Distance limit of the route, gaps are searched within it
+     * @param distanceReserve
+     * @param gapCandidates      Candidates of all route gaps, see initializeGapCandidates
+     * @return Node of inserted brewery. If no brewery was inserted, returns -1
+     */
+    public int insertLocation(LinkedRoute route, BitSet availableLocations, double distanceLimit, double distanceReserve,
+                              LinkedGapQueue gapCandidates) {
+        PlannerEvents.InsertionRound event = new PlannerEvents.InsertionRound();
+        event.begin();
+        long putCount = gapCandidates.getPutCount();
+        int node = insertCheapestGapCandidate(route, availableLocations, distanceLimit, distanceReserve, gapCandidates);
+        event.end();
+        if (event.shouldCommit()) {
+            event.routeSize = route.size();
+            event.distanceReserve = distanceReserve;
+            event.candidateSearches = gapCandidates.getPutCount() - putCount;
+            event.inserted = node != -1;
+            event.commit();
+        }
+        return node;
+    }
+
+    private int insertCheapestGapCandidate(LinkedRoute route, BitSet availableLocations, double distanceLimit,
+                                           double distanceReserve, LinkedGapQueue gapCandidates) {
+        BreweryStore store = breweryIndex.getStore();
+        int left = gapCandidates.peek();
+        while (left != -1 && !availableLocations.get(store.getSlot(gapCandidates.getCandidatePosition(left)))) {
+            putClosestBrewery(route, left, availableLocations, distanceLimit, gapCandidates);
+            left = gapCandidates.peek();
+        }
+        if (left == -1) {
+            return -1;
+        }
+
+        double leftDistance = gapCandidates.getLeftDistance(left);
+        double rightDistance = gapCandidates.getRightDistance(left);
+        double distanceIncrease = leftDistance + rightDistance - route.getRightDistance(left);
+        if (distanceIncrease > distanceReserve || distanceIncrease < 0.0) {
+            return -1;
+        }
+
+        int position = gapCandidates.getCandidatePosition(left);
+        int node = route.insertAfter(left, position, leftDistance, rightDistance);
+        availableLocations.clear(store.getSlot(position));
+
+        putClosestBrewery(route, left, availableLocations, distanceLimit, gapCandidates);
+        putClosestBrewery(route, node, availableLocations, distanceLimit, gapCandidates);
+        return node;
+    }
+
+    /**
+     * Finds candidate for each gap of linked route and puts them into queue
+     *
+     * @param route              Route linked over brewery index store
+     * @param availableLocations
+     * @param distanceLimit      Distance limit of the route, gaps are searched within it
+     * @return Queue of gap candidates
+     */
+    public LinkedGapQueue initializeGapCandidates(LinkedRoute route, BitSet availableLocations, double distanceLimit) {
+        LinkedGapQueue gapCandidates = new LinkedGapQueue();
+        for (int node = route.getFirst(); node != route.getLast(); node = route.getNext(node)) {
+            putClosestBrewery(route, node, availableLocations, distanceLimit, gapCandidates);
+        }
+        return gapCandidates;
+    }
+
+    /**
+     * Searches closest brewery of gap after left node in brewery index and puts it into queue
+     */
+    private void putClosestBrewery(LinkedRoute route, int left, BitSet availableLocations, double distanceLimit,
+                                   LinkedGapQueue gapCandidates) {
+        PlannerEvents.ClosestBrewery event = new PlannerEvents.ClosestBrewery();
+        event.begin();
+        int right = route.getNext(left);
+        double[] distances = new double[2];
+        int position = breweryIndex.findClosestPosition(
+                route.getLatitude(left),
+                route.getLongitude(left),
+                route.getLatitude(right),
+                route.getLongitude(right),
+                distanceLimit,
+                availableLocations,
+                distances);
+        gapCandidates.put(left, position, distances[0], distances[1]);
+        event.end();
+        if (event.shouldCommit()) {
+            event.source = "index";
+            event.found = position != -1;
+            event.distance = distances[0] + distances[1];
+            event.commit();
+        }
+    }
+
+    /**
+     * Finds candidates for each gap of hamilton route and puts them into queue
+     *
+     * @param hamiltonRoute
+     * @param store              Breweries which slots are used in availableLocations
+     * @param availableLocations
+     * @param distanceLimit      Distance limit of the route, gaps are searched within it
+     * @return Queue of gap candidates
+     */
+    public GapCandidateQueue initializeGapCandidates(ArrayList<HamiltonBrewery> hamiltonRoute, BreweryStore store,
+                                                     BitSet availableLocations, double distanceLimit) {
+        GapCandidateQueue gapCandidates = new GapCandidateQueue();
+        ArrayList<HamiltonBrewery> candidates = getCandidates(hamiltonRoute, store, availableLocations, distanceLimit);
+        for (int i = 0; i < candidates.size(); i++) {
+            gapCandidates.put(hamiltonRoute.get(i), hamiltonRoute.get(i + 1), candidates.get(i));
+        }
+        return gapCandidates;
+    }
+
+    /**
+     * Finds position of exactly this element in hamilton route.
+     * Route elements are compared by reference, since start and end elements are equal
+     *
+     * @param hamiltonRoute
+     * @param brewery
+     * @return Index of element or -1 if it is not in the route
+     */
+    private int indexOf(ArrayList<HamiltonBrewery> hamiltonRoute, HamiltonBrewery brewery) {
+        for (int i = 0; i < hamiltonRoute.size(); i++) {
+            if (hamiltonRoute.get(i) == brewery) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds best candidates to be added to hamilton route for each gap individually.
+     * If route with 5 elements is passed, then 4 candidates, each per gap, will be returned.
+     * Without in-memory index all gaps are searched in one database query.
+     * Gaps are searched within distance limit given to constructor
+     *
+     * @param hamiltonRoute
+     * @param availableLocations
+     * @return Candidates collection for each gap (i..i+1)
+     */
+    public ArrayList<HamiltonBrewery> getCandidates(ArrayList<HamiltonBrewery> hamiltonRoute, HashMap<Integer, Brewery> availableLocations) {
+        return getCandidates(hamiltonRoute, hamiltonRoute, availableLocations::containsKey,
+                (left, right) -> findClosestBrewery(left, right, availableLocations), this.distanceLimit);
+    }
+
+    /**
+     * Same as getCandidates, but available breweries are given as BitSet over store slots
+     *
+     * @param hamiltonRoute
+     * @param store              Breweries which slots are used in availableLocations
+     * @param availableLocations
+     * @return Candidates collection for each gap (i..i+1)
+     */
+    public ArrayList<HamiltonBrewery> getCandidates(ArrayList<HamiltonBrewery> hamiltonRoute, BreweryStore store,
+                                                    BitSet availableLocations) {
+        return getCandidates(hamiltonRoute, store, availableLocations, this.distanceLimit);
+    }
+
+    /**
+     * Same as getCandidates with BitSet, but gaps are searched within given distance limit
+     *
+     * @param hamiltonRoute
+     * @param store              Breweries which slots are used in availableLocations
+     * @param availableLocations
+     * @param distanceLimit      Maximal sum of distances from candidate to gap ends
+     * @return Candidates collection for each gap (i..i+1)
+     */
+    public ArrayList<HamiltonBrewery> getCandidates(ArrayList<HamiltonBrewery> hamiltonRoute, BreweryStore store,
+                                                    BitSet availableLocations, double distanceLimit) {
+        return getCandidates(hamiltonRoute, hamiltonRoute, id -> store.isAvailable(availableLocations, id),
+                (left, right) -> findClosestBrewery(left, right, store, availableLocations, distanceLimit),
+                distanceLimit);
+    }
+
+    /**
+     * Finds candidates for gaps of some route elements. Breweries of the whole route are excluded
+     * from batched query, so its candidates are found again only if they are out of available locations
+     *
+     * @param gaps           Consecutive route elements which gaps are searched
+     * @param hamiltonRoute  Whole route
+     * @param isAvailable    Tells if brewery id is in available locations
+     * @param closestBrewery Full search of one gap
+     * @param distanceLimit  Maximal sum of distances from candidate to gap ends
+     * @return Candidates collection for each gap (i..i+1) of gaps
+     */
+    private ArrayList<HamiltonBrewery> getCandidates(ArrayList<HamiltonBrewery> gaps,
+                                                     ArrayList<HamiltonBrewery> hamiltonRoute,
+                                                     IntPredicate isAvailable,
+                                                     BinaryOperator<HamiltonBrewery> closestBrewery,
+                                                     double distanceLimit) {
+        ArrayList<HamiltonBrewery> candidates = new ArrayList<>(gaps.size() - 1);
+
+        HamiltonBrewery[] batchCandidates = null;
+        if (breweryIndex == null && gaps.size() > 1) {
+            Stream<Integer> usedIds = hamiltonRoute.stream()
+                    .map(bw -> bw.getId());
+            batchCandidates = dh.getBestAdjacentBreweries(gaps, usedIds, distanceLimit);
+        }
+
+        for (int i = 0; i < gaps.size() - 1; i++) {
+            HamiltonBrewery candidate;
+            if (batchCandidates != null && (batchCandidates[i] == null || isAvailable.test(batchCandidates[i].getId()))) {
+                candidate = batchCandidates[i];
+            } else {
+                // best brewery of the gap is not in available locations, so fall back to full search
+                candidate = closestBrewery.apply(gaps.get(i), gaps.get(i + 1));
+            }
+            candidates.add(i, candidate);
+        }
+
+        return candidates;
+    }
+
+    /**
+     * Finds one candidate that has shortest distance
+     *
+     * @param candidates
+     * @return Candidate index
+     */
+    public int getOptimalCandidateIndex(ArrayList<HamiltonBrewery> candidates) {
+
+        double shortestDistance = Double.MAX_VALUE;
+        int optimalCandidateIdx = -1;
+        for (int i = 0; i < candidates.size(); i++) {
+            double distance = candidates.get(i).getDistance();
+            if (distance < shortestDistance) {
+                shortestDistance = distance;
+                optimalCandidateIdx = i;
+            }
+        }
+
+        return optimalCandidateIdx;
+    }
+
+    /**
+     * Same as findClosestBrewery with distance limit, searched within distance limit given to constructor
+     *
+     * @param breweryLeft
+     * @param breweryRight
+     * @param available    List of available breweries, that are not used in hamilton route yet.
+     * @return Brewery with distances to the left and right ones or null, if nothing found
+     */
+    public HamiltonBrewery findClosestBrewery(HamiltonBrewery breweryLeft, HamiltonBrewery breweryRight, HashMap<Integer, Brewery> available) {
+        return findClosestBrewery(breweryLeft, breweryRight, available, this.distanceLimit);
+    }
+
+    /**
+     * Given collection of available breweries and two actual breweries
+     * find one brewery which common distanceLimit to both other breweries is smallest.
+     * Uses in-memory spatial index when it is loaded, otherwise queries database.
+     *
+     * @param breweryLeft
+     * @param breweryRight
+     * @param available    List of available breweries, that are not used in hamilton route yet.
+     * @return If action was successfull returns Brewery with distances to the left and right ones.
+     * If no success, null is returned.
+     */
+    public HamiltonBrewery findClosestBrewery(HamiltonBrewery breweryLeft, HamiltonBrewery breweryRight, HashMap<Integer, Brewery> available, double distanceLimit) {
+        if (breweryIndex != null) {
+            return breweryIndex.findClosest(
+                    breweryLeft.getLatitude(),
+                    breweryLeft.getLongitude(),
+                    breweryRight.getLatitude(),
+                    breweryRight.getLongitude(),
+                    distanceLimit,
+                    id -> available.containsKey(id));
+        }
+
+        try (Stream<HamiltonBrewery> adjacentBreweries = dh.streamAdjacentBreweries(breweryLeft, breweryRight, distanceLimit)) {
+            return adjacentBreweries
+                    .filter(brewery -> available.containsKey(brewery.getId()))
+                    .findFirst()
+                    .orElse(null);
+        }
+    }
+
+    /**
+     * Same as findClosestBrewery, but available breweries are given as BitSet over store slots.
+     * With in-memory index the store must be the index store. Searched within distance limit given to constructor
+     *
+     * @param breweryLeft
+     * @param breweryRight
+     * @param store        Breweries which slots are used in available
+     * @param available    Slots of breweries, that are not used in hamilton route yet.
+     * @return Brewery with distances to the left and right ones or null, if nothing found
+     */
+    public HamiltonBrewery findClosestBrewery(HamiltonBrewery breweryLeft, HamiltonBrewery breweryRight,
+                                              BreweryStore store, BitSet available) {
+        return findClosestBrewery(breweryLeft, breweryRight, store, available, this.distanceLimit);
+    }
+
+    /**
+     * Same as findClosestBrewery with BitSet, but searched within given distance limit
+     *
+     * @param breweryLeft
+     * @param breweryRight
+     * @param store         Breweries which slots are used in available
+     * @param available     Slots of breweries, that are not used in hamilton route yet.
+     * @param distanceLimit Maximal sum of distances from brewery to the left and right ones
+     * @return Brewery with distances to the left and right ones or null, if nothing found
+     */
+    public HamiltonBrewery findClosestBrewery(HamiltonBrewery breweryLeft, HamiltonBrewery breweryRight,
+                                              BreweryStore store, BitSet available, double distanceLimit) {
+        PlannerEvents.ClosestBrewery event = new PlannerEvents.ClosestBrewery();
+        event.begin();
+        HamiltonBrewery closest;
+        if (breweryIndex != null) {
+            closest = breweryIndex.findClosest(
+                    breweryLeft.getLatitude(),
+                    breweryLeft.getLongitude(),
+                    breweryRight.getLatitude(),
+                    breweryRight.getLongitude(),
+                    distanceLimit,
+                    available);
+        } else {
+            try (Stream<HamiltonBrewery> adjacentBreweries = dh.streamAdjacentBreweries(breweryLeft, breweryRight, distanceLimit)) {
+                closest = adjacentBreweries
+                        .filter(brewery -> store.isAvailable(available, brewery.getId()))
+                        .findFirst()
+                        .orElse(null);
+            }
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.source = breweryIndex != null ? "index" : "sql";
+            event.found = closest != null;
+            event.distance = closest != null ? closest.getDistance() : 0.0;
+            event.commit();
+        }
+        return closest;
+    }
+
+    /**
+     * Gets all distinct beers that are manufactured within given breweries
+     *
+     * @param hamiltonRoute
+     * @return Distinct list of beers
+     */
+    public ArrayList<Beer> calculateDistinctBeerKinds(ArrayList<HamiltonBrewery> hamiltonRoute) {
+        PlannerEvents.BeerLookup event = new PlannerEvents.BeerLookup();
+        event.begin();
+        int[] breweriesIds = getBreweryIds(hamiltonRoute);
+        ArrayList<Beer> beers;
+        if (beerIndex != null) {
+            beers = beerIndex.getDistinctBeers(breweriesIds);
+        } else if (repository != null) {
+            beers = repository.findDistinctBeers(breweriesIds).join();
+        } else {
+            beers = dh.getDistinctBeers(Arrays.stream(breweriesIds).boxed());
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.source = beerIndex != null ? "index" : repository != null ? "repository" : "sql";
+            event.breweryCount = breweriesIds.length;
+            event.beerCount = beers.size();
+            event.commit();
+        }
+        return beers;
+    }
+
+    /**
+     * Counts distinct beers that are manufactured within given breweries
+     *
+     * @param hamiltonRoute
+     * @return Number of distinct beers
+     */
+    public int countDistinctBeerKinds(ArrayList<HamiltonBrewery> hamiltonRoute) {
+        if (beerIndex != null) {
+            return beerIndex.countDistinctBeers(getBreweryIds(hamiltonRoute));
+        }
+        return calculateDistinctBeerKinds(hamiltonRoute).size();
+    }
+
+    /**
+     * Same as calculateDistinctBeerKinds, but beers are looked up in repository without waiting,
+     * so caller may continue planning meanwhile. Other sources complete the future before returning
+     *
+     * @param hamiltonRoute
+     * @return Future of distinct list of beers
+     */
+    public CompletableFuture<ArrayList<Beer>> calculateDistinctBeerKindsAsync(ArrayList<HamiltonBrewery> hamiltonRoute) {
+        if (beerIndex == null && repository != null) {
+            return repository.findDistinctBeers(getBreweryIds(hamiltonRoute));
+        }
+        return CompletableFuture.completedFuture(calculateDistinctBeerKinds(hamiltonRoute));
+    }
+
+    private int[] getBreweryIds(ArrayList<HamiltonBrewery> hamiltonRoute) {
+        return hamiltonRoute.stream()
+                .mapToInt(Brewery::getId)
+                .filter(id -> id >= 0)
+                .toArray();
+    }
+
+    /**
+     * Calculate distance of given Hamilton route.
+     * Route contains n+1 elements: first and last elements are equal and represent route begin and end
+     *
+     * @param hamiltonRoute
+     * @return Distance of route
+     */
+    public double calculateRouteDistance(ArrayList<HamiltonBrewery> hamiltonRoute) {
+        double routeDistance = 0.0;
+        for (int i = 0; i < hamiltonRoute.size() - 1; i++) {
+            HamiltonBrewery bw = hamiltonRoute.get(i);
+            routeDistance += bw.getRightDistance();
+        }
+
+        return routeDistance;
+    }
+}
\ No newline at end of file
@@ -1,3 +1,5 @@
+package beerdb;
+
 /**
  * Created by Ignas on 2017-05-03.
  */
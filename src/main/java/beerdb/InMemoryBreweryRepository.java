@@ -0,0 +1,86 @@
+package beerdb;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Brewery repository over brewery snapshot, answered from in-memory spatial and beer indexes.
+ * Lookups are fast and complete before method returns, so tests and benchmarks need no database
+ */
+public class InMemoryBreweryRepository implements BreweryRepository {
+
+    private final BrewerySnapshot snapshot;
+    private final BreweryIndex breweryIndex;
+    private final BeerIndex beerIndex;
+
+    /**
+     * @param snapshot Opened brewery snapshot
+     */
+    public InMemoryBreweryRepository(BrewerySnapshot snapshot) {
+        this.snapshot = snapshot;
+        this.breweryIndex = new BreweryIndex(snapshot.getBreweries());
+        this.beerIndex = BeerIndex.fromSnapshot(snapshot);
+    }
+
+    /**
+     * Loads repository from MySQL dump file, without writing snapshot file
+     *
+     * @param dumpFile
+     * @return Repository
+     * @throws IOException if dump can not be read
+     */
+    public static InMemoryBreweryRepository fromDump(Path dumpFile) throws IOException {
+        return new InMemoryBreweryRepository(BrewerySnapshot.Builder.fromDump(dumpFile).build());
+    }
+
+    public BrewerySnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public CompletableFuture<Brewery[]> findGeocodedBreweries() {
+        return CompletableFuture.completedFuture(snapshot.getBreweries());
+    }
+
+    @Override
+    public CompletableFuture<Brewery[]> findWithinRadius(double latitude, double longitude, double radius) {
+        return CompletableFuture.completedFuture(breweryIndex.findWithinRadius(latitude, longitude, radius));
+    }
+
+    @Override
+    public CompletableFuture<HamiltonBrewery[]> findAdjacent(Brewery breweryLeft, Brewery breweryRight, double maxDistance) {
+        // Any point p with d(left, p) + d(p, right) <= maxDistance is at most (maxDistance + d(left, right)) / 2 from both ends
+        double radius = (maxDistance + GeoDistance.distance(breweryLeft.getLatitude(), breweryLeft.getLongitude(),
+                breweryRight.getLatitude(), breweryRight.getLongitude())) / 2;
+        int[] positions = breweryIndex.findPositionsWithinRadius(breweryLeft.getLatitude(), breweryLeft.getLongitude(), radius);
+
+        BreweryStore store = breweryIndex.getStore();
+        double[] left = new double[positions.length];
+        double[] right = new double[positions.length];
+        store.getDistanceKernel().distances(breweryLeft.getLatitude(), breweryLeft.getLongitude(),
+                DistanceKernel.Accuracy.HAVERSINE, positions, positions.length, left);
+        store.getDistanceKernel().distances(breweryRight.getLatitude(), breweryRight.getLongitude(),
+                DistanceKernel.Accuracy.HAVERSINE, positions, positions.length, right);
+
+        ArrayList<HamiltonBrewery> result = new ArrayList<>();
+        for (int i = 0; i < positions.length; i++) {
+            if (left[i] + right[i] <= maxDistance) {
+                result.add(store.toHamiltonBrewery(positions[i], left[i], right[i]));
+            }
+        }
+        result.sort(Comparator.comparingDouble(Brewery::getDistance));
+        return CompletableFuture.completedFuture(result.toArray(new HamiltonBrewery[result.size()]));
+    }
+
+    @Override
+    public CompletableFuture<ArrayList<Beer>> findDistinctBeers(int[] breweriesIds) {
+        return CompletableFuture.completedFuture(beerIndex.getDistinctBeers(breweriesIds));
+    }
+
+    @Override
+    public void close() {
+    }
+}
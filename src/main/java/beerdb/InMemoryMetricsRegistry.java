@@ -0,0 +1,49 @@
+package beerdb;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics registry keeping all metrics in concurrent maps of this process
+ */
+public class InMemoryMetricsRegistry implements MetricsRegistry {
+
+    private final ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ValueHistogram> distributions = new ConcurrentHashMap<>();
+
+    @Override
+    public LongAdder counter(String name) {
+        LongAdder counter = counters.get(name);
+        return counter != null ? counter : counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    @Override
+    public LatencyHistogram histogram(String name) {
+        LatencyHistogram histogram = histograms.get(name);
+        return histogram != null ? histogram : histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    @Override
+    public ValueHistogram distribution(String name) {
+        ValueHistogram distribution = distributions.get(name);
+        return distribution != null ? distribution : distributions.computeIfAbsent(name, key -> new ValueHistogram());
+    }
+
+    @Override
+    public Map<String, LongAdder> getCounters() {
+        return Collections.unmodifiableMap(counters);
+    }
+
+    @Override
+    public Map<String, LatencyHistogram> getHistograms() {
+        return Collections.unmodifiableMap(histograms);
+    }
+
+    @Override
+    public Map<String, ValueHistogram> getDistributions() {
+        return Collections.unmodifiableMap(distributions);
+    }
+}
@@ -0,0 +1,27 @@
+package beerdb;
+
+/**
+ * Route construction heuristics of HamiltonInsertion
+ */
+public enum InsertionStrategy {
+    /**
+     * Inserts brewery which increases route distance least, original algorithm
+     */
+    CHEAPEST,
+    /**
+     * Inserts brewery which is closest to any route element, at its cheapest position
+     */
+    NEAREST,
+    /**
+     * Inserts brewery which is farthest from all route elements, at its cheapest position
+     */
+    FARTHEST,
+    /**
+     * Starts route with random brewery, then continues with cheapest insertion
+     */
+    RANDOM,
+    /**
+     * Inserts brewery with most new beer styles per extra kilometre, then continues with cheapest insertion
+     */
+    DIVERSITY
+}
@@ -0,0 +1,117 @@
+package beerdb;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Created by Ignas on 2017-04-27.
+ */
+public class Journey {
+
+    // Lenkija, Lodz
+    private static final double LATITUDE = 51.742503;
+    private static final double LONGITUDE = 19.432956;
+    private static final double DISTANCE_LIMIT = 2000;
+
+    /**
+     * Plans journey using MySQL database or, if path is given as first argument, brewery snapshot file.
+     * If second argument is given, plans all journeys from that file, one "latitude,longitude,distanceLimit" per line
+     *
+     * @param args Optional snapshot file created by BrewerySnapshot and optional journeys file
+     * @throws IOException if snapshot or journeys file can not be read
+     */
+    public static void main(String[] args) throws IOException {
+        HamiltonInsertion hi = args.length > 0
+                ? new HamiltonInsertion(BrewerySnapshot.open(Paths.get(args[0])), DISTANCE_LIMIT)
+                : new HamiltonInsertion(LATITUDE, LONGITUDE, DISTANCE_LIMIT);
+        hi.openDBHelper();
+
+        if (args.length > 1) {
+            planJourneys(hi, args[1]);
+            hi.closeDBHelper();
+            return;
+        }
+
+        ArrayList<HamiltonBrewery> hamiltonRoute = hi.calculateHamiltonRoute(LATITUDE, LONGITUDE, DISTANCE_LIMIT);
+        printData(hamiltonRoute);
+
+        double routeDistance = hi.calculateRouteDistance(hamiltonRoute);
+        printData("Route distance: ", routeDistance);
+
+        ArrayList<Beer> beers = hi.calculateDistinctBeerKinds(hamiltonRoute);
+        printData(beers);
+
+        hi.closeDBHelper();
+    }
+
+    /**
+     * Plans journeys from file concurrently and prints each one as soon as it is planned
+     *
+     * @param hi
+     * @param journeysFile
+     * @throws IOException
+     */
+    private static void planJourneys(HamiltonInsertion hi, String journeysFile) throws IOException {
+        List<BatchPlanner.Request> requests;
+        try (Stream<String> lines = Files.lines(Paths.get(journeysFile))) {
+            requests = lines
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty())
+                    .map(line -> line.split(","))
+                    .map(values -> new BatchPlanner.Request(Double.parseDouble(values[0]),
+                            Double.parseDouble(values[1]), Double.parseDouble(values[2])))
+                    .collect(Collectors.toList());
+        }
+
+        try (BatchPlanner planner = new BatchPlanner(hi);
+             Stream<BatchPlanner.Result> results = planner.plan(requests)) {
+            results.forEach(result -> {
+                if (result.getError() != null) {
+                    System.out.println(result.getRequest() + ": " + result.getError());
+                } else {
+                    System.out.println(result.getRequest() + ": " + (result.getRoute().size() - 2)
+                            + " breweries, " + result.getRouteDistance() + " km");
+                }
+            });
+        }
+    }
+
+    /**
+     * Print message followed by value
+     *
+     * @param message
+     * @param value
+     */
+    private static void printData(String message, double value) {
+        System.out.println(message + value);
+    }
+
+    /**
+     * Print array of data using toString() method
+     *
+     * @param data
+     */
+    private static void printData(ArrayList<? extends Object> data) {
+        for (Object o : data) {
+            System.out.println(o.toString());
+        }
+        System.out.println("Total records: " + data.size());
+        System.out.println();
+    }
+
+    /**
+     * Print cordinates as LATITUDE,LONGITUDE from  given array
+     *
+     * @param hamiltonRoute
+     */
+    private void printCoordinates(ArrayList<HamiltonBrewery> hamiltonRoute) {
+        for (HamiltonBrewery bw : hamiltonRoute) {
+            System.out.println(bw.getLatitude() + "," + bw.getLongitude());
+        }
+    }
+}
\ No newline at end of file
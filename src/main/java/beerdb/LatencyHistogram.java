@@ -0,0 +1,29 @@
+package beerdb;
+
+/**
+ * Histogram of durations in nanoseconds, see ValueHistogram for precision of quantiles
+ */
+public class LatencyHistogram extends ValueHistogram {
+
+    public long getSumNanos() {
+        return getSum();
+    }
+
+    public long getMaxNanos() {
+        return getMax();
+    }
+
+    public double getMeanNanos() {
+        return getMean();
+    }
+
+    /**
+     * Upper bound of bucket containing given quantile
+     *
+     * @param quantile From 0 to 1
+     * @return Duration in nanoseconds, 0 if nothing was recorded
+     */
+    public long getQuantileNanos(double quantile) {
+        return getQuantile(quantile);
+    }
+}
@@ -0,0 +1,115 @@
+package beerdb;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Same as GapCandidateQueue, but for LinkedRoute: gap is identified by its left node and candidate is a store
+ * position with distances to both gap ends, kept in primitive arrays indexed by node.
+ * Stale heap entries are recognised by version of their gap and skipped lazily
+ */
+public class LinkedGapQueue {
+
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>(
+            (a, b) -> Double.compare(a.distance, b.distance));
+    private int[] versions = new int[0];
+    private int[] candidatePositions = new int[0];
+    private double[] leftDistances = new double[0];
+    private double[] rightDistances = new double[0];
+    private int size;
+    private long putCount;
+
+    /**
+     * Sets best candidate for gap after left node, replacing previous candidate of this gap.
+     * If position is -1 gap is forgotten, since nothing can be inserted there
+     *
+     * @param left          Left node of gap
+     * @param position      Store position of candidate or -1
+     * @param leftDistance  Distance from left node to candidate
+     * @param rightDistance Distance from candidate to right node
+     */
+    public void put(int left, int position, double leftDistance, double rightDistance) {
+        putCount++;
+        if (left >= versions.length) {
+            grow(left + 1);
+        }
+        versions[left]++;
+        if (candidatePositions[left] != -1) {
+            size--;
+        }
+        candidatePositions[left] = position;
+        if (position == -1) {
+            return;
+        }
+        size++;
+        leftDistances[left] = leftDistance;
+        rightDistances[left] = rightDistance;
+        queue.add(new Entry(leftDistance + rightDistance, left, versions[left]));
+    }
+
+    /**
+     * Gets left node of gap with smallest candidate distance without removing it
+     *
+     * @return Left node or -1 if queue is empty
+     */
+    public int peek() {
+        Entry entry = queue.peek();
+        while (entry != null && versions[entry.left] != entry.version) {
+            queue.poll();
+            entry = queue.peek();
+        }
+        return entry == null ? -1 : entry.left;
+    }
+
+    public int getCandidatePosition(int left) {
+        return candidatePositions[left];
+    }
+
+    public double getLeftDistance(int left) {
+        return leftDistances[left];
+    }
+
+    public double getRightDistance(int left) {
+        return rightDistances[left];
+    }
+
+    /**
+     * Number of put calls, that is how many gap candidates were searched
+     *
+     * @return Put count
+     */
+    public long getPutCount() {
+        return putCount;
+    }
+
+    /**
+     * Number of gaps that have candidates
+     *
+     * @return Size of queue
+     */
+    public int size() {
+        return size;
+    }
+
+    private void grow(int minCapacity) {
+        int oldCapacity = versions.length;
+        int capacity = Math.max(Math.max(16, 2 * oldCapacity), minCapacity);
+        versions = Arrays.copyOf(versions, capacity);
+        candidatePositions = Arrays.copyOf(candidatePositions, capacity);
+        Arrays.fill(candidatePositions, oldCapacity, capacity, -1);
+        leftDistances = Arrays.copyOf(leftDistances, capacity);
+        rightDistances = Arrays.copyOf(rightDistances, capacity);
+    }
+
+    private static class Entry {
+        private final double distance;
+        private final int left;
+        private final int version;
+
+        private Entry(double distance, int left, int version) {
+            this.distance = distance;
+            this.left = left;
+            this.version = version;
+        }
+    }
+}
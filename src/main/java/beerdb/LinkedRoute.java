@@ -0,0 +1,236 @@
+package beerdb;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Hamilton route kept as doubly linked list in primitive arrays. Every route element is a node number:
+ * brewery inserted by planner is a store position with coordinates, elements given as HamiltonBrewery objects
+ * (starting points and breweries of an existing route) are kept as they are. Right distance of every node
+ * is the length of edge to its successor, so insertion after a node and update of both affected edges is O(1).
+ * HamiltonBrewery objects of inserted breweries are created only by toHamiltonRoute and getElement
+ */
+public class LinkedRoute {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final BreweryStore store;
+    private final int first;
+    private final int last;
+
+    private HamiltonBrewery[] elements;
+    private int[] positions;
+    private double[] latitudes;
+    private double[] longitudes;
+    private int[] next;
+    private int[] prev;
+    private double[] rightDistances;
+    private int size;
+    private double totalDistance;
+
+    /**
+     * Links elements of route, node i is hamiltonRoute element i
+     *
+     * @param store         Store of breweries which positions are inserted
+     * @param hamiltonRoute Route which first and last elements are starting points
+     * @param totalDistance Route distance
+     */
+    public LinkedRoute(BreweryStore store, ArrayList<HamiltonBrewery> hamiltonRoute, double totalDistance) {
+        this.store = store;
+        int capacity = Math.max(INITIAL_CAPACITY, 2 * hamiltonRoute.size());
+        elements = new HamiltonBrewery[capacity];
+        positions = new int[capacity];
+        latitudes = new double[capacity];
+        longitudes = new double[capacity];
+        next = new int[capacity];
+        prev = new int[capacity];
+        rightDistances = new double[capacity];
+        for (HamiltonBrewery bw : hamiltonRoute) {
+            int node = size++;
+            elements[node] = bw;
+            positions[node] = -1;
+            latitudes[node] = bw.getLatitude();
+            longitudes[node] = bw.getLongitude();
+            rightDistances[node] = bw.getRightDistance();
+            next[node] = node + 1;
+            prev[node] = node - 1;
+        }
+        this.first = 0;
+        this.last = size - 1;
+        next[last] = -1;
+        this.totalDistance = totalDistance;
+    }
+
+    /**
+     * Inserts brewery between node and its successor
+     *
+     * @param left          Node after which brewery is inserted
+     * @param position      Store position of brewery
+     * @param leftDistance  Distance from left node to brewery
+     * @param rightDistance Distance from brewery to the successor of left node
+     * @return Node of inserted brewery
+     */
+    public int insertAfter(int left, int position, double leftDistance, double rightDistance) {
+        if (size == positions.length) {
+            grow();
+        }
+        int node = size++;
+        int right = next[left];
+        positions[node] = position;
+        latitudes[node] = store.getLatitude(position);
+        longitudes[node] = store.getLongitude(position);
+        totalDistance += leftDistance + rightDistance - rightDistances[left];
+        rightDistances[left] = leftDistance;
+        rightDistances[node] = rightDistance;
+        next[left] = node;
+        prev[node] = left;
+        next[node] = right;
+        prev[right] = node;
+        return node;
+    }
+
+    /**
+     * Node of starting point, which is the first route element
+     */
+    public int getFirst() {
+        return first;
+    }
+
+    /**
+     * Node of starting point, which is the last route element
+     */
+    public int getLast() {
+        return last;
+    }
+
+    /**
+     * @param node
+     * @return Successor of node, -1 for the last node
+     */
+    public int getNext(int node) {
+        return next[node];
+    }
+
+    /**
+     * @param node
+     * @return Predecessor of node, -1 for the first node
+     */
+    public int getPrev(int node) {
+        return prev[node];
+    }
+
+    public double getLatitude(int node) {
+        return latitudes[node];
+    }
+
+    public double getLongitude(int node) {
+        return longitudes[node];
+    }
+
+    /**
+     * @param node
+     * @return Distance from node to its successor
+     */
+    public double getRightDistance(int node) {
+        return rightDistances[node];
+    }
+
+    /**
+     * @param node
+     * @return Store position of inserted brewery, -1 for elements given to constructor
+     */
+    public int getPosition(int node) {
+        return positions[node];
+    }
+
+    /**
+     * @param node
+     * @return Brewery id of node, without creating its route element
+     */
+    public int getId(int node) {
+        return positions[node] == -1 ? elements[node].getId() : store.getId(positions[node]);
+    }
+
+    /**
+     * Number of route elements including both starting points
+     *
+     * @return Route size
+     */
+    public int size() {
+        return size;
+    }
+
+    public double getTotalDistance() {
+        return totalDistance;
+    }
+
+    /**
+     * Index of node in route, found by walking the list
+     *
+     * @param node
+     * @return Index, same as in toHamiltonRoute
+     */
+    public int indexOf(int node) {
+        int idx = 0;
+        for (int n = first; n != node; n = next[n]) {
+            idx++;
+        }
+        return idx;
+    }
+
+    /**
+     * Creates route elements in route order. Elements given to constructor are reused with updated distances
+     *
+     * @return Route which first and last elements are starting points
+     */
+    public ArrayList<HamiltonBrewery> toHamiltonRoute() {
+        ArrayList<HamiltonBrewery> hamiltonRoute = new ArrayList<>(size + 1);
+        copyTo(hamiltonRoute);
+        return hamiltonRoute;
+    }
+
+    /**
+     * Replaces content of hamiltonRoute with route elements, see toHamiltonRoute
+     *
+     * @param hamiltonRoute
+     */
+    public void copyTo(ArrayList<HamiltonBrewery> hamiltonRoute) {
+        hamiltonRoute.clear();
+        hamiltonRoute.ensureCapacity(size);
+        for (int node = first; node != -1; node = next[node]) {
+            hamiltonRoute.add(getElement(node));
+        }
+    }
+
+    /**
+     * Route element of one node with current distances to its neighbours, without walking the route.
+     * Element of inserted brewery is created on first call and reused by toHamiltonRoute
+     *
+     * @param node
+     * @return Route element
+     */
+    public HamiltonBrewery getElement(int node) {
+        double leftDistance = node == first ? elements[node].getLeftDistance() : rightDistances[prev[node]];
+        double rightDistance = node == last ? elements[node].getRightDistance() : rightDistances[node];
+        HamiltonBrewery bw = elements[node];
+        if (bw == null) {
+            bw = store.toHamiltonBrewery(positions[node], leftDistance, rightDistance);
+            elements[node] = bw;
+        } else {
+            bw.setLeftDistance(leftDistance);
+            bw.setRightDistance(rightDistance);
+        }
+        return bw;
+    }
+
+    private void grow() {
+        int capacity = 2 * positions.length;
+        elements = Arrays.copyOf(elements, capacity);
+        positions = Arrays.copyOf(positions, capacity);
+        latitudes = Arrays.copyOf(latitudes, capacity);
+        longitudes = Arrays.copyOf(longitudes, capacity);
+        next = Arrays.copyOf(next, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        rightDistances = Arrays.copyOf(rightDistances, capacity);
+    }
+}
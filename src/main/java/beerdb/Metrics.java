@@ -0,0 +1,25 @@
+package beerdb;
+
+/**
+ * Process wide metrics registry used by BeerDBHelper, HamiltonInsertion and RouteCache
+ */
+public class Metrics {
+
+    private static volatile MetricsRegistry registry = new InMemoryMetricsRegistry();
+
+    private Metrics() {
+    }
+
+    public static MetricsRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Replaces registry, metrics recorded afterwards go to the new one
+     *
+     * @param registry
+     */
+    public static void setRegistry(MetricsRegistry registry) {
+        Metrics.registry = registry;
+    }
+}
@@ -0,0 +1,85 @@
+package beerdb;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Named counters and latency histograms. Implementation decides where metrics are kept,
+ * see Metrics.setRegistry. Callers on hot paths should count locally and add once per operation
+ */
+public interface MetricsRegistry {
+
+    /**
+     * Gets or creates counter
+     *
+     * @param name Dotted metric name, e.g. db.rows.breweries
+     * @return Counter
+     */
+    LongAdder counter(String name);
+
+    /**
+     * Gets or creates latency histogram
+     *
+     * @param name Dotted metric name, e.g. db.query.breweries
+     * @return Histogram
+     */
+    LatencyHistogram histogram(String name);
+
+    /**
+     * Gets or creates histogram of values other than durations
+     *
+     * @param name Dotted metric name, e.g. planner.iteration.candidates
+     * @return Histogram
+     */
+    ValueHistogram distribution(String name);
+
+    Map<String, LongAdder> getCounters();
+
+    Map<String, LatencyHistogram> getHistograms();
+
+    Map<String, ValueHistogram> getDistributions();
+
+    /**
+     * Current values: counters by name, histograms as name.count, name.meanMillis, name.p50Millis,
+     * name.p99Millis and name.maxMillis, distributions as name.count, name.mean, name.p50, name.p99 and name.max
+     *
+     * @return Values sorted by name
+     */
+    default SortedMap<String, Number> getValues() {
+        SortedMap<String, Number> values = new TreeMap<>();
+        getCounters().forEach((name, counter) -> values.put(name, counter.sum()));
+        getHistograms().forEach((name, histogram) -> {
+            values.put(name + ".count", histogram.getCount());
+            values.put(name + ".meanMillis", histogram.getMeanNanos() / TimeUnit.MILLISECONDS.toNanos(1));
+            values.put(name + ".p50Millis", toMillis(histogram.getQuantileNanos(0.5)));
+            values.put(name + ".p99Millis", toMillis(histogram.getQuantileNanos(0.99)));
+            values.put(name + ".maxMillis", toMillis(histogram.getMaxNanos()));
+        });
+        getDistributions().forEach((name, distribution) -> {
+            values.put(name + ".count", distribution.getCount());
+            values.put(name + ".mean", distribution.getMean());
+            values.put(name + ".p50", distribution.getQuantile(0.5));
+            values.put(name + ".p99", distribution.getQuantile(0.99));
+            values.put(name + ".max", distribution.getMax());
+        });
+        return values;
+    }
+
+    /**
+     * Text dump with one "name value" line per value
+     *
+     * @return Dump of getValues
+     */
+    default String dump() {
+        StringBuilder builder = new StringBuilder();
+        getValues().forEach((name, value) -> builder.append(name).append(' ').append(value).append('\n'));
+        return builder.toString();
+    }
+
+    static double toMillis(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
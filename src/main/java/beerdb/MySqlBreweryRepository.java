@@ -0,0 +1,96 @@
+package beerdb;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * Brewery repository over MySQL database. Blocking BeerDBHelper queries run on executor,
+ * by default on virtual threads when JDK supports them, so pooled connections limit concurrent queries.
+ * Query which BeerDBHelper reports as failed (null result) completes the future with IllegalStateException
+ */
+public class MySqlBreweryRepository implements BreweryRepository {
+
+    private final BeerDBHelper dh;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+
+    /**
+     * @param dh Database helper with open connection, it is closed by close
+     */
+    public MySqlBreweryRepository(BeerDBHelper dh) {
+        this(dh, BatchPlanner.newJourneyExecutor(), true);
+    }
+
+    /**
+     * @param dh       Database helper with open connection, it is closed by close
+     * @param executor Executor running queries, it is not shut down by close
+     */
+    public MySqlBreweryRepository(BeerDBHelper dh, ExecutorService executor) {
+        this(dh, executor, false);
+    }
+
+    private MySqlBreweryRepository(BeerDBHelper dh, ExecutorService executor, boolean ownsExecutor) {
+        this.dh = dh;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    /**
+     * Opens connection to database and creates repository over it
+     *
+     * @param serverIP
+     * @param dbName
+     * @param dbUserName
+     * @param password
+     * @return Repository or null, if connection can not be opened
+     */
+    public static MySqlBreweryRepository open(String serverIP, String dbName, String dbUserName, String password) {
+        BeerDBHelper dh = new BeerDBHelper(serverIP, dbName, dbUserName, password);
+        if (!dh.openConnection()) {
+            return null;
+        }
+        return new MySqlBreweryRepository(dh);
+    }
+
+    @Override
+    public CompletableFuture<Brewery[]> findGeocodedBreweries() {
+        return query("Geocoded breweries", dh::getGeocodedBreweries);
+    }
+
+    @Override
+    public CompletableFuture<Brewery[]> findWithinRadius(double latitude, double longitude, double radius) {
+        return query("Breweries", () -> dh.getBreweries(latitude, longitude, radius));
+    }
+
+    @Override
+    public CompletableFuture<HamiltonBrewery[]> findAdjacent(Brewery breweryLeft, Brewery breweryRight, double maxDistance) {
+        return query("Adjacent breweries", () -> dh.getAdjacentBreweries(breweryLeft, breweryRight, maxDistance));
+    }
+
+    @Override
+    public CompletableFuture<ArrayList<Beer>> findDistinctBeers(int[] breweriesIds) {
+        int[] ids = breweriesIds.clone();
+        return query("Distinct beers", () -> dh.getDistinctBeers(Arrays.stream(ids).boxed()));
+    }
+
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+        dh.closeConnection();
+    }
+
+    private <T> CompletableFuture<T> query(String name, Supplier<T> query) {
+        return CompletableFuture.supplyAsync(() -> {
+            T result = query.get();
+            if (result == null) {
+                throw new IllegalStateException(name + " query failed");
+            }
+            return result;
+        }, executor);
+    }
+}
@@ -0,0 +1,109 @@
+package beerdb;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Reads table rows from INSERT statements of mysqldump file, such as database/mysql_dump.sql.
+ * Values are returned as strings, SQL NULL as null
+ */
+public class MysqlDumpReader {
+
+    private static final String INSERT_PREFIX = "INSERT INTO `";
+
+    /**
+     * Reads rows of all tables found in dump
+     *
+     * @param dumpFile
+     * @return Rows by table name
+     * @throws IOException
+     */
+    public static HashMap<String, List<String[]>> read(Path dumpFile) throws IOException {
+        HashMap<String, List<String[]>> tables = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(dumpFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith(INSERT_PREFIX)) {
+                    continue;
+                }
+                int tableEnd = line.indexOf('`', INSERT_PREFIX.length());
+                String table = line.substring(INSERT_PREFIX.length(), tableEnd);
+                List<String[]> rows = tables.computeIfAbsent(table, t -> new ArrayList<>());
+                parseValues(line, line.indexOf(" VALUES ", tableEnd) + " VALUES ".length(), rows);
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * Parses (..),(..); value tuples starting at given position
+     *
+     * @param line
+     * @param position
+     * @param rows     Parsed rows are added here
+     */
+    static void parseValues(String line, int position, List<String[]> rows) {
+        ArrayList<String> row = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        int i = position;
+        while (i < line.length()) {
+            char c = line.charAt(i);
+            if (c == '(') {
+                row.clear();
+                i++;
+            } else if (c == '\'') {
+                value.setLength(0);
+                i++;
+                while (line.charAt(i) != '\'') {
+                    if (line.charAt(i) == '\\') {
+                        i++;
+                        value.append(unescape(line.charAt(i)));
+                    } else {
+                        value.append(line.charAt(i));
+                    }
+                    i++;
+                }
+                row.add(value.toString());
+                i++;
+            } else if (c == ',') {
+                i++;
+            } else if (c == ')') {
+                rows.add(row.toArray(new String[row.size()]));
+                i++;
+            } else if (c == ';') {
+                break;
+            } else {
+                int end = i;
+                while (line.charAt(end) != ',' && line.charAt(end) != ')') {
+                    end++;
+                }
+                String literal = line.substring(i, end);
+                row.add("NULL".equals(literal) ? null : literal);
+                i = end;
+            }
+        }
+    }
+
+    private static char unescape(char c) {
+        switch (c) {
+            case '0':
+                return '\0';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'Z':
+                return (char) 26;
+            default:
+                return c;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package beerdb;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+
+/**
+ * Hamilton route together with insertion state: breweries which are still available and route distance.
+ * HamiltonInsertion.changeDistanceLimit continues insertion from this state when distance limit changes
+ */
+public class PlannedRoute {
+
+    private final double latitude;
+    private final double longitude;
+    private final ArrayList<HamiltonBrewery> route;
+    private double distanceLimit;
+    private BreweryStore store;
+    private BitSet availableLocations;
+    private double totalDistance;
+
+    PlannedRoute(double latitude, double longitude, double distanceLimit, ArrayList<HamiltonBrewery> route,
+                 BreweryStore store, BitSet availableLocations, double totalDistance) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.route = route;
+        update(distanceLimit, store, availableLocations, totalDistance);
+    }
+
+    void update(double distanceLimit, BreweryStore store, BitSet availableLocations, double totalDistance) {
+        this.distanceLimit = distanceLimit;
+        this.store = store;
+        this.availableLocations = availableLocations;
+        this.totalDistance = totalDistance;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public double getDistanceLimit() {
+        return distanceLimit;
+    }
+
+    /**
+     * Route which first and last elements are starting points
+     *
+     * @return Route, which is changed by HamiltonInsertion.changeDistanceLimit
+     */
+    public ArrayList<HamiltonBrewery> getRoute() {
+        return route;
+    }
+
+    /**
+     * Breweries within reach of starting point, which route does not visit
+     *
+     * @return Availability set indexed by store slots
+     */
+    public BitSet getAvailableLocations() {
+        return availableLocations;
+    }
+
+    public BreweryStore getStore() {
+        return store;
+    }
+
+    public double getTotalDistance() {
+        return totalDistance;
+    }
+}
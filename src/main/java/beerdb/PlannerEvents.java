@@ -0,0 +1,98 @@
+package beerdb;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder events of route planning phases. Events are created and timed on every call,
+ * but fields are set and event is written only if it is enabled in recording, so cost is near zero otherwise.
+ * Record with: java -XX:StartFlightRecording:filename=planner.jfr ...
+ */
+public class PlannerEvents {
+
+    private PlannerEvents() {
+    }
+
+    @Name("beerdb.BreweryLoad")
+    @Label("Brewery Load")
+    @Category({"Beer DB", "Planner"})
+    @Description("Breweries loaded into in-memory index or store of one route")
+    public static class BreweryLoad extends Event {
+        @Label("Source")
+        public String source;
+
+        @Label("Breweries")
+        public int breweryCount;
+
+        @Label("Distance Limit")
+        public double distanceLimit;
+    }
+
+    @Name("beerdb.InsertionRound")
+    @Label("Insertion Round")
+    @Category({"Beer DB", "Planner"})
+    @Description("One insertLocation round with cached gap candidates")
+    public static class InsertionRound extends Event {
+        @Label("Route Size")
+        public int routeSize;
+
+        @Label("Distance Reserve")
+        public double distanceReserve;
+
+        @Label("Candidate Searches")
+        @Description("Gaps which candidate was searched again in this round")
+        public long candidateSearches;
+
+        @Label("Inserted")
+        public boolean inserted;
+    }
+
+    @Name("beerdb.ClosestBrewery")
+    @Label("Closest Brewery Lookup")
+    @Category({"Beer DB", "Planner"})
+    @Description("Search of brewery with smallest insertion cost between two route elements")
+    public static class ClosestBrewery extends Event {
+        @Label("Source")
+        public String source;
+
+        @Label("Found")
+        public boolean found;
+
+        @Label("Distance")
+        @Description("Sum of distances to left and right route elements")
+        public double distance;
+    }
+
+    @Name("beerdb.BeerLookup")
+    @Label("Beer Lookup")
+    @Category({"Beer DB", "Planner"})
+    @Description("Distinct beers of route breweries")
+    public static class BeerLookup extends Event {
+        @Label("Source")
+        public String source;
+
+        @Label("Breweries")
+        public int breweryCount;
+
+        @Label("Beers")
+        public int beerCount;
+    }
+
+    @Name("beerdb.SqlQuery")
+    @Label("SQL Query")
+    @Category({"Beer DB", "Data Access"})
+    @Description("Query executed by BeerDBHelper, duration includes mapping of rows")
+    public static class SqlQuery extends Event {
+        @Label("Query Type")
+        public String queryType;
+
+        @Label("Rows")
+        public long rows;
+
+        @Label("Failed")
+        public boolean failed;
+    }
+}
@@ -0,0 +1,171 @@
+package beerdb;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wall-clock and iteration budget of one planning call. Planner stops inserting when budget is exhausted
+ * and returns the route built so far, which is always valid. Clock starts when budget is created,
+ * so loading breweries counts against the deadline, but a running SQL query is not interrupted.
+ * Budget keeps iteration count of the call, so new budget has to be created for every call
+ */
+public class PlanningBudget {
+
+    private final long deadlineNanos;
+    private final long maxIterations;
+    private final RouteProgressListener listener;
+    private long iterations;
+    private volatile boolean cancelled;
+
+    /**
+     * @param timeBudgetMillis Time budget in milliseconds, Long.MAX_VALUE for no deadline
+     * @param maxIterations    Maximum number of insertion iterations, Long.MAX_VALUE for no limit
+     * @param listener         Progress listener or null
+     */
+    public PlanningBudget(long timeBudgetMillis, long maxIterations, RouteProgressListener listener) {
+        this.deadlineNanos = deadlineAfter(TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis));
+        this.maxIterations = maxIterations;
+        this.listener = listener;
+    }
+
+    /**
+     * Budget without deadline and iteration limit
+     *
+     * @return New budget
+     */
+    public static PlanningBudget unlimited() {
+        return new PlanningBudget(Long.MAX_VALUE, Long.MAX_VALUE, null);
+    }
+
+    /**
+     * Budget with deadline only
+     *
+     * @param timeBudgetMillis Time budget in milliseconds
+     * @return New budget
+     */
+    public static PlanningBudget ofMillis(long timeBudgetMillis) {
+        return new PlanningBudget(timeBudgetMillis, Long.MAX_VALUE, null);
+    }
+
+    /**
+     * Counts one iteration and reports route to listener
+     *
+     * @param hamiltonRoute Route after iteration
+     * @param totalDistance Route distance
+     * @return True if planning may continue
+     */
+    public boolean step(ArrayList<HamiltonBrewery> hamiltonRoute, double totalDistance) {
+        iterations++;
+        if (listener != null) {
+            listener.onProgress(hamiltonRoute, totalDistance, iterations);
+        }
+        return !isExhausted();
+    }
+
+    /**
+     * Counts one insertion iteration and reports inserted route element to listener
+     *
+     * @param hamiltonRoute Route after iteration
+     * @param index         Index of inserted element in route
+     * @param totalDistance Route distance
+     * @return True if planning may continue
+     */
+    public boolean step(ArrayList<HamiltonBrewery> hamiltonRoute, int index, double totalDistance) {
+        iterations++;
+        if (listener != null) {
+            listener.onInsertion(RouteInsertion.of(hamiltonRoute, index, totalDistance, iterations));
+        }
+        return !isExhausted();
+    }
+
+    /**
+     * Same as step with insertion index for linked route. Index and converted route are computed
+     * only if listener asks for them
+     *
+     * @param route Route after iteration
+     * @param node  Node of inserted brewery
+     * @return True if planning may continue
+     */
+    public boolean step(LinkedRoute route, int node) {
+        iterations++;
+        if (listener != null) {
+            listener.onInsertion(RouteInsertion.of(route, node, iterations));
+        }
+        return !isExhausted();
+    }
+
+    /**
+     * Reports route which elements were reordered by local search, iteration is not counted
+     *
+     * @param hamiltonRoute Route after reordering
+     * @param totalDistance Route distance
+     */
+    public void reorder(ArrayList<HamiltonBrewery> hamiltonRoute, double totalDistance) {
+        if (listener != null) {
+            listener.onReorder(hamiltonRoute, totalDistance, iterations);
+        }
+    }
+
+    /**
+     * Exhausts budget, so planner stops at next iteration. May be called from any thread
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Tells if deadline has passed, iteration limit is reached or budget is cancelled
+     *
+     * @return True if planning has to stop
+     */
+    public boolean isExhausted() {
+        return cancelled || iterations >= maxIterations || isPast(deadlineNanos);
+    }
+
+    /**
+     * Deadline given time from now. Addition saturates at Long.MAX_VALUE, which means no deadline
+     *
+     * @param timeNanos Time in nanoseconds, Long.MAX_VALUE for no deadline
+     * @return Deadline for System.nanoTime
+     */
+    static long deadlineAfter(long timeNanos) {
+        long now = System.nanoTime();
+        return now > 0 && timeNanos > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + timeNanos;
+    }
+
+    /**
+     * Earlier of two deadlines, compared by difference as System.nanoTime values may overflow
+     *
+     * @return Earlier deadline, Long.MAX_VALUE if neither is set
+     */
+    static long earlier(long deadlineNanos, long otherDeadlineNanos) {
+        if (deadlineNanos == Long.MAX_VALUE) {
+            return otherDeadlineNanos;
+        }
+        if (otherDeadlineNanos == Long.MAX_VALUE) {
+            return deadlineNanos;
+        }
+        return deadlineNanos - otherDeadlineNanos < 0 ? deadlineNanos : otherDeadlineNanos;
+    }
+
+    /**
+     * @param deadlineNanos Deadline for System.nanoTime, Long.MAX_VALUE if there is none
+     * @return True if deadline has passed
+     */
+    static boolean isPast(long deadlineNanos) {
+        return deadlineNanos != Long.MAX_VALUE && System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    /**
+     * Deadline for System.nanoTime, Long.MAX_VALUE if there is none
+     *
+     * @return Deadline in nanoseconds
+     */
+    public long getDeadlineNanos() {
+        return deadlineNanos;
+    }
+
+    public long getIterations() {
+        return iterations;
+    }
+}
@@ -1,3 +1,5 @@
+package beerdb;
+
 import java.sql.ResultSet;
 
 /**
@@ -0,0 +1,218 @@
+package beerdb;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Bounded cache of planned routes in front of HamiltonInsertion.
+ * Cache key is the start point snapped to the nearest node of a grid with given spacing in degrees,
+ * so all requests around the same grid node with the same distance limit share one route. Route is planned
+ * from the start of the request which missed. Route returned from cache is moved to the requested start:
+ * its first and last edges are recalculated and breweries are removed until it fits into the distance limit.
+ * Least recently used route is evicted when cache is full. Cache is cleared when brewery index of
+ * HamiltonInsertion is replaced, or by invalidate.
+ */
+public class RouteCache {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final double DEFAULT_GRID_DEGREES = 0.01;
+
+    private final HamiltonInsertion hamiltonInsertion;
+    private final int capacity;
+    private final double gridDegrees;
+    private final LinkedHashMap<Key, ArrayList<HamiltonBrewery>> routes;
+    private BreweryIndex breweryIndex;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public RouteCache(HamiltonInsertion hamiltonInsertion) {
+        this(hamiltonInsertion, DEFAULT_CAPACITY, DEFAULT_GRID_DEGREES);
+    }
+
+    /**
+     * @param hamiltonInsertion Route builder
+     * @param capacity          Maximum number of cached routes
+     * @param gridDegrees       Grid cell size in degrees, 0 disables snapping
+     */
+    public RouteCache(HamiltonInsertion hamiltonInsertion, int capacity, double gridDegrees) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        if (gridDegrees < 0) {
+            throw new IllegalArgumentException("Grid size must not be negative: " + gridDegrees);
+        }
+        this.hamiltonInsertion = hamiltonInsertion;
+        this.capacity = capacity;
+        this.gridDegrees = gridDegrees;
+        this.breweryIndex = hamiltonInsertion.getBreweryIndex();
+        this.routes = new LinkedHashMap<Key, ArrayList<HamiltonBrewery>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, ArrayList<HamiltonBrewery>> eldest) {
+                if (size() > RouteCache.this.capacity) {
+                    evictions++;
+                    Metrics.getRegistry().counter("cache.evictions").increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns cached route of the grid node moved to the starting point or plans and caches a new one.
+     * Returned route is a copy, so caller may modify it
+     *
+     * @param latitude      latitude to start
+     * @param longitude     longitude to start
+     * @param distanceLimit distance limit from starting point
+     * @return Route which first and last elements are the starting point
+     */
+    public ArrayList<HamiltonBrewery> calculateHamiltonRoute(double latitude, double longitude, double distanceLimit) {
+        Key key = new Key(snap(latitude), snap(longitude), distanceLimit);
+        synchronized (this) {
+            invalidateIfIndexChanged();
+            ArrayList<HamiltonBrewery> route = routes.get(key);
+            if (route != null) {
+                hits++;
+                Metrics.getRegistry().counter("cache.hits").increment();
+                return moveRoute(route, latitude, longitude, distanceLimit);
+            }
+            misses++;
+            Metrics.getRegistry().counter("cache.misses").increment();
+        }
+
+        // planning takes long, so it runs without lock; concurrent misses of the same key plan it twice
+        BreweryIndex plannedIndex = hamiltonInsertion.getBreweryIndex();
+        ArrayList<HamiltonBrewery> route = hamiltonInsertion.calculateHamiltonRoute(latitude, longitude, distanceLimit);
+        synchronized (this) {
+            invalidateIfIndexChanged();
+            if (plannedIndex == breweryIndex) {
+                routes.put(key, copyRoute(route));
+            }
+        }
+        return route;
+    }
+
+    /**
+     * Removes all cached routes, must be called when brewery data changes outside of brewery index
+     */
+    public synchronized void invalidate() {
+        routes.clear();
+    }
+
+    public synchronized int size() {
+        return routes.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Share of requests answered from cache
+     *
+     * @return Hit ratio from 0 to 1, 0 if there were no requests
+     */
+    public synchronized double getHitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("routes=%d/%d hits=%d misses=%d evictions=%d hitRatio=%.3f",
+                routes.size(), capacity, hits, misses, evictions, getHitRatio());
+    }
+
+    /**
+     * Grid node nearest to given coordinate
+     */
+    private double snap(double coordinate) {
+        return gridDegrees == 0 ? coordinate : Math.round(coordinate / gridDegrees) * gridDegrees;
+    }
+
+    private void invalidateIfIndexChanged() {
+        BreweryIndex current = hamiltonInsertion.getBreweryIndex();
+        if (current != breweryIndex) {
+            routes.clear();
+            breweryIndex = current;
+        }
+    }
+
+    /**
+     * Copies cached route with starting point replaced by given one. Breweries which removal saves most
+     * distance are removed while route is longer than distance limit
+     */
+    private ArrayList<HamiltonBrewery> moveRoute(ArrayList<HamiltonBrewery> cached, double latitude, double longitude,
+                                                 double distanceLimit) {
+        ArrayList<HamiltonBrewery> route = hamiltonInsertion.initializeHamiltonRoute(latitude, longitude);
+        HamiltonBrewery last = route.remove(1);
+        for (int i = 1; i < cached.size() - 1; i++) {
+            route.add(cached.get(i).copy());
+        }
+        route.add(last);
+        link(route.get(0), route.get(1));
+        link(route.get(route.size() - 2), last);
+
+        double totalDistance = hamiltonInsertion.calculateRouteDistance(route);
+        while (totalDistance > distanceLimit && route.size() > 2) {
+            totalDistance -= hamiltonInsertion.removeMostExpensive(route);
+        }
+        return route;
+    }
+
+    private static void link(HamiltonBrewery left, HamiltonBrewery right) {
+        double distance = GeoDistance.distance(left.getLatitude(), left.getLongitude(),
+                right.getLatitude(), right.getLongitude());
+        left.setRightDistance(distance);
+        right.setLeftDistance(distance);
+    }
+
+    private static ArrayList<HamiltonBrewery> copyRoute(ArrayList<HamiltonBrewery> route) {
+        ArrayList<HamiltonBrewery> copy = new ArrayList<>(route.size() + 1);
+        for (HamiltonBrewery bw : route) {
+            copy.add(bw.copy());
+        }
+        return copy;
+    }
+
+    private static class Key {
+        private final double latitude;
+        private final double longitude;
+        private final double distanceLimit;
+
+        private Key(double latitude, double longitude, double distanceLimit) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.distanceLimit = distanceLimit;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return Double.compare(latitude, other.latitude) == 0
+                    && Double.compare(longitude, other.longitude) == 0
+                    && Double.compare(distanceLimit, other.distanceLimit) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(latitude, longitude, distanceLimit);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package beerdb;
+
+import java.util.ArrayList;
+
+/**
+ * One insertion reported to RouteProgressListener. Inserted element with distances to its neighbours and id
+ * of its left neighbour are known without walking the route, index of the element and the whole route
+ * are computed only when they are asked for,
+ * so listener which does not need them does not make planning iteration O(n).
+ * Valid only during the listener call, like the route itself
+ */
+public abstract class RouteInsertion {
+
+    private final double totalDistance;
+    private final long iterations;
+
+    private RouteInsertion(double totalDistance, long iterations) {
+        this.totalDistance = totalDistance;
+        this.iterations = iterations;
+    }
+
+    static RouteInsertion of(ArrayList<HamiltonBrewery> hamiltonRoute, int index, double totalDistance, long iterations) {
+        return new ListInsertion(hamiltonRoute, index, totalDistance, iterations);
+    }
+
+    static RouteInsertion of(LinkedRoute route, int node, long iterations) {
+        return new LinkedInsertion(route, node, iterations);
+    }
+
+    /**
+     * @return Inserted route element, its distances are distances to its neighbours
+     */
+    public abstract HamiltonBrewery getBrewery();
+
+    /**
+     * Id of route element after which brewery was inserted. Both starting points have the same id,
+     * but brewery is never inserted after the last element
+     *
+     * @return Brewery id of left neighbour
+     */
+    public abstract int getLeftId();
+
+    /**
+     * @return Index of inserted element in route
+     */
+    public abstract int getIndex();
+
+    /**
+     * @return Route so far, first and last elements are starting points
+     */
+    public abstract ArrayList<HamiltonBrewery> getRoute();
+
+    /**
+     * @return Distance of route so far
+     */
+    public double getTotalDistance() {
+        return totalDistance;
+    }
+
+    /**
+     * @return Iterations done so far
+     */
+    public long getIterations() {
+        return iterations;
+    }
+
+    private static class ListInsertion extends RouteInsertion {
+        private final ArrayList<HamiltonBrewery> hamiltonRoute;
+        private final int index;
+
+        private ListInsertion(ArrayList<HamiltonBrewery> hamiltonRoute, int index, double totalDistance, long iterations) {
+            super(totalDistance, iterations);
+            this.hamiltonRoute = hamiltonRoute;
+            this.index = index;
+        }
+
+        @Override
+        public HamiltonBrewery getBrewery() {
+            return hamiltonRoute.get(index);
+        }
+
+        @Override
+        public int getLeftId() {
+            return hamiltonRoute.get(index - 1).getId();
+        }
+
+        @Override
+        public int getIndex() {
+            return index;
+        }
+
+        @Override
+        public ArrayList<HamiltonBrewery> getRoute() {
+            return hamiltonRoute;
+        }
+    }
+
+    private static class LinkedInsertion extends RouteInsertion {
+        private final LinkedRoute route;
+        private final int node;
+        private int index = -1;
+        private ArrayList<HamiltonBrewery> hamiltonRoute;
+
+        private LinkedInsertion(LinkedRoute route, int node, long iterations) {
+            super(route.getTotalDistance(), iterations);
+            this.route = route;
+            this.node = node;
+        }
+
+        @Override
+        public HamiltonBrewery getBrewery() {
+            return route.getElement(node);
+        }
+
+        @Override
+        public int getLeftId() {
+            return route.getId(route.getPrev(node));
+        }
+
+        @Override
+        public int getIndex() {
+            if (index == -1) {
+                index = route.indexOf(node);
+            }
+            return index;
+        }
+
+        @Override
+        public ArrayList<HamiltonBrewery> getRoute() {
+            if (hamiltonRoute == null) {
+                hamiltonRoute = route.toHamiltonRoute();
+            }
+            return hamiltonRoute;
+        }
+    }
+}
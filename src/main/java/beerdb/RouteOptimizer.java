@@ -0,0 +1,317 @@
+package beerdb;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Local search improvement of hamilton route with 2-opt and Or-opt moves.
+ * First and last route elements stay in place, moves are tried only towards nearest neighbours of each element.
+ */
+public class RouteOptimizer {
+
+    public static final int DEFAULT_NEIGHBOUR_COUNT = 8;
+
+    /**
+     * Longest segment moved by Or-opt
+     */
+    private static final int MAX_SEGMENT_LENGTH = 3;
+
+    /**
+     * Moves must shorten route by more than this many kilometres, so rounding errors do not cause endless loop
+     */
+    private static final double MIN_GAIN = 1e-7;
+
+    private final int neighbourCount;
+
+    public RouteOptimizer() {
+        this(DEFAULT_NEIGHBOUR_COUNT);
+    }
+
+    /**
+     * @param neighbourCount Number of nearest route elements tried as new neighbours of each element
+     */
+    public RouteOptimizer(int neighbourCount) {
+        if (neighbourCount < 1) {
+            throw new IllegalArgumentException("Neighbour count must be positive: " + neighbourCount);
+        }
+        this.neighbourCount = neighbourCount;
+    }
+
+    /**
+     * Applies improving moves until none is left or deadline passes.
+     * Route is changed in place, left and right distances of its elements are recalculated
+     *
+     * @param hamiltonRoute  Route which first and last elements are starting points
+     * @param deadlineNanos  System.nanoTime() value when search must stop, Long.MAX_VALUE for none
+     * @return Distance saved, 0 if route was not changed
+     */
+    public double optimize(ArrayList<HamiltonBrewery> hamiltonRoute, long deadlineNanos) {
+        int size = hamiltonRoute.size();
+        if (size < 4) {
+            return 0.0;
+        }
+        Tour tour = new Tour(hamiltonRoute, deadlineNanos);
+        boolean changed = false;
+        boolean improved = true;
+        while (improved && !PlanningBudget.isPast(deadlineNanos)) {
+            improved = false;
+            for (int node = 0; node < size && !PlanningBudget.isPast(deadlineNanos); node++) {
+                if (tour.twoOpt(node) || tour.orOpt(node)) {
+                    improved = true;
+                    changed = true;
+                }
+            }
+        }
+        if (!changed) {
+            return 0.0;
+        }
+
+        double before = routeDistance(hamiltonRoute);
+        tour.writeTo(hamiltonRoute);
+        return before - routeDistance(hamiltonRoute);
+    }
+
+    private static double routeDistance(ArrayList<HamiltonBrewery> hamiltonRoute) {
+        double distance = 0.0;
+        for (int i = 0; i < hamiltonRoute.size() - 1; i++) {
+            distance += hamiltonRoute.get(i).getRightDistance();
+        }
+        return distance;
+    }
+
+    /**
+     * Route as array of node numbers with precomputed neighbour lists
+     */
+    private class Tour {
+        private final HamiltonBrewery[] nodes;
+        private final double[] latitudes;
+        private final double[] longitudes;
+        private final int[][] neighbours;
+        private int[] order;
+        private final int[] position;
+
+        private Tour(ArrayList<HamiltonBrewery> hamiltonRoute, long deadlineNanos) {
+            int size = hamiltonRoute.size();
+            nodes = hamiltonRoute.toArray(new HamiltonBrewery[size]);
+            latitudes = new double[size];
+            longitudes = new double[size];
+            order = new int[size];
+            position = new int[size];
+            for (int i = 0; i < size; i++) {
+                latitudes[i] = nodes[i].getLatitude();
+                longitudes[i] = nodes[i].getLongitude();
+                order[i] = i;
+                position[i] = i;
+            }
+            neighbours = nearest(Math.min(neighbourCount, size - 1), deadlineNanos);
+        }
+
+        /**
+         * Nearest neighbours of all nodes by squared chord between unit vectors, which orders nodes same as distance.
+         * Nodes are sorted once by coordinate of widest spread, and search around each node stops when that
+         * coordinate alone is farther than the farthest neighbour found. Nodes left when deadline passes
+         * get no neighbours, search ends right after anyway
+         */
+        private int[][] nearest(int count, long deadlineNanos) {
+            int size = nodes.length;
+            double[][] vectors = new double[3][size];
+            for (int i = 0; i < size; i++) {
+                double latitude = Math.toRadians(latitudes[i]);
+                double longitude = Math.toRadians(longitudes[i]);
+                vectors[0][i] = Math.cos(latitude) * Math.cos(longitude);
+                vectors[1][i] = Math.cos(latitude) * Math.sin(longitude);
+                vectors[2][i] = Math.sin(latitude);
+            }
+            int axis = 0;
+            double widest = -1.0;
+            for (int a = 0; a < 3; a++) {
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                for (int i = 0; i < size; i++) {
+                    min = Math.min(min, vectors[a][i]);
+                    max = Math.max(max, vectors[a][i]);
+                }
+                if (max - min > widest) {
+                    axis = a;
+                    widest = max - min;
+                }
+            }
+            double[] key = vectors[axis];
+            Integer[] boxed = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                boxed[i] = i;
+            }
+            Arrays.sort(boxed, (a, b) -> Double.compare(key[a], key[b]));
+            int[] sorted = new int[size];
+            for (int i = 0; i < size; i++) {
+                sorted[i] = boxed[i];
+            }
+
+            int[][] result = new int[size][];
+            int[] found = new int[count];
+            double[] foundChords = new double[count];
+            for (int s = 0; s < size; s++) {
+                int node = sorted[s];
+                if (PlanningBudget.isPast(deadlineNanos)) {
+                    result[node] = new int[0];
+                    continue;
+                }
+                int foundCount = 0;
+                int below = s - 1;
+                int above = s + 1;
+                while (below >= 0 || above < size) {
+                    double belowGap = below >= 0 ? key[node] - key[sorted[below]] : Double.POSITIVE_INFINITY;
+                    double aboveGap = above < size ? key[sorted[above]] - key[node] : Double.POSITIVE_INFINITY;
+                    double gap = Math.min(belowGap, aboveGap);
+                    if (foundCount == count && gap * gap >= foundChords[count - 1]) {
+                        break;
+                    }
+                    int other = belowGap <= aboveGap ? sorted[below--] : sorted[above++];
+                    double chord = chord(vectors, node, other);
+                    if (foundCount == count && chord >= foundChords[count - 1]) {
+                        continue;
+                    }
+                    int k = foundCount < count ? foundCount++ : count - 1;
+                    while (k > 0 && foundChords[k - 1] > chord) {
+                        found[k] = found[k - 1];
+                        foundChords[k] = foundChords[k - 1];
+                        k--;
+                    }
+                    found[k] = other;
+                    foundChords[k] = chord;
+                }
+                result[node] = Arrays.copyOf(found, foundCount);
+            }
+            return result;
+        }
+
+        private double chord(double[][] vectors, int a, int b) {
+            double dx = vectors[0][a] - vectors[0][b];
+            double dy = vectors[1][a] - vectors[1][b];
+            double dz = vectors[2][a] - vectors[2][b];
+            return dx * dx + dy * dy + dz * dz;
+        }
+
+        private double distance(int a, int b) {
+            return GeoDistance.distance(latitudes[a], longitudes[a], latitudes[b], longitudes[b]);
+        }
+
+        private double edge(int p) {
+            return distance(order[p], order[p + 1]);
+        }
+
+        /**
+         * Tries to replace edges (p, p+1) and (q, q+1) by (p, q) and (p+1, q+1), where node is at p and q is its neighbour
+         *
+         * @return True if move was applied
+         */
+        private boolean twoOpt(int node) {
+            int last = order.length - 1;
+            for (int neighbour : neighbours[node]) {
+                int p = Math.min(position[node], position[neighbour]);
+                int q = Math.max(position[node], position[neighbour]);
+                if (q - p < 2 || q >= last) {
+                    continue;
+                }
+                double gain = edge(p) + edge(q) - distance(order[p], order[q]) - distance(order[p + 1], order[q + 1]);
+                if (gain > MIN_GAIN) {
+                    reverse(p + 1, q);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Tries to move segment of 1 to MAX_SEGMENT_LENGTH elements starting at node next to one of neighbours
+         * of its first or last element, in same or reversed direction
+         *
+         * @return True if move was applied
+         */
+        private boolean orOpt(int node) {
+            int last = order.length - 1;
+            int from = position[node];
+            if (from == 0 || from == last) {
+                return false;
+            }
+            for (int length = 1; length <= MAX_SEGMENT_LENGTH && from + length - 1 < last; length++) {
+                int to = from + length - 1;
+                int first = order[from];
+                int end = order[to];
+                double removeGain = edge(from - 1) + edge(to)
+                        - distance(order[from - 1], order[to + 1]);
+                if (removeGain <= MIN_GAIN) {
+                    continue;
+                }
+                for (int endpoint = 0; endpoint < 2; endpoint++) {
+                    for (int neighbour : neighbours[endpoint == 0 ? first : end]) {
+                        for (int gap = position[neighbour] - 1; gap <= position[neighbour]; gap++) {
+                            if (gap < 0 || gap >= last || (gap >= from - 1 && gap <= to)) {
+                                continue;
+                            }
+                            int left = order[gap];
+                            int right = order[gap + 1];
+                            double edgeGain = distance(left, right);
+                            double forward = removeGain + edgeGain - distance(left, first) - distance(end, right);
+                            double reversed = removeGain + edgeGain - distance(left, end) - distance(first, right);
+                            if (forward > MIN_GAIN || reversed > MIN_GAIN) {
+                                move(from, to, gap, reversed > forward);
+                                return true;
+                            }
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+
+        private void reverse(int from, int to) {
+            while (from < to) {
+                int t = order[from];
+                order[from] = order[to];
+                order[to] = t;
+                position[order[from]] = from;
+                position[order[to]] = to;
+                from++;
+                to--;
+            }
+        }
+
+        /**
+         * Moves order[from..to] between positions gap and gap + 1
+         */
+        private void move(int from, int to, int gap, boolean reverse) {
+            int length = to - from + 1;
+            int[] segment = Arrays.copyOfRange(order, from, to + 1);
+            int[] result = new int[order.length];
+            int k = 0;
+            for (int p = 0; p < order.length; p++) {
+                if (p >= from && p <= to) {
+                    continue;
+                }
+                result[k++] = order[p];
+                if (p == gap) {
+                    for (int s = 0; s < length; s++) {
+                        result[k++] = segment[reverse ? length - 1 - s : s];
+                    }
+                }
+            }
+            order = result;
+            for (int p = 0; p < order.length; p++) {
+                position[order[p]] = p;
+            }
+        }
+
+        private void writeTo(ArrayList<HamiltonBrewery> hamiltonRoute) {
+            hamiltonRoute.clear();
+            for (int p = 0; p < order.length; p++) {
+                hamiltonRoute.add(nodes[order[p]]);
+            }
+            for (int p = 0; p < order.length - 1; p++) {
+                double distance = edge(p);
+                nodes[order[p]].setRightDistance(distance);
+                nodes[order[p + 1]].setLeftDistance(distance);
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package beerdb;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Builds routes with several insertion strategies in parallel and returns the best one.
+ * All tasks share one HamiltonInsertion, so its in-memory brewery index is loaded only once.
+ */
+public class RoutePlanner {
+
+    public static final int DEFAULT_RANDOM_STARTS = 8;
+
+    private final HamiltonInsertion hamiltonInsertion;
+    private final ForkJoinPool pool;
+    private int randomStarts = DEFAULT_RANDOM_STARTS;
+    private long seed;
+
+    public RoutePlanner(HamiltonInsertion hamiltonInsertion) {
+        this(hamiltonInsertion, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param hamiltonInsertion Route builder with loaded brewery index, shared by all tasks
+     * @param pool              Pool running route construction tasks
+     */
+    public RoutePlanner(HamiltonInsertion hamiltonInsertion, ForkJoinPool pool) {
+        this.hamiltonInsertion = hamiltonInsertion;
+        this.pool = pool;
+    }
+
+    /**
+     * Sets number of routes built with RANDOM strategy, each with different seed
+     *
+     * @param randomStarts
+     */
+    public void setRandomStarts(int randomStarts) {
+        this.randomStarts = randomStarts;
+    }
+
+    /**
+     * Sets seed of the first random start, next starts use seed + 1, seed + 2 and so on
+     *
+     * @param seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Builds routes with CHEAPEST, NEAREST and FARTHEST strategies and random starts in parallel
+     *
+     * @param latitude      latitude to start
+     * @param longitude     longitude to start
+     * @param distanceLimit distance limit from starting point
+     * @return Best route, see isBetter
+     */
+    public ArrayList<HamiltonBrewery> calculateBestRoute(double latitude, double longitude, double distanceLimit) {
+        return pool.invoke(new BestRouteTask(latitude, longitude, distanceLimit));
+    }
+
+    /**
+     * Route with more breweries is better, route with the same number of breweries is better if it is shorter
+     *
+     * @param route
+     * @param other
+     * @return True if route is better than other
+     */
+    public boolean isBetter(ArrayList<HamiltonBrewery> route, ArrayList<HamiltonBrewery> other) {
+        if (route.size() != other.size()) {
+            return route.size() > other.size();
+        }
+        return hamiltonInsertion.calculateRouteDistance(route) < hamiltonInsertion.calculateRouteDistance(other);
+    }
+
+    /**
+     * Forks one route task per strategy and random start and selects the best result
+     */
+    private class BestRouteTask extends RecursiveTask<ArrayList<HamiltonBrewery>> {
+        private static final long serialVersionUID = 1L;
+
+        private final double latitude;
+        private final double longitude;
+        private final double distanceLimit;
+
+        private BestRouteTask(double latitude, double longitude, double distanceLimit) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.distanceLimit = distanceLimit;
+        }
+
+        @Override
+        protected ArrayList<HamiltonBrewery> compute() {
+            List<RouteTask> tasks = new ArrayList<>();
+            tasks.add(new RouteTask(latitude, longitude, distanceLimit, InsertionStrategy.CHEAPEST, 0));
+            tasks.add(new RouteTask(latitude, longitude, distanceLimit, InsertionStrategy.NEAREST, 0));
+            tasks.add(new RouteTask(latitude, longitude, distanceLimit, InsertionStrategy.FARTHEST, 0));
+            for (int i = 0; i < randomStarts; i++) {
+                tasks.add(new RouteTask(latitude, longitude, distanceLimit, InsertionStrategy.RANDOM, seed + i));
+            }
+
+            ArrayList<HamiltonBrewery> best = null;
+            for (RouteTask task : invokeAll(tasks)) {
+                ArrayList<HamiltonBrewery> route = task.join();
+                if (best == null || isBetter(route, best)) {
+                    best = route;
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * Builds one route with given strategy
+     */
+    private class RouteTask extends RecursiveTask<ArrayList<HamiltonBrewery>> {
+        private static final long serialVersionUID = 1L;
+
+        private final double latitude;
+        private final double longitude;
+        private final double distanceLimit;
+        private final InsertionStrategy strategy;
+        private final long seed;
+
+        private RouteTask(double latitude, double longitude, double distanceLimit, InsertionStrategy strategy, long seed) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.distanceLimit = distanceLimit;
+            this.strategy = strategy;
+            this.seed = seed;
+        }
+
+        @Override
+        protected ArrayList<HamiltonBrewery> compute() {
+            return hamiltonInsertion.calculateHamiltonRoute(latitude, longitude, distanceLimit, strategy, seed);
+        }
+    }
+}
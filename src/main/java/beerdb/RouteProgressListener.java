@@ -0,0 +1,40 @@
+package beerdb;
+
+import java.util.ArrayList;
+
+/**
+ * Receives progress of route planning, see PlanningBudget
+ */
+public interface RouteProgressListener {
+
+    /**
+     * Called in planning thread after every insertion iteration. Route is valid, but it is changed
+     * by planner after the call returns, so it has to be copied if it is kept
+     *
+     * @param hamiltonRoute Route so far, first and last elements are starting points
+     * @param totalDistance Distance of route so far
+     * @param iterations    Iterations done so far
+     */
+    void onProgress(ArrayList<HamiltonBrewery> hamiltonRoute, double totalDistance, long iterations);
+
+    /**
+     * Called instead of onProgress when iteration inserted one element. Distances of its neighbours to it
+     * are already updated. Default implementation asks insertion for the whole route, which is O(n)
+     * for linked route, so listener called often should override it
+     *
+     * @param insertion Inserted element, its index and route so far
+     */
+    default void onInsertion(RouteInsertion insertion) {
+        onProgress(insertion.getRoute(), insertion.getTotalDistance(), insertion.getIterations());
+    }
+
+    /**
+     * Called when local search reordered route elements, so indexes of earlier insertions are not valid anymore
+     *
+     * @param hamiltonRoute Route so far, first and last elements are starting points
+     * @param totalDistance Distance of route so far
+     * @param iterations    Iterations done so far
+     */
+    default void onReorder(ArrayList<HamiltonBrewery> hamiltonRoute, double totalDistance, long iterations) {
+    }
+}
@@ -0,0 +1,118 @@
+package beerdb;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+
+/**
+ * Publishes route as it is built: every insertion of cheapest insertion is one INSERTED update, reordering by
+ * local search is one ROUTE update and the final route is COMPLETED update, after which stream completes.
+ * Publisher is cold: every subscriber gets its own planning run, started when it subscribes.
+ * Updates are never dropped, so subscriber which does not request more updates pauses planning
+ * when its buffer is full. Planning stops when subscriber cancels subscription
+ */
+public class RoutePublisher implements Flow.Publisher<RouteUpdate> {
+
+    private final HamiltonInsertion hamiltonInsertion;
+    private final double latitude;
+    private final double longitude;
+    private final double distanceLimit;
+    private final long timeBudgetMillis;
+    private final Executor executor;
+    private final int maxBufferCapacity;
+
+    /**
+     * Publisher without time budget. Planning and delivery run in common ForkJoin pool,
+     * or in new threads when the pool has single thread, same as in default SubmissionPublisher
+     *
+     * @param hamiltonInsertion Route builder
+     * @param latitude          latitude to start
+     * @param longitude         longitude to start
+     * @param distanceLimit     distance limit from starting point
+     */
+    public RoutePublisher(HamiltonInsertion hamiltonInsertion, double latitude, double longitude, double distanceLimit) {
+        this(hamiltonInsertion, latitude, longitude, distanceLimit, Long.MAX_VALUE,
+                ForkJoinPool.getCommonPoolParallelism() > 1 ? ForkJoinPool.commonPool() : runnable -> new Thread(runnable).start(),
+                Flow.defaultBufferSize());
+    }
+
+    /**
+     * @param hamiltonInsertion Route builder
+     * @param latitude          latitude to start
+     * @param longitude         longitude to start
+     * @param distanceLimit     distance limit from starting point
+     * @param timeBudgetMillis  Time budget of planning, Long.MAX_VALUE for no deadline
+     * @param executor          Executor running planning and delivering updates
+     * @param maxBufferCapacity Updates buffered for subscriber before planning waits
+     */
+    public RoutePublisher(HamiltonInsertion hamiltonInsertion, double latitude, double longitude, double distanceLimit,
+                          long timeBudgetMillis, Executor executor, int maxBufferCapacity) {
+        this.hamiltonInsertion = hamiltonInsertion;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.distanceLimit = distanceLimit;
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.executor = executor;
+        this.maxBufferCapacity = maxBufferCapacity;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super RouteUpdate> subscriber) {
+        SubmissionPublisher<RouteUpdate> publisher = new SubmissionPublisher<>(executor, maxBufferCapacity);
+        publisher.subscribe(subscriber);
+        executor.execute(() -> plan(publisher));
+    }
+
+    private void plan(SubmissionPublisher<RouteUpdate> publisher) {
+        Emitter emitter = new Emitter(publisher);
+        PlanningBudget budget = new PlanningBudget(timeBudgetMillis, Long.MAX_VALUE, emitter);
+        emitter.budget = budget;
+        try {
+            PlannedRoute plannedRoute = hamiltonInsertion.planRoute(latitude, longitude, distanceLimit,
+                    InsertionStrategy.CHEAPEST, 0, budget);
+            emitter.submit(RouteUpdate.route(RouteUpdate.Kind.COMPLETED, plannedRoute.getRoute(),
+                    plannedRoute.getTotalDistance(), budget.getIterations()));
+            publisher.close();
+        } catch (RuntimeException e) {
+            publisher.closeExceptionally(e);
+        }
+    }
+
+    /**
+     * Turns progress of one planning run into updates of its publisher
+     */
+    private static class Emitter implements RouteProgressListener {
+        private final SubmissionPublisher<RouteUpdate> publisher;
+        private PlanningBudget budget;
+
+        private Emitter(SubmissionPublisher<RouteUpdate> publisher) {
+            this.publisher = publisher;
+        }
+
+        @Override
+        public void onProgress(ArrayList<HamiltonBrewery> hamiltonRoute, double totalDistance, long iterations) {
+            submit(RouteUpdate.route(RouteUpdate.Kind.ROUTE, hamiltonRoute, totalDistance, iterations));
+        }
+
+        @Override
+        public void onInsertion(RouteInsertion insertion) {
+            submit(RouteUpdate.inserted(insertion));
+        }
+
+        @Override
+        public void onReorder(ArrayList<HamiltonBrewery> hamiltonRoute, double totalDistance, long iterations) {
+            submit(RouteUpdate.route(RouteUpdate.Kind.ROUTE, hamiltonRoute, totalDistance, iterations));
+        }
+
+        private void submit(RouteUpdate update) {
+            // subscriber is removed from publisher when it cancels
+            if (publisher.getNumberOfSubscribers() == 0) {
+                budget.cancel();
+                return;
+            }
+            publisher.submit(update);
+        }
+    }
+}
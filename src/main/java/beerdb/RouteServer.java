@@ -0,0 +1,349 @@
+package beerdb;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Embedded HTTP service planning routes with one shared HamiltonInsertion.
+ * Every exchange is handled on its own virtual thread when JDK supports them.
+ * Identical requests that arrive while the route is being planned wait for the same planning run.
+ * At most maxConcurrentPlans routes are planned at once and at most maxQueuedPlans wait for their turn,
+ * further requests are rejected with 503 and Retry-After header.
+ * <p>
+ * GET /route?lat=51.74&amp;lon=19.43&amp;limit=2000 returns route breweries and distance,
+ * GET /beers with the same parameters returns distinct beers of that route.
+ */
+public class RouteServer implements AutoCloseable {
+
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_MAX_QUEUED_PLANS = 64;
+    public static final int RETRY_AFTER_SECONDS = 1;
+
+    /**
+     * Largest accepted distance limit, length of the equator
+     */
+    public static final double MAX_DISTANCE_LIMIT = 2 * Math.PI * GeoDistance.KM_PER_RADIAN;
+
+    private final HamiltonInsertion hamiltonInsertion;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Semaphore runningPlans;
+    private final Semaphore admittedPlans;
+    private final ConcurrentHashMap<BatchPlanner.Request, CompletableFuture<ArrayList<HamiltonBrewery>>> inFlight =
+            new ConcurrentHashMap<>();
+
+    /**
+     * @param hamiltonInsertion  Route builder with loaded brewery index
+     * @param address            Address to listen on, port 0 selects free port
+     * @param maxConcurrentPlans Routes planned at the same time
+     * @param maxQueuedPlans     Routes waiting for planning, requests above are rejected
+     * @throws IOException if server can not be bound
+     */
+    public RouteServer(HamiltonInsertion hamiltonInsertion, InetSocketAddress address, int maxConcurrentPlans,
+                       int maxQueuedPlans) throws IOException {
+        this.hamiltonInsertion = hamiltonInsertion;
+        this.runningPlans = new Semaphore(maxConcurrentPlans);
+        this.admittedPlans = new Semaphore(maxConcurrentPlans + maxQueuedPlans);
+        this.executor = newExchangeExecutor();
+        this.server = HttpServer.create(address, 0);
+        server.setExecutor(executor);
+        server.createContext("/route", exchange -> handle(exchange, false));
+        server.createContext("/beers", exchange -> handle(exchange, true));
+    }
+
+    /**
+     * Serves routes of snapshot file
+     *
+     * @param args Snapshot file created by BrewerySnapshot and optional port
+     * @throws IOException if snapshot can not be read or port can not be bound
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: RouteServer <snapshot> [port]");
+            return;
+        }
+        HamiltonInsertion hi = new HamiltonInsertion(BrewerySnapshot.open(Paths.get(args[0])), MAX_DISTANCE_LIMIT);
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+        RouteServer server = new RouteServer(hi, new InetSocketAddress(port),
+                Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_QUEUED_PLANS);
+        server.start();
+        System.out.println("Listening on port " + server.getPort());
+    }
+
+    /**
+     * Virtual thread per exchange or, before JDK 21, cached pool of platform threads. Pool size is not fixed,
+     * since exchanges block while waiting for coalesced or queued plans; planning itself is bounded by semaphores
+     */
+    private static ExecutorService newExchangeExecutor() {
+        ExecutorService executor = BatchPlanner.newVirtualThreadExecutor();
+        if (executor != null) {
+            return executor;
+        }
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "route-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops server and its executor, exchanges in progress are interrupted
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Plans route or joins planning of identical request which is already running
+     *
+     * @param request
+     * @return Planned route, shared by all coalesced callers, so it must not be modified
+     * @throws RejectedExecutionException if planning queue is full
+     * @throws InterruptedException       if thread was interrupted while waiting for route
+     * @throws ExecutionException         if planning failed
+     */
+    public ArrayList<HamiltonBrewery> plan(BatchPlanner.Request request)
+            throws InterruptedException, ExecutionException {
+        CompletableFuture<ArrayList<HamiltonBrewery>> created = new CompletableFuture<>();
+        CompletableFuture<ArrayList<HamiltonBrewery>> running = inFlight.putIfAbsent(request, created);
+        if (running != null) {
+            Metrics.getRegistry().counter("server.coalesced").increment();
+            return getRoute(running);
+        }
+
+        try {
+            if (!admittedPlans.tryAcquire()) {
+                Metrics.getRegistry().counter("server.rejected").increment();
+                throw new RejectedExecutionException("Planning queue is full");
+            }
+            try {
+                runningPlans.acquire();
+                try {
+                    created.complete(hamiltonInsertion.calculateHamiltonRoute(request.getLatitude(),
+                            request.getLongitude(), request.getDistanceLimit()));
+                } finally {
+                    runningPlans.release();
+                }
+            } finally {
+                admittedPlans.release();
+            }
+        } catch (RuntimeException | InterruptedException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(request, created);
+        }
+        return getRoute(created);
+    }
+
+    private ArrayList<HamiltonBrewery> getRoute(CompletableFuture<ArrayList<HamiltonBrewery>> future)
+            throws InterruptedException, ExecutionException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                throw (RejectedExecutionException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private void handle(HttpExchange exchange, boolean beers) throws IOException {
+        Metrics.getRegistry().counter("server.requests").increment();
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                send(exchange, 405, error("Only GET is supported"));
+                return;
+            }
+            BatchPlanner.Request request;
+            try {
+                request = parseRequest(exchange.getRequestURI().getRawQuery());
+            } catch (IllegalArgumentException e) {
+                send(exchange, 400, error(e.getMessage()));
+                return;
+            }
+
+            ArrayList<HamiltonBrewery> route = plan(request);
+            send(exchange, 200, beers
+                    ? toBeersJson(route, hamiltonInsertion.calculateDistinctBeerKinds(route))
+                    : toRouteJson(request, route, hamiltonInsertion.calculateRouteDistance(route)));
+        } catch (RejectedExecutionException e) {
+            exchange.getResponseHeaders().set("Retry-After", String.valueOf(RETRY_AFTER_SECONDS));
+            send(exchange, 503, error(e.getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            send(exchange, 503, error("Server is stopping"));
+        } catch (ExecutionException | RuntimeException e) {
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            cause.printStackTrace();
+            send(exchange, 500, error(String.valueOf(cause)));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Reads lat, lon and limit from URL query
+     *
+     * @param query Raw query of request URI
+     * @return Journey request
+     * @throws IllegalArgumentException if parameter is missing or is not a number
+     */
+    private BatchPlanner.Request parseRequest(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int separator = pair.indexOf('=');
+                if (separator > 0) {
+                    parameters.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                            URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        double latitude = getParameter(parameters, "lat", -90, 90);
+        double longitude = getParameter(parameters, "lon", -180, 180);
+        double distanceLimit = getParameter(parameters, "limit", 0, MAX_DISTANCE_LIMIT);
+        return new BatchPlanner.Request(latitude, longitude, distanceLimit);
+    }
+
+    private double getParameter(Map<String, String> parameters, String name, double min, double max) {
+        String value = parameters.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing parameter " + name);
+        }
+        double number;
+        try {
+            number = Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parameter " + name + " is not a number: " + value);
+        }
+        if (!(number >= min && number <= max)) {
+            throw new IllegalArgumentException("Parameter " + name + " must be between " + min + " and " + max);
+        }
+        return number;
+    }
+
+    private void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private String toRouteJson(BatchPlanner.Request request, ArrayList<HamiltonBrewery> route, double routeDistance) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"latitude\":").append(request.getLatitude())
+                .append(",\"longitude\":").append(request.getLongitude())
+                .append(",\"distanceLimit\":").append(request.getDistanceLimit())
+                .append(",\"distance\":").append(routeDistance)
+                .append(",\"breweries\":[");
+        for (int i = 1; i < route.size() - 1; i++) {
+            HamiltonBrewery bw = route.get(i);
+            if (i > 1) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(bw.getId()).append(",\"name\":");
+            appendString(json, bw.getName());
+            json.append(",\"city\":");
+            appendString(json, (String) bw.getCity());
+            json.append(",\"latitude\":").append(bw.getLatitude())
+                    .append(",\"longitude\":").append(bw.getLongitude())
+                    .append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    private String toBeersJson(ArrayList<HamiltonBrewery> route, ArrayList<Beer> beers) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"breweryCount\":").append(route.size() - 2).append(",\"beers\":[");
+        for (int i = 0; i < beers.size(); i++) {
+            Beer beer = beers.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"name\":");
+            appendString(json, beer.getName());
+            json.append(",\"brewery\":");
+            appendString(json, beer.getBreweryName());
+            json.append(",\"category\":");
+            appendString(json, beer.getCategory());
+            json.append(",\"style\":");
+            appendString(json, beer.getStyle());
+            json.append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    private String error(String message) {
+        StringBuilder json = new StringBuilder("{\"error\":");
+        appendString(json, message);
+        return json.append('}').toString();
+    }
+
+    /**
+     * Appends JSON string literal or null
+     */
+    private static void appendString(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+}
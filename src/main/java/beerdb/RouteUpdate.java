@@ -0,0 +1,103 @@
+package beerdb;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One item of route stream, see RoutePublisher. Insertion update carries only the inserted element and id
+ * of its left neighbour, so neither publisher nor subscriber keyed by brewery id has to walk the route.
+ * Route update carries copy of the whole route which replaces everything received before it
+ */
+public class RouteUpdate {
+
+    public enum Kind {
+        /**
+         * Brewery was inserted right after route element with left id. Both starting points have the same id,
+         * but brewery is never inserted after the last element
+         */
+        INSERTED,
+        /**
+         * Route was reordered or changed in other way than single insertion
+         */
+        ROUTE,
+        /**
+         * Planning finished, route is final
+         */
+        COMPLETED
+    }
+
+    private final Kind kind;
+    private final int leftId;
+    private final HamiltonBrewery brewery;
+    private final List<HamiltonBrewery> route;
+    private final double totalDistance;
+    private final long iterations;
+
+    private RouteUpdate(Kind kind, int leftId, HamiltonBrewery brewery, List<HamiltonBrewery> route,
+                        double totalDistance, long iterations) {
+        this.kind = kind;
+        this.leftId = leftId;
+        this.brewery = brewery;
+        this.route = route;
+        this.totalDistance = totalDistance;
+        this.iterations = iterations;
+    }
+
+    static RouteUpdate inserted(RouteInsertion insertion) {
+        return new RouteUpdate(Kind.INSERTED, insertion.getLeftId(), insertion.getBrewery().copy(), null,
+                insertion.getTotalDistance(), insertion.getIterations());
+    }
+
+    static RouteUpdate route(Kind kind, ArrayList<HamiltonBrewery> hamiltonRoute, double totalDistance, long iterations) {
+        List<HamiltonBrewery> route = new ArrayList<>(hamiltonRoute.size());
+        for (HamiltonBrewery bw : hamiltonRoute) {
+            route.add(bw.copy());
+        }
+        return new RouteUpdate(kind, -1, null, Collections.unmodifiableList(route), totalDistance, iterations);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return Brewery id of route element after which brewery was inserted, -1 if update is not an insertion
+     */
+    public int getLeftId() {
+        return leftId;
+    }
+
+    /**
+     * Inserted brewery with distances to its neighbours, which are the new right distance of the left neighbour
+     * and the new left distance of the right neighbour
+     *
+     * @return Inserted brewery or null, if update is not an insertion
+     */
+    public HamiltonBrewery getBrewery() {
+        return brewery;
+    }
+
+    /**
+     * @return Whole route which first and last elements are starting points, null for insertion update
+     */
+    public List<HamiltonBrewery> getRoute() {
+        return route;
+    }
+
+    public double getTotalDistance() {
+        return totalDistance;
+    }
+
+    public long getIterations() {
+        return iterations;
+    }
+
+    @Override
+    public String toString() {
+        if (kind == Kind.INSERTED) {
+            return String.format("inserted %s after %d, total distance %.3f", brewery.getName(), leftId, totalDistance);
+        }
+        return String.format("%s route of %d elements, total distance %.3f", kind, route.size(), totalDistance);
+    }
+}
@@ -0,0 +1,620 @@
+package beerdb;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Cluster-first, route-second planning of routes with large distance limit.
+ * Reachable breweries are split into geohash tiles of at most maxTileSize breweries, tiles with the lowest
+ * cost per brewery are inserted into a tour over tile centroids until it reaches distance limit, tours of
+ * the selected tiles only are built with cheapest insertion in parallel and stitched in that order, and
+ * breweries which removal saves most distance are removed until route fits into distance limit.
+ * Every call filters geohash order of the whole store, selection grows with tile count times selected tile
+ * count and every tour with square of tile size. Cost of HamiltonInsertion grows with route length instead,
+ * so this planner pays off for limits which let route visit hundreds of breweries, see PlannerBenchmark
+ */
+public class TiledRoutePlanner {
+
+    public static final int DEFAULT_MAX_TILE_SIZE = 64;
+
+    private final HamiltonInsertion hamiltonInsertion;
+    private final ForkJoinPool pool;
+    private int maxTileSize = DEFAULT_MAX_TILE_SIZE;
+    private volatile GeohashOrder geohashOrder;
+
+    public TiledRoutePlanner(HamiltonInsertion hamiltonInsertion) {
+        this(hamiltonInsertion, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param hamiltonInsertion Route builder with loaded brewery index
+     * @param pool              Pool running tile tasks
+     */
+    public TiledRoutePlanner(HamiltonInsertion hamiltonInsertion, ForkJoinPool pool) {
+        this.hamiltonInsertion = hamiltonInsertion;
+        this.pool = pool;
+    }
+
+    /**
+     * Sets maximal number of breweries in one tile, tiles are split by next geohash bit until they fit
+     *
+     * @param maxTileSize
+     */
+    public void setMaxTileSize(int maxTileSize) {
+        if (maxTileSize <= 0) {
+            throw new IllegalArgumentException("Tile size must be positive: " + maxTileSize);
+        }
+        this.maxTileSize = maxTileSize;
+    }
+
+    /**
+     * Produces Hamilton route over geohash tiles
+     *
+     * @param latitude      latitude to start
+     * @param longitude     longitude to start
+     * @param distanceLimit distance limit from starting point
+     * @return Collection with visited points which first and last elements are starting points
+     * @throws IllegalStateException if brewery index of HamiltonInsertion is not loaded
+     */
+    public ArrayList<HamiltonBrewery> calculateHamiltonRoute(double latitude, double longitude, double distanceLimit) {
+        BreweryIndex breweryIndex = hamiltonInsertion.getBreweryIndex();
+        if (breweryIndex == null) {
+            throw new IllegalStateException("Brewery index is not loaded");
+        }
+        long start = System.nanoTime();
+        BreweryStore store = breweryIndex.getStore();
+        // brewery farther than half of the limit can not be visited and returned from
+        int[] positions = breweryIndex.findPositionsWithinRadius(latitude, longitude, distanceLimit / 2);
+        // brewery with several geocodes is visited once
+        BitSet slots = new BitSet(store.getSlotCount());
+        BitSet reachable = new BitSet(store.size());
+        for (int position : positions) {
+            int slot = store.getSlot(position);
+            if (!slots.get(slot)) {
+                slots.set(slot);
+                reachable.set(position);
+            }
+        }
+        List<int[]> tiles = partition(getGeohashOrder(store), reachable);
+
+        int[] order = selectTiles(store, tiles, latitude, longitude, distanceLimit);
+        List<int[]> selectedTiles = new ArrayList<>(order.length);
+        for (int tile : order) {
+            selectedTiles.add(tiles.get(tile));
+        }
+        List<int[]> tours = pool.invoke(new TilesTask(store, selectedTiles));
+        int[] sequence = stitch(store, tours, latitude, longitude);
+        ArrayList<HamiltonBrewery> hamiltonRoute = trim(store, sequence, latitude, longitude, distanceLimit);
+
+        MetricsRegistry metrics = Metrics.getRegistry();
+        metrics.histogram("planner.tiled").record(System.nanoTime() - start);
+        metrics.counter("planner.tiles").add(tiles.size());
+        metrics.counter("planner.tiles.toured").add(order.length);
+        return hamiltonRoute;
+    }
+
+    private GeohashOrder getGeohashOrder(BreweryStore store) {
+        GeohashOrder order = geohashOrder;
+        if (order == null || order.store != store) {
+            order = new GeohashOrder(store);
+            geohashOrder = order;
+        }
+        return order;
+    }
+
+    /**
+     * Takes reachable positions in geohash order and splits them by hash bits, so every tile has at most
+     * maxTileSize breweries
+     *
+     * @return Store positions of tiles in Z-order
+     */
+    private List<int[]> partition(GeohashOrder order, BitSet reachable) {
+        int count = reachable.cardinality();
+        int[] positions = new int[count];
+        long[] hashes = new long[count];
+        for (int i = 0, k = 0; k < count; i++) {
+            if (reachable.get(order.positions[i])) {
+                positions[k] = order.positions[i];
+                hashes[k++] = order.hashes[i];
+            }
+        }
+
+        List<int[]> tiles = new ArrayList<>();
+        if (count > 0) {
+            split(positions, hashes, 0, count, 0, order.hashBits, tiles);
+        }
+        return tiles;
+    }
+
+    private void split(int[] positions, long[] hashes, int from, int to, int bit, int hashBits, List<int[]> tiles) {
+        if (to - from <= maxTileSize || bit == hashBits) {
+            tiles.add(Arrays.copyOfRange(positions, from, to));
+            return;
+        }
+        // hashes in range share first bit bits, so the ones with next bit cleared come first
+        long mask = 1L << (hashBits - 1 - bit);
+        int middle = from;
+        while (middle < to && (hashes[middle] & mask) == 0) {
+            middle++;
+        }
+        if (middle > from) {
+            split(positions, hashes, from, middle, bit + 1, hashBits, tiles);
+        }
+        if (middle < to) {
+            split(positions, hashes, middle, to, bit + 1, hashBits, tiles);
+        }
+    }
+
+    /**
+     * Selects and orders tiles by insertion of tile centroids into a tour from starting point.
+     * Tile with the lowest insertion cost plus estimated tile tour length per brewery is inserted next,
+     * until estimated route length reaches distance limit. Only tiles which insertion cost fits into
+     * remaining distance are inserted. Tile tours are not built yet, so their length is estimated from
+     * bounding box of the tile
+     *
+     * @return Tile indexes in visiting order
+     */
+    private int[] selectTiles(BreweryStore store, List<int[]> tiles, double latitude, double longitude,
+                              double distanceLimit) {
+        int count = tiles.size();
+        double[] latitudes = new double[count + 1];
+        double[] longitudes = new double[count + 1];
+        double[] tourLengths = new double[count + 1];
+        latitudes[count] = latitude;
+        longitudes[count] = longitude;
+        for (int t = 0; t < count; t++) {
+            int[] tile = tiles.get(t);
+            double minLatitude = Double.MAX_VALUE;
+            double maxLatitude = -Double.MAX_VALUE;
+            double minLongitude = Double.MAX_VALUE;
+            double maxLongitude = -Double.MAX_VALUE;
+            for (int position : tile) {
+                double lat = store.getLatitude(position);
+                double lon = store.getLongitude(position);
+                latitudes[t] += lat;
+                longitudes[t] += lon;
+                minLatitude = Math.min(minLatitude, lat);
+                maxLatitude = Math.max(maxLatitude, lat);
+                minLongitude = Math.min(minLongitude, lon);
+                maxLongitude = Math.max(maxLongitude, lon);
+            }
+            latitudes[t] /= tile.length;
+            longitudes[t] /= tile.length;
+            tourLengths[t] = estimateTourLength(tile.length, (maxLatitude - minLatitude) * GeoDistance.KM_PER_DEGREE,
+                    (maxLongitude - minLongitude) * GeoDistance.KM_PER_DEGREE * Math.cos(Math.toRadians(latitudes[t])));
+        }
+
+        // point count is starting point
+        int[] sizes = new int[count + 1];
+        for (int t = 0; t < count; t++) {
+            sizes[t] = tiles.get(t).length;
+        }
+        sizes[count] = 1;
+        InsertionTour tour = new InsertionTour(latitudes, longitudes, count, tourLengths, sizes);
+        double estimate = 0.0;
+        int selectedCount = 0;
+        while (estimate < distanceLimit) {
+            // trim can drop part of the last tile, but not a detour to it
+            int tile = tour.insertNext(distanceLimit - estimate);
+            if (tile < 0) {
+                break;
+            }
+            estimate += tour.getInsertionCost(tile);
+            selectedCount++;
+        }
+
+        int[] next = tour.getNext();
+        int[] order = new int[selectedCount];
+        for (int t = next[count], i = 0; t != count; t = next[t]) {
+            order[i++] = t;
+        }
+        return order;
+    }
+
+    /**
+     * Estimates length of closed tour over points spread in rectangle, by Beardwood-Halton-Hammersley constant
+     * for uniform points, but not shorter than going across the rectangle and back
+     *
+     * @param points Number of points
+     * @param height Height of rectangle in km
+     * @param width  Width of rectangle in km
+     * @return Tour length in km
+     */
+    private static double estimateTourLength(int points, double height, double width) {
+        return Math.max(0.7124 * Math.sqrt(points * height * width), 2 * Math.max(height, width));
+    }
+
+    /**
+     * Joins tile tours given in visiting order into one sequence. Tour of every tile is entered at brewery
+     * closest to previous exit and walked in direction which exit is closer to the next tile
+     *
+     * @return Store positions in visiting order
+     */
+    private int[] stitch(BreweryStore store, List<int[]> tours, double latitude, double longitude) {
+        int[] sequence = new int[tours.stream().mapToInt(tour -> tour.length).sum()];
+        int length = 0;
+        double previousLatitude = latitude;
+        double previousLongitude = longitude;
+        for (int i = 0; i < tours.size(); i++) {
+            int[] tour = tours.get(i);
+            int entry = 0;
+            double entryDistance = Double.MAX_VALUE;
+            for (int k = 0; k < tour.length; k++) {
+                double distance = distance(store, tour[k], previousLatitude, previousLongitude);
+                if (distance < entryDistance) {
+                    entry = k;
+                    entryDistance = distance;
+                }
+            }
+
+            double nextLatitude = latitude;
+            double nextLongitude = longitude;
+            if (i + 1 < tours.size()) {
+                int[] nextTour = tours.get(i + 1);
+                nextLatitude = store.getLatitude(nextTour[0]);
+                nextLongitude = store.getLongitude(nextTour[0]);
+            }
+            int forwardExit = tour[(entry + tour.length - 1) % tour.length];
+            int backwardExit = tour[(entry + 1) % tour.length];
+            int step = distance(store, forwardExit, nextLatitude, nextLongitude)
+                    <= distance(store, backwardExit, nextLatitude, nextLongitude) ? 1 : tour.length - 1;
+
+            for (int k = 0, idx = entry; k < tour.length; k++, idx = (idx + step) % tour.length) {
+                sequence[length++] = tour[idx];
+            }
+            previousLatitude = store.getLatitude(sequence[length - 1]);
+            previousLongitude = store.getLongitude(sequence[length - 1]);
+        }
+        return sequence;
+    }
+
+    /**
+     * Removes breweries which removal saves most distance until route fits into distance limit.
+     * Savings are kept in priority queue and recalculated only for neighbours of removed brewery
+     *
+     * @return Route which first and last elements are starting points
+     */
+    private ArrayList<HamiltonBrewery> trim(BreweryStore store, int[] sequence, double latitude, double longitude,
+                                            double distanceLimit) {
+        // node 0 and node n + 1 are starting point, node i is sequence[i - 1]
+        int n = sequence.length;
+        double[] latitudes = new double[n + 2];
+        double[] longitudes = new double[n + 2];
+        int[] prev = new int[n + 2];
+        int[] next = new int[n + 2];
+        double[] rightDistances = new double[n + 2];
+        int[] versions = new int[n + 2];
+        latitudes[0] = latitudes[n + 1] = latitude;
+        longitudes[0] = longitudes[n + 1] = longitude;
+        for (int i = 1; i <= n; i++) {
+            latitudes[i] = store.getLatitude(sequence[i - 1]);
+            longitudes[i] = store.getLongitude(sequence[i - 1]);
+        }
+        double totalDistance = 0.0;
+        for (int i = 0; i <= n; i++) {
+            next[i] = i + 1;
+            prev[i + 1] = i;
+            rightDistances[i] = GeoDistance.distance(latitudes[i], longitudes[i], latitudes[i + 1], longitudes[i + 1]);
+            totalDistance += rightDistances[i];
+        }
+
+        PriorityQueue<double[]> savings = new PriorityQueue<>(Math.max(1, n), (a, b) -> Double.compare(b[0], a[0]));
+        for (int i = 1; i <= n && totalDistance > distanceLimit; i++) {
+            savings.add(saving(i, prev, next, latitudes, longitudes, rightDistances, versions));
+        }
+        while (totalDistance > distanceLimit && !savings.isEmpty()) {
+            double[] saving = savings.poll();
+            int node = (int) saving[1];
+            if (versions[node] != (int) saving[2]) {
+                continue;
+            }
+            int left = prev[node];
+            int right = next[node];
+            next[left] = right;
+            prev[right] = left;
+            rightDistances[left] = saving[3];
+            totalDistance -= saving[0];
+            versions[node] = -1;
+            for (int neighbour : new int[]{left, right}) {
+                if (neighbour != 0 && neighbour != n + 1) {
+                    versions[neighbour]++;
+                    savings.add(saving(neighbour, prev, next, latitudes, longitudes, rightDistances, versions));
+                }
+            }
+        }
+
+        ArrayList<HamiltonBrewery> hamiltonRoute = hamiltonInsertion.initializeHamiltonRoute(latitude, longitude);
+        int idx = 1;
+        for (int node = next[0]; node != n + 1; node = next[node]) {
+            hamiltonRoute.add(idx++, store.toHamiltonBrewery(sequence[node - 1], rightDistances[prev[node]], rightDistances[node]));
+        }
+        hamiltonRoute.get(0).setRightDistance(rightDistances[0]);
+        hamiltonRoute.get(idx).setLeftDistance(rightDistances[prev[n + 1]]);
+        return hamiltonRoute;
+    }
+
+    /**
+     * @return {saving, node, version, bridge distance}
+     */
+    private static double[] saving(int node, int[] prev, int[] next, double[] latitudes, double[] longitudes,
+                                   double[] rightDistances, int[] versions) {
+        int left = prev[node];
+        int right = next[node];
+        double bridge = GeoDistance.distance(latitudes[left], longitudes[left], latitudes[right], longitudes[right]);
+        return new double[]{rightDistances[left] + rightDistances[node] - bridge, node, versions[node], bridge};
+    }
+
+    /**
+     * Builds closed tour over points with cheapest insertion, starting from the last point
+     *
+     * @return Successor of every point
+     */
+    private static int[] cheapestInsertionTour(double[] latitudes, double[] longitudes, int first) {
+        int[] weights = new int[latitudes.length];
+        Arrays.fill(weights, 1);
+        InsertionTour tour = new InsertionTour(latitudes, longitudes, first, new double[latitudes.length], weights);
+        for (int round = 1; round < latitudes.length; round++) {
+            tour.insertNext(Double.MAX_VALUE);
+        }
+        return tour.getNext();
+    }
+
+    private static double distance(BreweryStore store, int position, double latitude, double longitude) {
+        return GeoDistance.distance(store.getLatitude(position), store.getLongitude(position), latitude, longitude);
+    }
+
+    /**
+     * All positions of brewery store sorted by geohash, computed once per store, so planning only filters them.
+     * Hash prefix and position are packed into one long key, so sort does not box positions
+     */
+    private static final class GeohashOrder {
+        private final BreweryStore store;
+        private final int[] positions;
+        // hash prefix of hashBits bits of every position
+        private final long[] hashes;
+        private final int hashBits;
+
+        private GeohashOrder(BreweryStore store) {
+            int size = store.size();
+            int positionBits = 32 - Integer.numberOfLeadingZeros(size);
+            this.store = store;
+            hashBits = Math.min(Geohash.MAX_BITS, Long.SIZE - 1 - positionBits);
+            long[] keys = new long[size];
+            for (int position = 0; position < size; position++) {
+                long hash = Geohash.encode(store.getLatitude(position), store.getLongitude(position));
+                keys[position] = hash >>> (Geohash.MAX_BITS - hashBits) << positionBits | position;
+            }
+            Arrays.sort(keys);
+            positions = new int[size];
+            hashes = new long[size];
+            for (int i = 0; i < size; i++) {
+                positions[i] = (int) (keys[i] & ((1L << positionBits) - 1));
+                hashes[i] = keys[i] >>> positionBits;
+            }
+        }
+    }
+
+    /**
+     * Closed tour built by cheapest insertion. Like GapCandidateQueue keeps best candidate of every gap, the tour
+     * keeps best gap of every point and lower bound of its insertion cost into any other gap. Insertion checks
+     * only the two new gaps for every point, and point which best gap was split searches all gaps again only
+     * when both new gaps are above that bound. Candidate score is insertion cost plus extra cost of the point
+     * divided by its weight. Distances are chord distances between unit vectors, computed once per point
+     */
+    private static final class InsertionTour {
+        private final double[][] vectors;
+        private final double[] extraCosts;
+        private final int[] weights;
+        private final int first;
+        private final int[] next;
+        private final boolean[] inserted;
+        // length of gap starting at inserted point
+        private final double[] gapLengths;
+        private final int[] bestLefts;
+        private final double[] bestCosts;
+        private final double[] otherCosts;
+        private final double[] insertionCosts;
+
+        /**
+         * @param first      Point which tour starts from
+         * @param extraCosts Cost added to insertion cost of every point
+         * @param weights    Positive weight of every point
+         */
+        private InsertionTour(double[] latitudes, double[] longitudes, int first, double[] extraCosts, int[] weights) {
+            int count = latitudes.length;
+            this.extraCosts = extraCosts;
+            this.weights = weights;
+            this.first = first;
+            vectors = new double[count][];
+            next = new int[count];
+            inserted = new boolean[count];
+            gapLengths = new double[count];
+            bestLefts = new int[count];
+            bestCosts = new double[count];
+            otherCosts = new double[count];
+            insertionCosts = new double[count];
+            for (int p = 0; p < count; p++) {
+                vectors[p] = GeoDistance.toUnitVector(latitudes[p], longitudes[p]);
+            }
+            next[first] = first;
+            inserted[first] = true;
+            for (int p = 0; p < count; p++) {
+                bestLefts[p] = first;
+                bestCosts[p] = 2 * distance(first, p);
+                otherCosts[p] = Double.MAX_VALUE;
+            }
+        }
+
+        /**
+         * Inserts point with the lowest score into its best gap
+         *
+         * @param maxCost Maximal insertion cost of inserted point, without its extra cost
+         * @return Inserted point or -1 if no point fits into maxCost
+         */
+        private int insertNext(double maxCost) {
+            int point = -1;
+            double pointScore = Double.MAX_VALUE;
+            for (int p = 0; p < inserted.length; p++) {
+                if (!inserted[p] && bestCosts[p] <= maxCost) {
+                    double score = (bestCosts[p] + extraCosts[p]) / weights[p];
+                    if (point == -1 || score < pointScore) {
+                        point = p;
+                        pointScore = score;
+                    }
+                }
+            }
+            if (point == -1) {
+                return -1;
+            }
+
+            int left = bestLefts[point];
+            int right = next[left];
+            insertionCosts[point] = bestCosts[point] + extraCosts[point];
+            next[point] = right;
+            next[left] = point;
+            inserted[point] = true;
+            gapLengths[left] = distance(left, point);
+            gapLengths[point] = distance(point, right);
+
+            for (int p = 0; p < inserted.length; p++) {
+                if (inserted[p]) {
+                    continue;
+                }
+                double pointDistance = distance(p, point);
+                double leftCost = distance(left, p) + pointDistance - gapLengths[left];
+                double rightCost = pointDistance + distance(p, right) - gapLengths[point];
+                int newLeft = leftCost <= rightCost ? left : point;
+                double newCost = Math.min(leftCost, rightCost);
+                double newOtherCost = Math.max(leftCost, rightCost);
+                if (bestLefts[p] != left) {
+                    if (newCost < bestCosts[p]) {
+                        otherCosts[p] = Math.min(otherCosts[p], Math.min(bestCosts[p], newOtherCost));
+                        bestLefts[p] = newLeft;
+                        bestCosts[p] = newCost;
+                    } else {
+                        otherCosts[p] = Math.min(otherCosts[p], newCost);
+                    }
+                } else if (newCost <= otherCosts[p]) {
+                    // other gaps are not cheaper than the bound, so new gap is the best one
+                    bestLefts[p] = newLeft;
+                    bestCosts[p] = newCost;
+                    otherCosts[p] = Math.min(otherCosts[p], newOtherCost);
+                } else {
+                    searchGaps(p);
+                }
+            }
+            return point;
+        }
+
+        /**
+         * @param point Inserted point
+         * @return Insertion cost plus extra cost of the point when it was inserted
+         */
+        private double getInsertionCost(int point) {
+            return insertionCosts[point];
+        }
+
+        /**
+         * @return Successor of every inserted point
+         */
+        private int[] getNext() {
+            return next;
+        }
+
+        private void searchGaps(int point) {
+            bestCosts[point] = Double.MAX_VALUE;
+            otherCosts[point] = Double.MAX_VALUE;
+            double leftDistance = distance(first, point);
+            int left = first;
+            do {
+                int right = next[left];
+                double rightDistance = distance(point, right);
+                double cost = leftDistance + rightDistance - gapLengths[left];
+                if (cost < bestCosts[point]) {
+                    otherCosts[point] = bestCosts[point];
+                    bestLefts[point] = left;
+                    bestCosts[point] = cost;
+                } else if (cost < otherCosts[point]) {
+                    otherCosts[point] = cost;
+                }
+                leftDistance = rightDistance;
+                left = right;
+            } while (left != first);
+        }
+
+        private double distance(int point0, int point1) {
+            double[] v0 = vectors[point0];
+            double[] v1 = vectors[point1];
+            double dx = v0[0] - v1[0];
+            double dy = v0[1] - v1[1];
+            double dz = v0[2] - v1[2];
+            return GeoDistance.chordToDistance(Math.sqrt(dx * dx + dy * dy + dz * dz));
+        }
+    }
+
+    /**
+     * Forks one tour task per selected tile
+     */
+    private static class TilesTask extends RecursiveTask<List<int[]>> {
+        private static final long serialVersionUID = 1L;
+
+        private final BreweryStore store;
+        private final List<int[]> tiles;
+
+        private TilesTask(BreweryStore store, List<int[]> tiles) {
+            this.store = store;
+            this.tiles = tiles;
+        }
+
+        @Override
+        protected List<int[]> compute() {
+            List<TileTask> tasks = new ArrayList<>(tiles.size());
+            for (int[] tile : tiles) {
+                tasks.add(new TileTask(store, tile));
+            }
+            List<int[]> tours = new ArrayList<>(tasks.size());
+            for (TileTask task : invokeAll(tasks)) {
+                tours.add(task.join());
+            }
+            return tours;
+        }
+    }
+
+    /**
+     * Builds closed tour over breweries of one tile
+     */
+    private static class TileTask extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final BreweryStore store;
+        private final int[] positions;
+
+        private TileTask(BreweryStore store, int[] positions) {
+            this.store = store;
+            this.positions = positions;
+        }
+
+        @Override
+        protected int[] compute() {
+            double[] latitudes = new double[positions.length];
+            double[] longitudes = new double[positions.length];
+            for (int i = 0; i < positions.length; i++) {
+                latitudes[i] = store.getLatitude(positions[i]);
+                longitudes[i] = store.getLongitude(positions[i]);
+            }
+            int[] next = cheapestInsertionTour(latitudes, longitudes, positions.length - 1);
+            int[] tour = new int[positions.length];
+            int point = positions.length - 1;
+            for (int i = 0; i < tour.length; i++) {
+                tour[i] = positions[point];
+                point = next[point];
+            }
+            return tour;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package beerdb;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class BatchPlannerTest {
+
+    private static final double LATITUDE = 51.742503;
+    private static final double LONGITUDE = 19.432956;
+    private static final double DISTANCE = 2000;
+
+    private HamiltonInsertion hi;
+    private BatchPlanner planner;
+
+    @Before
+    public void setUp() throws Exception {
+        hi = DumpSnapshot.newHamiltonInsertion(DISTANCE);
+        planner = new BatchPlanner(hi);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        planner.close();
+    }
+
+    @Test
+    public void planStreamsResultOfEveryRequest() throws Exception {
+        List<BatchPlanner.Request> requests = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            requests.add(new BatchPlanner.Request(45.0 + i * 0.2, 5.0 + i * 0.3, 500 + i * 20));
+        }
+
+        List<BatchPlanner.Result> results;
+        try (Stream<BatchPlanner.Result> stream = planner.plan(requests)) {
+            results = stream.collect(Collectors.toList());
+        }
+
+        assertEquals(requests.size(), results.size());
+        for (BatchPlanner.Request request : requests) {
+            BatchPlanner.Result result = results.stream()
+                    .filter(r -> r.getRequest() == request)
+                    .findFirst()
+                    .orElse(null);
+            assertNotNull(result);
+            assertNull(result.getError());
+            assertTrue(result.getRouteDistance() <= request.getDistanceLimit());
+        }
+    }
+
+    @Test
+    public void planRequestAboveConstructorLimit() throws Exception {
+        // nearest breweries to (0, 0) are farther than half of constructor limit
+        BatchPlanner.Request request = new BatchPlanner.Request(0.0, 0.0, DISTANCE * 2);
+        BatchPlanner.Result result = planner.plan(Stream.of(request).collect(Collectors.toList()))
+                .findFirst()
+                .orElse(null);
+        ArrayList<HamiltonBrewery> route = DumpSnapshot.newHamiltonInsertion(DISTANCE * 2)
+                .calculateHamiltonRoute(0.0, 0.0, DISTANCE * 2);
+
+        assertNotNull(result);
+        assertTrue(result.getRoute().size() > 2);
+        assertEquals(route.size(), result.getRoute().size());
+        assertTrue(result.getRouteDistance() <= request.getDistanceLimit());
+    }
+
+    @Test
+    public void planJourneyMatchesSequentialRoute() throws Exception {
+        BatchPlanner.Result result = planner.plan(Stream.of(new BatchPlanner.Request(LATITUDE, LONGITUDE, DISTANCE))
+                .collect(Collectors.toList()))
+                .findFirst()
+                .orElse(null);
+        ArrayList<HamiltonBrewery> route = hi.calculateHamiltonRoute(LATITUDE, LONGITUDE, DISTANCE);
+
+        assertNotNull(result);
+        assertEquals(route.size(), result.getRoute().size());
+        assertEquals(hi.calculateRouteDistance(route), result.getRouteDistance(), 0.000_1);
+    }
+}
@@ -0,0 +1,93 @@
+package beerdb;
+
+import com.mysql.jdbc.jdbc2.optional.MysqlDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class BeerConnectionPoolTest {
+
+    private AtomicInteger openedConnections;
+    private AtomicInteger preparedStatements;
+    private BeerConnectionPool pool;
+
+    @Before
+    public void setUp() throws Exception {
+        openedConnections = new AtomicInteger();
+        preparedStatements = new AtomicInteger();
+        pool = new BeerConnectionPool(new FakeDataSource(), 2, 50, 30_000, 2);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        pool.close();
+    }
+
+    @Test
+    public void releasedConnectionIsReused() throws Exception {
+        BeerConnectionPool.PooledConnection first = pool.acquire();
+        pool.release(first);
+        BeerConnectionPool.PooledConnection second = pool.acquire();
+
+        assertSame(first, second);
+        assertEquals(1, openedConnections.get());
+    }
+
+    @Test
+    public void acquireTimesOutWhenPoolIsExhausted() throws Exception {
+        pool.acquire();
+        pool.acquire();
+
+        try {
+            pool.acquire();
+            fail("Expected timeout");
+        } catch (SQLException e) {
+            assertEquals(2, pool.getOpenConnections());
+        }
+    }
+
+    @Test
+    public void preparedStatementsAreCached() throws Exception {
+        BeerConnectionPool.PooledConnection connection = pool.acquire();
+
+        PreparedStatement first = connection.prepareStatement("SELECT 1");
+        PreparedStatement second = connection.prepareStatement("SELECT 1");
+        connection.prepareStatement("SELECT 2");
+        connection.prepareStatement("SELECT 3");
+        PreparedStatement evicted = connection.prepareStatement("SELECT 1");
+
+        assertSame(first, second);
+        assertNotSame(first, evicted);
+        assertEquals(4, preparedStatements.get());
+    }
+
+    private class FakeDataSource extends MysqlDataSource {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            openedConnections.incrementAndGet();
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "prepareStatement":
+                                preparedStatements.incrementAndGet();
+                                return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                                        (statement, statementMethod, statementArgs) -> null);
+                            case "isValid":
+                                return true;
+                            default:
+                                return null;
+                        }
+                    });
+        }
+    }
+}
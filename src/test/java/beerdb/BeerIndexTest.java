@@ -0,0 +1,59 @@
+package beerdb;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class BeerIndexTest {
+
+    private BrewerySnapshot snapshot;
+    private BeerIndex index;
+
+    @Before
+    public void setUp() throws Exception {
+        snapshot = DumpSnapshot.get();
+        index = BeerIndex.fromSnapshot(snapshot);
+    }
+
+    @Test
+    public void getDistinctBeersMatchesSnapshot() throws Exception {
+        ArrayList<Beer> expected = snapshot.getDistinctBeers(Stream.of(1099, 501, 307, 1099));
+        ArrayList<Beer> beers = index.getDistinctBeers(Stream.of(1099, 501, 307, 1099));
+
+        assertEquals(toStrings(expected), toStrings(beers));
+        assertEquals(beers.size(), index.countDistinctBeers(new int[]{1099, 501, 307, 1099}));
+    }
+
+    @Test
+    public void unknownBreweriesHaveNoBeers() throws Exception {
+        assertEquals(0, index.getDistinctBeers(new int[]{-1, 1_000_000}).size());
+        assertEquals(0, index.countDistinctBeers(new int[0]));
+    }
+
+    @Test
+    public void equalBeersGetSameNumber() throws Exception {
+        BeerIndex small = new BeerIndex.Builder()
+                .add(2, new Beer("Porter", "Second", null, "Porter"))
+                .add(1, new Beer("Lager", "First", "Lager", null))
+                .add(1, new Beer("Lager", "First", "Lager", null))
+                .add(1, new Beer("Pils", "First", "Lager", "Pilsner"))
+                .build();
+        BitSet beerSet = small.getBeerSet(new int[]{1});
+
+        assertEquals(3, small.size());
+        assertEquals(2, beerSet.cardinality());
+        assertEquals("Lager", small.getDistinctBeers(new int[]{1, 2}).get(0).getName());
+        assertEquals("Porter", small.getDistinctBeers(new int[]{2, 1}).get(0).getName());
+        assertEquals(3, small.countDistinctBeers(new int[]{1, 2}));
+    }
+
+    private static java.util.List<String> toStrings(ArrayList<Beer> beers) {
+        return beers.stream().map(Beer::toString).collect(Collectors.toList());
+    }
+}
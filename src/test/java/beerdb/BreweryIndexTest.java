@@ -0,0 +1,99 @@
+package beerdb;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class BreweryIndexTest {
+
+    private Brewery[] breweries;
+    private BreweryIndex index;
+
+    @Before
+    public void setUp() throws Exception {
+        Random random = new Random(42);
+        breweries = new Brewery[500];
+        for (int i = 0; i < breweries.length; i++) {
+            Brewery bw = new Brewery();
+            bw.setId(i + 1);
+            bw.setName("Brewery " + (i + 1));
+            bw.setCity("City");
+            bw.setLatitude(35 + random.nextDouble() * 30);
+            bw.setLongitude(-10 + random.nextDouble() * 40);
+            breweries[i] = bw;
+        }
+        index = new BreweryIndex(breweries);
+    }
+
+    @Test
+    public void size() throws Exception {
+        assertEquals(500, index.size());
+    }
+
+    @Test
+    public void findClosestMatchesBruteForce() throws Exception {
+        Set<Integer> used = new HashSet<>();
+        used.add(17);
+        used.add(42);
+
+        double[][] gaps = {{51.742503, 19.432956, 51.742503, 19.432956}, {48.0, 2.0, 52.0, 13.0}, {45.0, 0.0, 55.0, 15.0}};
+        for (double[] gap : gaps) {
+            HamiltonBrewery closest = index.findClosest(gap[0], gap[1], gap[2], gap[3], 2000, id -> !used.contains(id));
+
+            Brewery expected = null;
+            double expectedDistance = Double.MAX_VALUE;
+            for (Brewery bw : breweries) {
+                double distance = GeoDistance.distance(gap[0], gap[1], bw.getLatitude(), bw.getLongitude())
+                        + GeoDistance.distance(gap[2], gap[3], bw.getLatitude(), bw.getLongitude());
+                if (distance <= 2000 && distance < expectedDistance && !used.contains(bw.getId())) {
+                    expected = bw;
+                    expectedDistance = distance;
+                }
+            }
+
+            assertNotNull(closest);
+            assertEquals(expected.getId(), closest.getId());
+            assertEquals(expectedDistance, closest.getDistance(), 0.000_1);
+            assertEquals(closest.getDistance(), closest.getLeftDistance() + closest.getRightDistance(), 0.000_1);
+        }
+    }
+
+    @Test
+    public void findClosestRespectsMaxDistance() throws Exception {
+        HamiltonBrewery closest = index.findClosest(-60.0, 150.0, -60.0, 150.0, 100, id -> true);
+
+        assertNull(closest);
+    }
+
+    @Test
+    public void findClosestWithBitSetMatchesPredicate() throws Exception {
+        BreweryStore store = index.getStore();
+        BitSet available = store.allAvailable();
+        available.clear(store.slotOf(17));
+        available.clear(store.slotOf(42));
+
+        HamiltonBrewery expected = index.findClosest(48.0, 2.0, 52.0, 13.0, 2000, id -> id != 17 && id != 42);
+        HamiltonBrewery closest = index.findClosest(48.0, 2.0, 52.0, 13.0, 2000, available);
+
+        assertEquals(expected.getId(), closest.getId());
+        assertEquals(expected.getDistance(), closest.getDistance(), 0.000_1);
+    }
+
+    @Test
+    public void findAvailableWithinRadiusMatchesFindWithinRadius() throws Exception {
+        BreweryStore store = index.getStore();
+        BitSet available = index.findAvailableWithinRadius(50.0, 10.0, 700);
+        Brewery[] found = index.findWithinRadius(50.0, 10.0, 700);
+
+        assertEquals(found.length, available.cardinality());
+        for (Brewery bw : found) {
+            assertTrue(store.isAvailable(available, bw.getId()));
+        }
+    }
+}
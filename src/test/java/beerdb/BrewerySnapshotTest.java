@@ -0,0 +1,67 @@
+package beerdb;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class BrewerySnapshotTest {
+
+    private static final double LATITUDE = 51.742503;
+    private static final double LONGITUDE = 19.432956;
+    private static final double DISTANCE = 2000;
+
+    private BrewerySnapshot snapshot;
+
+    @Before
+    public void setUp() throws Exception {
+        snapshot = DumpSnapshot.get();
+    }
+
+    @Test
+    public void counts() throws Exception {
+        assertEquals(1415, snapshot.getBreweryCount());
+        assertEquals(1304, snapshot.getGeocodeCount());
+        assertEquals(5901, snapshot.getBeerCount());
+    }
+
+    @Test
+    public void getBreweries() throws Exception {
+        Brewery[] breweries = snapshot.getBreweries();
+        Brewery sierraLeone = null;
+        for (Brewery bw : breweries) {
+            if (bw.getId() == 1140) {
+                sierraLeone = bw;
+            }
+        }
+
+        assertNotNull(sierraLeone);
+        assertEquals("Sierra Leone Brewery", sierraLeone.getName());
+        assertEquals("Freetown", sierraLeone.getCity());
+        assertEquals(8.484100342, sierraLeone.getLatitude(), 0.000_1);
+    }
+
+    @Test
+    public void getDistinctBeers() throws Exception {
+        ArrayList<Beer> beers = snapshot.getDistinctBeers(Stream.of(1099, 501));
+
+        assertEquals(28, beers.size());
+        assertEquals("Samuel Smith Old Brewery (Tadcaster)", beers.get(0).getBreweryName());
+    }
+
+    @Test
+    public void calculateHamiltonRoute() throws Exception {
+        HamiltonInsertion hi = new HamiltonInsertion(snapshot, DISTANCE);
+        ArrayList<HamiltonBrewery> route = hi.calculateHamiltonRoute(LATITUDE, LONGITUDE, DISTANCE);
+
+        assertEquals("Initial", route.get(0).getName());
+        assertEquals("Browar Zywiec", route.get(1).getName());
+        assertEquals("Klosterbrauerei Weltenburg", route.get(8).getName());
+        assertEquals("Initial", route.get(route.size() - 1).getName());
+        assertEquals(1913.977421098125, hi.calculateRouteDistance(route), 0.000_1);
+        assertEquals(2, hi.calculateDistinctBeerKinds(route).stream().filter(b -> b.getBreweryName().equals("Browar Zywiec")).count());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+package beerdb;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.BitSet;
+
+import static org.junit.Assert.*;
+
+public class BreweryStoreTest {
+
+    private BreweryStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        Brewery[] breweries = new Brewery[3];
+        breweries[0] = brewery(9, "Last BW", 54.0, 25.0);
+        breweries[1] = brewery(3, "First BW", 52.0, 21.0);
+        breweries[2] = brewery(9, "Last BW", 54.5, 25.5);
+        store = new BreweryStore(breweries);
+    }
+
+    @Test
+    public void columns() throws Exception {
+        assertEquals(3, store.size());
+        assertEquals(3, store.getId(1));
+        assertEquals("First BW", store.getName(1));
+        assertEquals("City", store.getCity(1));
+        assertEquals(54.5, store.getLatitude(2), 0.000_1);
+        assertEquals(25.5, store.getLongitude(2), 0.000_1);
+    }
+
+    @Test
+    public void geocodesOfSameBreweryShareSlot() throws Exception {
+        assertEquals(2, store.getSlotCount());
+        assertEquals(store.getSlot(0), store.getSlot(2));
+        assertEquals(store.slotOf(9), store.getSlot(0));
+        assertEquals(3, store.getSlotId(store.getSlot(1)));
+        assertEquals(-1, store.slotOf(123));
+    }
+
+    @Test
+    public void isAvailable() throws Exception {
+        BitSet available = store.allAvailable();
+        available.clear(store.slotOf(9));
+
+        assertTrue(store.isAvailable(available, 3));
+        assertFalse(store.isAvailable(available, 9));
+        assertFalse(store.isAvailable(available, 123));
+    }
+
+    @Test
+    public void toHamiltonBrewery() throws Exception {
+        HamiltonBrewery bw = store.toHamiltonBrewery(1, 10.0, 15.0);
+
+        assertEquals(3, bw.getId());
+        assertEquals("First BW", bw.getName());
+        assertEquals(25.0, bw.getDistance(), 0.000_1);
+        assertEquals(10.0, bw.getLeftDistance(), 0.000_1);
+        assertEquals(15.0, bw.getRightDistance(), 0.000_1);
+    }
+
+    private static Brewery brewery(int id, String name, double latitude, double longitude) {
+        Brewery bw = new Brewery();
+        bw.setId(id);
+        bw.setName(name);
+        bw.setCity("City");
+        bw.setLatitude(latitude);
+        bw.setLongitude(longitude);
+        return bw;
+    }
+}
@@ -0,0 +1,38 @@
+package beerdb;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BreweryStylesTest {
+
+    private BreweryStore store;
+    private BreweryStyles styles;
+
+    @Before
+    public void setUp() throws Exception {
+        Brewery[] breweries = new Brewery[3];
+        for (int i = 0; i < breweries.length; i++) {
+            breweries[i] = new Brewery();
+            breweries[i].setId(i + 1);
+        }
+        store = new BreweryStore(breweries);
+        styles = new BreweryStyles(store,
+                new int[]{1, 1, 1, 2, 2, 3, 3},
+                new int[]{5, 70, -1, 5, 141, 70, 70});
+    }
+
+    @Test
+    public void countNewAndAdd() throws Exception {
+        long[] covered = styles.newStyleSet();
+
+        assertEquals(3, styles.getStyleCount());
+        assertEquals(2, styles.countNew(store.slotOf(1), covered));
+        styles.add(store.slotOf(1), covered);
+        assertEquals(1, styles.countNew(store.slotOf(2), covered));
+        assertEquals(0, styles.countNew(store.slotOf(3), covered));
+        styles.add(store.slotOf(2), covered);
+        assertEquals(3, BreweryStyles.count(covered));
+    }
+}
@@ -0,0 +1,98 @@
+package beerdb;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DistanceKernelTest {
+
+    private static final double LATITUDE = 51.742503;
+    private static final double LONGITUDE = 19.432956;
+
+    private double[] latitudes;
+    private double[] longitudes;
+    private DistanceKernel kernel;
+
+    @Before
+    public void setUp() throws Exception {
+        Random random = new Random(42);
+        latitudes = new double[200];
+        longitudes = new double[200];
+        for (int i = 0; i < latitudes.length; i++) {
+            latitudes[i] = -80 + random.nextDouble() * 160;
+            longitudes[i] = -180 + random.nextDouble() * 360;
+        }
+        kernel = new DistanceKernel(latitudes, longitudes);
+    }
+
+    @Test
+    public void lawOfCosinesMatchesGeoDistance() throws Exception {
+        double[] result = new double[latitudes.length];
+        kernel.distances(LATITUDE, LONGITUDE, DistanceKernel.Accuracy.LAW_OF_COSINES, 0, latitudes.length, result);
+
+        for (int i = 0; i < latitudes.length; i++) {
+            assertEquals(GeoDistance.distance(LATITUDE, LONGITUDE, latitudes[i], longitudes[i]), result[i], 0.000_1);
+        }
+    }
+
+    @Test
+    public void haversineMatchesLawOfCosines() throws Exception {
+        double[] haversine = new double[latitudes.length];
+        double[] lawOfCosines = new double[latitudes.length];
+        kernel.distances(LATITUDE, LONGITUDE, DistanceKernel.Accuracy.HAVERSINE, 0, latitudes.length, haversine);
+        kernel.distances(LATITUDE, LONGITUDE, DistanceKernel.Accuracy.LAW_OF_COSINES, 0, latitudes.length, lawOfCosines);
+
+        assertArrayEquals(lawOfCosines, haversine, 0.001);
+    }
+
+    @Test
+    public void distanceMatchesDistances() throws Exception {
+        for (DistanceKernel.Accuracy accuracy : DistanceKernel.Accuracy.values()) {
+            double[] result = new double[latitudes.length];
+            kernel.distances(LATITUDE, LONGITUDE, accuracy, 0, latitudes.length, result);
+
+            for (int i = 0; i < latitudes.length; i++) {
+                assertEquals(result[i], kernel.distance(LATITUDE, LONGITUDE, accuracy, i), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void equirectangularIsCloseForShortDistances() throws Exception {
+        DistanceKernel near = new DistanceKernel(new double[]{51.75, 52.5, 51.0}, new double[]{19.5, 20.0, 18.5});
+        double[] result = new double[3];
+        near.distances(LATITUDE, LONGITUDE, DistanceKernel.Accuracy.EQUIRECTANGULAR, 0, 3, result);
+
+        assertEquals(GeoDistance.distance(LATITUDE, LONGITUDE, 51.75, 19.5), result[0], 0.01);
+        assertEquals(GeoDistance.distance(LATITUDE, LONGITUDE, 52.5, 20.0), result[1], 0.5);
+        assertEquals(GeoDistance.distance(LATITUDE, LONGITUDE, 51.0, 18.5), result[2], 0.5);
+    }
+
+    @Test
+    public void equirectangularWrapsAroundAntimeridian() throws Exception {
+        DistanceKernel near = new DistanceKernel(new double[]{0.0}, new double[]{179.9});
+        double[] result = new double[1];
+        near.distances(0.0, -179.9, DistanceKernel.Accuracy.EQUIRECTANGULAR, 0, 1, result);
+
+        assertEquals(GeoDistance.distance(0.0, -179.9, 0.0, 179.9), result[0], 0.01);
+    }
+
+    @Test
+    public void distancesOfSelectedPointsAndTwoReferences() throws Exception {
+        int[] points = {5, 17, 3};
+        double[] selected = new double[points.length];
+        kernel.distances(LATITUDE, LONGITUDE, DistanceKernel.Accuracy.LAW_OF_COSINES, points, points.length, selected);
+        double[] left = new double[4];
+        double[] right = new double[4];
+        kernel.distances(LATITUDE, LONGITUDE, 0.0, 0.0, DistanceKernel.Accuracy.LAW_OF_COSINES, 2, 6, left, right);
+
+        for (int k = 0; k < points.length; k++) {
+            assertEquals(GeoDistance.distance(LATITUDE, LONGITUDE, latitudes[points[k]], longitudes[points[k]]), selected[k], 0.000_1);
+        }
+        assertEquals(GeoDistance.distance(LATITUDE, LONGITUDE, latitudes[3], longitudes[3]), left[1], 0.000_1);
+        assertEquals(GeoDistance.distance(0.0, 0.0, latitudes[3], longitudes[3]), right[1], 0.000_1);
+    }
+}
@@ -0,0 +1,52 @@
+package beerdb;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Snapshot of database/mysql_dump.sql shared by all tests of one JVM. The dump is parsed and written to
+ * snapshot file on first use only. Planners are created per test, so settings changed by one test
+ * do not leak into another
+ */
+public final class DumpSnapshot {
+
+    public static final Path DUMP_FILE = Paths.get("database", "mysql_dump.sql");
+
+    private static BrewerySnapshot snapshot;
+
+    private DumpSnapshot() {
+    }
+
+    /**
+     * @return Opened snapshot of the dump, the same for every call
+     * @throws IOException if dump can not be read or snapshot can not be written
+     */
+    public static synchronized BrewerySnapshot get() throws IOException {
+        if (snapshot == null) {
+            Path snapshotFile = Files.createTempFile("beerdb", ".snapshot");
+            snapshotFile.toFile().deleteOnExit();
+            BrewerySnapshot.Builder.fromDump(DUMP_FILE).write(snapshotFile);
+            snapshot = BrewerySnapshot.open(snapshotFile);
+        }
+        return snapshot;
+    }
+
+    /**
+     * @param distanceLimit
+     * @return New insertion algorithm over shared snapshot
+     * @throws IOException if snapshot can not be created
+     */
+    public static HamiltonInsertion newHamiltonInsertion(double distanceLimit) throws IOException {
+        return new HamiltonInsertion(get(), distanceLimit);
+    }
+
+    /**
+     * @return New repository over shared snapshot
+     * @throws IOException if snapshot can not be created
+     */
+    public static InMemoryBreweryRepository newRepository() throws IOException {
+        return new InMemoryBreweryRepository(get());
+    }
+}
@@ -0,0 +1,52 @@
+package beerdb;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GapCandidateQueueTest {
+
+    private GapCandidateQueue queue;
+    private HamiltonBrewery first;
+    private HamiltonBrewery second;
+    private HamiltonBrewery third;
+
+    @Before
+    public void setUp() throws Exception {
+        queue = new GapCandidateQueue();
+        first = HamiltonBrewery.getInstance(0.0, 0.0, 0.0, "First");
+        second = HamiltonBrewery.getInstance(0.0, 1.0, 0.0, "Second");
+        third = HamiltonBrewery.getInstance(0.0, 2.0, 0.0, "Third");
+    }
+
+    @Test
+    public void peekReturnsSmallestCandidate() throws Exception {
+        queue.put(first, second, HamiltonBrewery.getInstance(0.0, 0.5, 300.0, "Far"));
+        queue.put(second, third, HamiltonBrewery.getInstance(0.0, 1.5, 120.0, "Near"));
+
+        assertEquals(2, queue.size());
+        assertEquals("Near", queue.peek().getCandidate().getName());
+        assertSame(second, queue.peek().getLeft());
+        assertSame(third, queue.peek().getRight());
+    }
+
+    @Test
+    public void putReplacesGapCandidate() throws Exception {
+        queue.put(first, second, HamiltonBrewery.getInstance(0.0, 0.5, 100.0, "Old"));
+        queue.put(second, third, HamiltonBrewery.getInstance(0.0, 1.5, 200.0, "Other"));
+        queue.put(first, second, HamiltonBrewery.getInstance(0.0, 0.5, 300.0, "New"));
+
+        assertEquals(2, queue.size());
+        assertEquals("Other", queue.peek().getCandidate().getName());
+    }
+
+    @Test
+    public void putNullForgetsGap() throws Exception {
+        queue.put(first, second, HamiltonBrewery.getInstance(0.0, 0.5, 100.0, "Candidate"));
+        queue.put(first, second, null);
+
+        assertEquals(0, queue.size());
+        assertNull(queue.peek());
+    }
+}
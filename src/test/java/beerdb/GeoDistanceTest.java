@@ -0,0 +1,56 @@
+package beerdb;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GeoDistanceTest {
+
+    @Test
+    public void distance() throws Exception {
+        assertEquals(0.0, GeoDistance.distance(51.742503, 19.432956, 51.742503, 19.432956), 0.000_1);
+        assertEquals(111.111, GeoDistance.distance(0.0, 0.0, 1.0, 0.0), 0.000_1);
+        assertEquals(111.111 * 90, GeoDistance.distance(0.0, 0.0, 90.0, 0.0), 0.000_1);
+    }
+
+    @Test
+    public void chordToDistance() throws Exception {
+        double[] a = GeoDistance.toUnitVector(51.5, -0.12);
+        double[] b = GeoDistance.toUnitVector(48.85, 2.35);
+        double chord = Math.sqrt(Math.pow(a[0] - b[0], 2) + Math.pow(a[1] - b[1], 2) + Math.pow(a[2] - b[2], 2));
+
+        assertEquals(GeoDistance.distance(51.5, -0.12, 48.85, 2.35), GeoDistance.chordToDistance(chord), 0.001);
+    }
+
+    @Test
+    public void boundingBoxContainsCircle() throws Exception {
+        Random random = new Random(7);
+        double[][] centers = {{51.742503, 19.432956}, {0.0, 0.0}, {-70.0, 120.0}, {78.0, 15.0}};
+        double[] radii = {50, 500, 2000};
+        for (double[] center : centers) {
+            for (double radius : radii) {
+                double[] box = GeoDistance.boundingBox(center[0], center[1], radius);
+                for (int i = 0; i < 2000; i++) {
+                    double spread = 2 * radius / 111.111;
+                    double latitude = Math.max(-90, Math.min(90, center[0] + (random.nextDouble() - 0.5) * spread));
+                    double longitude = Math.max(-180, Math.min(180, center[1] + (random.nextDouble() - 0.5) * spread * 10));
+                    if (GeoDistance.distance(center[0], center[1], latitude, longitude) <= radius) {
+                        assertTrue(latitude >= box[0] && latitude <= box[1]);
+                        assertTrue(longitude >= box[2] && longitude <= box[3]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void boundingBoxAroundPole() throws Exception {
+        double[] box = GeoDistance.boundingBox(85.0, 10.0, 1000);
+
+        assertEquals(90.0, box[1], 0.000_1);
+        assertEquals(-180.0, box[2], 0.000_1);
+        assertEquals(180.0, box[3], 0.000_1);
+    }
+}
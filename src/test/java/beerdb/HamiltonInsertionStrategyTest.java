@@ -0,0 +1,161 @@
+package beerdb;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Planning strategies of HamiltonInsertion on snapshot of database dump, so MySQL server is not needed
+ */
+public class HamiltonInsertionStrategyTest {
+
+    private static final double LATITUDE = 51.742503;
+    private static final double LONGITUDE = 19.432956;
+    private static final double DISTANCE = 2000;
+
+    private HamiltonInsertion hi;
+
+    @Before
+    public void setUp() throws Exception {
+        hi = DumpSnapshot.newHamiltonInsertion(DISTANCE);
+    }
+
+    @Test
+    public void calculateHamiltonRouteWithLocalSearch() throws Exception {
+        int insertionOnly = hi.calculateHamiltonRoute(LATITUDE, LONGITUDE, DISTANCE).size();
+        hi.setLocalSearchTimeBudgetMillis(5_000);
+        ArrayList<HamiltonBrewery> route = hi.calculateHamiltonRoute(LATITUDE, LONGITUDE, DISTANCE);
+
+        assertTrue(route.size() > insertionOnly);
+        assertTrue(hi.calculateRouteDistance(route) <= DISTANCE);
+        assertEquals("Initial", route.get(0).getName());
+        assertEquals("Initial", route.get(route.size() - 1).getName());
+    }
+
+    @Test
+    public void calculateHamiltonRouteWithUnlimitedLocalSearch() throws Exception {
+        int insertionOnly = hi.calculateHamiltonRoute(LATITUDE, LONGITUDE, DISTANCE).size();
+        hi.setLocalSearchTimeBudgetMillis(Long.MAX_VALUE);
+        ArrayList<HamiltonBrewery> route = hi.calculateHamiltonRoute(LATITUDE, LONGITUDE, DISTANCE);
+
+        assertTrue(route.size() > insertionOnly);
+        assertTrue(hi.calculateRouteDistance(route) <= DISTANCE);
+    }
+
+    @Test
+    public void calculateHamiltonRouteForDiversity() throws Exception {
+        ArrayList<HamiltonBrewery> cheapest = hi.calculateHamiltonRoute(LATITUDE, LONGITUDE, DISTANCE);
+        ArrayList<HamiltonBrewery> diverse = hi.calculateHamiltonRoute(LATITUDE, LONGITUDE, DISTANCE, InsertionStrategy.DIVERSITY, 0);
+
+        assertTrue(hi.calculateRouteDistance(diverse) <= DISTANCE);
+        assertTrue(hi.calculateDistinctStyles(diverse) > hi.calculateDistinctStyles(cheapest));
+    }
+
+    @Test
+    public void changeDistanceLimit() throws Exception {
+        PlannedRoute planned = hi.planRoute(LATITUDE, LONGITUDE, DISTANCE);
+        int size = planned.getRoute().size();
+
+        hi.changeDistanceLimit(planned, DISTANCE * 1.25);
+        assertTrue(planned.getRoute().size() > size);
+        assertRouteFits(planned, DISTANCE * 1.25);
+
+        hi.changeDistanceLimit(planned, DISTANCE / 2);
+        assertTrue(planned.getRoute().size() < size);
+        assertRouteFits(planned, DISTANCE / 2);
+
+        hi.changeDistanceLimit(planned, 0);
+        assertEquals(2, planned.getRoute().size());
+        assertEquals(0.0, planned.getTotalDistance(), 0.000_1);
+    }
+
+    @Test
+    public void changeDistanceLimitAboveConstructorLimit() throws Exception {
+        // nearest breweries to (0, 0) are farther than half of constructor limit
+        PlannedRoute planned = hi.planRoute(0.0, 0.0, DISTANCE);
+        assertEquals(2, planned.getRoute().size());
+
+        hi.changeDistanceLimit(planned, DISTANCE * 2);
+        assertTrue(planned.getRoute().size() > 2);
+        assertRouteFits(planned, DISTANCE * 2);
+        assertEquals(DumpSnapshot.newHamiltonInsertion(DISTANCE * 2).calculateHamiltonRoute(0.0, 0.0, DISTANCE * 2).size(),
+                planned.getRoute().size());
+    }
+
+    @Test
+    public void calculateHamiltonRouteAboveConstructorLimit() throws Exception {
+        ArrayList<HamiltonBrewery> route = hi.calculateHamiltonRoute(0.0, 0.0, DISTANCE * 2);
+
+        assertEquals(DumpSnapshot.newHamiltonInsertion(DISTANCE * 2).calculateHamiltonRoute(0.0, 0.0, DISTANCE * 2).size(),
+                route.size());
+        assertTrue(route.size() > 2);
+        assertTrue(hi.calculateRouteDistance(route) <= DISTANCE * 2);
+    }
+
+    private void assertRouteFits(PlannedRoute planned, double distanceLimit) {
+        ArrayList<HamiltonBrewery> route = planned.getRoute();
+        assertEquals(distanceLimit, planned.getDistanceLimit(), 0.0);
+        assertEquals(hi.calculateRouteDistance(route), planned.getTotalDistance(), 0.000_1);
+        assertTrue(planned.getTotalDistance() <= distanceLimit);
+        for (int i = 1; i < route.size(); i++) {
+            HamiltonBrewery left = route.get(i - 1);
+            HamiltonBrewery right = route.get(i);
+            assertEquals(GeoDistance.distance(left.getLatitude(), left.getLongitude(), right.getLatitude(), right.getLongitude()),
+                    right.getLeftDistance(), 0.000_1);
+            assertEquals(left.getRightDistance(), right.getLeftDistance(), 0.000_1);
+            if (i < route.size() - 1) {
+                assertFalse(planned.getStore().isAvailable(planned.getAvailableLocations(), right.getId()));
+            }
+        }
+    }
+
+    @Test
+    public void calculateHamiltonRouteWithBudget() throws Exception {
+        int fullSize = hi.calculateHamiltonRoute(LATITUDE, LONGITUDE, DISTANCE).size();
+        ArrayList<Integer> sizes = new ArrayList<>();
+        PlanningBudget budget = new PlanningBudget(Long.MAX_VALUE, 5,
+                (route, totalDistance, iterations) -> sizes.add(route.size()));
+        ArrayList<HamiltonBrewery> route = hi.calculateHamiltonRoute(LATITUDE, LONGITUDE, DISTANCE, budget);
+
+        assertTrue(budget.isExhausted());
+        assertEquals(5, budget.getIterations());
+        assertEquals(7, route.size());
+        assertTrue(route.size() < fullSize);
+        assertEquals(Arrays.asList(3, 4, 5, 6, 7), sizes);
+        assertTrue(hi.calculateRouteDistance(route) <= DISTANCE);
+
+        budget = PlanningBudget.ofMillis(0);
+        assertEquals(2, hi.calculateHamiltonRoute(LATITUDE, LONGITUDE, DISTANCE, budget).size());
+    }
+
+    @Test
+    public void calculateHamiltonRouteWithInsertionListener() throws Exception {
+        ArrayList<Integer> inserted = new ArrayList<>();
+        PlanningBudget budget = new PlanningBudget(Long.MAX_VALUE, Long.MAX_VALUE, new RouteProgressListener() {
+            @Override
+            public void onProgress(ArrayList<HamiltonBrewery> hamiltonRoute, double totalDistance, long iterations) {
+                fail("Insertion was reported as progress");
+            }
+
+            @Override
+            public void onInsertion(RouteInsertion insertion) {
+                HamiltonBrewery bw = insertion.getBrewery();
+                ArrayList<HamiltonBrewery> route = insertion.getRoute();
+                assertSame(bw, route.get(insertion.getIndex()));
+                assertEquals(route.get(insertion.getIndex() - 1).getId(), insertion.getLeftId());
+                assertEquals(route.get(insertion.getIndex() - 1).getRightDistance(), bw.getLeftDistance(), 0.0);
+                assertEquals(route.get(insertion.getIndex() + 1).getLeftDistance(), bw.getRightDistance(), 0.0);
+                assertEquals(hi.calculateRouteDistance(route), insertion.getTotalDistance(), 0.000_1);
+                inserted.add(bw.getId());
+            }
+        });
+        ArrayList<HamiltonBrewery> route = hi.calculateHamiltonRoute(LATITUDE, LONGITUDE, DISTANCE, budget);
+
+        assertEquals(route.size() - 2, inserted.size());
+        assertEquals(route.size() - 2, budget.getIterations());
+    }
+}
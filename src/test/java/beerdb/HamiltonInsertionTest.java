@@ -1,3 +1,5 @@
+package beerdb;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -47,6 +49,48 @@ public class HamiltonInsertionTest {
         assertEquals("Initial", route.get(route.size() - 1).getName());
     }
 
+    @Test
+    public void calculateHamiltonRouteWithoutIndex() throws Exception {
+        HamiltonInsertion sqlHi = new HamiltonInsertion(LATITUDE, LONGITUDE, DISTANCE, false);
+        sqlHi.openDBHelper();
+        try {
+            ArrayList<HamiltonBrewery> route = sqlHi.calculateHamiltonRoute(LATITUDE, LONGITUDE, DISTANCE);
+            ArrayList<HamiltonBrewery> indexRoute = hi.calculateHamiltonRoute(LATITUDE, LONGITUDE, DISTANCE);
+
+            assertNull(sqlHi.getBreweryIndex());
+            assertEquals(indexRoute.size(), route.size());
+            for (int i = 0; i < route.size(); i++) {
+                assertEquals(indexRoute.get(i).getId(), route.get(i).getId());
+            }
+            assertEquals(hi.calculateRouteDistance(indexRoute), sqlHi.calculateRouteDistance(route), 0.001);
+        } finally {
+            sqlHi.closeDBHelper();
+        }
+    }
+
+    @Test
+    public void calculateHamiltonRouteWithoutIndexQueriesOncePerRound() throws Exception {
+        MetricsRegistry previous = Metrics.getRegistry();
+        MetricsRegistry registry = new InMemoryMetricsRegistry();
+        Metrics.setRegistry(registry);
+        HamiltonInsertion sqlHi = new HamiltonInsertion(LATITUDE, LONGITUDE, DISTANCE, false);
+        sqlHi.openDBHelper();
+        try {
+            ArrayList<HamiltonBrewery> route = sqlHi.calculateHamiltonRoute(LATITUDE, LONGITUDE, DISTANCE);
+            long rounds = registry.counter("planner.iterations").sum();
+            // initial gap and two new gaps of every round are searched by batched query,
+            // other gap searches are gaps which candidate was inserted elsewhere
+            long staleGaps = registry.counter("planner.candidates").sum() - 1 - 2 * rounds;
+
+            assertEquals(route.size() - 2, rounds);
+            assertEquals(rounds + 1, registry.histogram("db.query.bestAdjacentBreweries").getCount());
+            assertEquals(staleGaps, registry.histogram("db.query.adjacentBreweries").getCount());
+        } finally {
+            sqlHi.closeDBHelper();
+            Metrics.setRegistry(previous);
+        }
+    }
+
     @Test
     public void copyBreweriesToHash() throws Exception {
         Brewery[] breweriesArray = new Brewery[3];
@@ -210,6 +254,6 @@ public class HamiltonInsertionTest {
         ArrayList<HamiltonBrewery> route = hi.calculateHamiltonRoute(LATITUDE, LONGITUDE, DISTANCE);
         double distance = hi.calculateRouteDistance(route);
 
-        assertEquals(1914.130630335571, distance, 0.000_1);
+        assertEquals(1913.977421098125, distance, 0.000_1);
     }
 }
\ No newline at end of file
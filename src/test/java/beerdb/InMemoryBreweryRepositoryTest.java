@@ -0,0 +1,116 @@
+package beerdb;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class InMemoryBreweryRepositoryTest {
+
+    private static final double LATITUDE = 51.742503;
+    private static final double LONGITUDE = 19.432956;
+    private static final double DISTANCE = 2000;
+
+    private InMemoryBreweryRepository repository;
+
+    @Before
+    public void setUp() throws Exception {
+        repository = DumpSnapshot.newRepository();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        repository.close();
+    }
+
+    @Test
+    public void findWithinRadius() throws Exception {
+        Brewery[] breweries = repository.findWithinRadius(LATITUDE, LONGITUDE, 500).get();
+
+        assertTrue(breweries.length > 0);
+        for (int i = 0; i < breweries.length; i++) {
+            assertTrue(breweries[i].getDistance() <= 500);
+            assertTrue(i == 0 || breweries[i - 1].getDistance() <= breweries[i].getDistance());
+        }
+        assertEquals(repository.getSnapshot().getBreweries().length, repository.findGeocodedBreweries().get().length);
+    }
+
+    @Test
+    public void fromDump() throws Exception {
+        try (InMemoryBreweryRepository fromDump = InMemoryBreweryRepository.fromDump(DumpSnapshot.DUMP_FILE)) {
+            assertEquals(repository.findGeocodedBreweries().get().length, fromDump.findGeocodedBreweries().get().length);
+            assertEquals(toStrings(repository.findDistinctBeers(new int[]{1099, 501}).get()),
+                    toStrings(fromDump.findDistinctBeers(new int[]{1099, 501}).get()));
+        }
+    }
+
+    @Test
+    public void findAdjacent() throws Exception {
+        Brewery left = HamiltonBrewery.getInstance(LATITUDE, LONGITUDE, 0, "Left");
+        Brewery right = HamiltonBrewery.getInstance(50.0, 14.4, 0, "Right");
+        double direct = GeoDistance.distance(LATITUDE, LONGITUDE, 50.0, 14.4);
+        HamiltonBrewery[] breweries = repository.findAdjacent(left, right, direct + 100).get();
+
+        assertTrue(breweries.length > 0);
+        for (int i = 0; i < breweries.length; i++) {
+            HamiltonBrewery bw = breweries[i];
+            assertEquals(bw.getLeftDistance() + bw.getRightDistance(), bw.getDistance(), 0.000_1);
+            assertTrue(bw.getDistance() <= direct + 100);
+            assertTrue(i == 0 || breweries[i - 1].getDistance() <= bw.getDistance());
+        }
+    }
+
+    @Test
+    public void findDistinctBeersMatchesSnapshot() throws Exception {
+        ArrayList<Beer> expected = repository.getSnapshot().getDistinctBeers(Stream.of(1099, 501));
+        ArrayList<Beer> beers = repository.findDistinctBeers(new int[]{1099, 501}).get();
+
+        assertEquals(28, beers.size());
+        assertEquals(toStrings(expected), toStrings(beers));
+    }
+
+    @Test
+    public void calculateHamiltonRouteMatchesSnapshot() throws Exception {
+        HamiltonInsertion expectedHi = new HamiltonInsertion(repository.getSnapshot(), DISTANCE);
+        HamiltonInsertion hi = HamiltonInsertion.create(repository, DISTANCE).get();
+        ArrayList<HamiltonBrewery> expected = expectedHi.calculateHamiltonRoute(LATITUDE, LONGITUDE, DISTANCE);
+        ArrayList<HamiltonBrewery> route = hi.calculateHamiltonRoute(LATITUDE, LONGITUDE, DISTANCE);
+
+        assertEquals(names(expected), names(route));
+        assertEquals(expectedHi.calculateRouteDistance(expected), hi.calculateRouteDistance(route), 0.000_1);
+        assertEquals(toStrings(expectedHi.calculateDistinctBeerKinds(expected)),
+                toStrings(hi.calculateDistinctBeerKindsAsync(route).get()));
+    }
+
+    @Test
+    public void createDoesNotWaitForBreweries() throws Exception {
+        CompletableFuture<Brewery[]> breweries = new CompletableFuture<>();
+        InMemoryBreweryRepository pending = new InMemoryBreweryRepository(repository.getSnapshot()) {
+            @Override
+            public CompletableFuture<Brewery[]> findGeocodedBreweries() {
+                return breweries;
+            }
+        };
+        CompletableFuture<HamiltonInsertion> hi = HamiltonInsertion.create(pending, DISTANCE);
+
+        assertFalse(hi.isDone());
+        breweries.complete(repository.getSnapshot().getBreweries());
+        assertTrue(hi.get().calculateHamiltonRoute(LATITUDE, LONGITUDE, DISTANCE).size() > 2);
+    }
+
+    private static String names(ArrayList<HamiltonBrewery> route) {
+        return route.stream().map(Brewery::getName).collect(Collectors.joining(","));
+    }
+
+    private static String toStrings(ArrayList<Beer> beers) {
+        return beers.stream()
+                .map(b -> b.getName() + "|" + b.getBreweryName() + "|" + b.getCategory() + "|" + b.getStyle())
+                .collect(Collectors.joining(","));
+    }
+}
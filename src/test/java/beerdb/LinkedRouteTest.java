@@ -0,0 +1,125 @@
+package beerdb;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+public class LinkedRouteTest {
+
+    private BreweryStore store;
+    private ArrayList<HamiltonBrewery> initial;
+
+    @Before
+    public void setUp() throws Exception {
+        Brewery[] breweries = new Brewery[20];
+        for (int i = 0; i < breweries.length; i++) {
+            breweries[i] = brewery(100 + i, "BW " + i, 50.0, 20.0 + 0.1 * i);
+        }
+        store = new BreweryStore(breweries);
+        initial = new ArrayList<>();
+        initial.add(HamiltonBrewery.getInstance(50.0, 20.0, 0.0, "Initial"));
+        initial.add(HamiltonBrewery.getInstance(50.0, 20.0, 0.0, "Initial"));
+    }
+
+    @Test
+    public void insertAfterUpdatesEdges() throws Exception {
+        LinkedRoute route = new LinkedRoute(store, initial, 0.0);
+        int far = insert(route, route.getFirst(), 5);
+        int near = insert(route, route.getFirst(), 2);
+
+        assertEquals(4, route.size());
+        assertEquals(near, route.getNext(route.getFirst()));
+        assertEquals(far, route.getNext(near));
+        assertEquals(route.getLast(), route.getNext(far));
+        assertEquals(near, route.getPrev(far));
+        assertEquals(2, route.indexOf(far));
+        assertEquals(distance(route, route.getFirst(), near), route.getRightDistance(route.getFirst()), 0.000_1);
+        assertEquals(distance(route, near, far), route.getRightDistance(near), 0.000_1);
+        assertEquals(2 * distance(route, route.getFirst(), far), route.getTotalDistance(), 0.000_1);
+    }
+
+    @Test
+    public void toHamiltonRoute() throws Exception {
+        LinkedRoute route = new LinkedRoute(store, initial, 0.0);
+        int node = route.getFirst();
+        // grows past initial capacity
+        for (int position = 1; position < store.size(); position++) {
+            node = insert(route, node, position);
+        }
+        ArrayList<HamiltonBrewery> hamiltonRoute = route.toHamiltonRoute();
+
+        assertEquals(store.size() + 1, hamiltonRoute.size());
+        assertSame(initial.get(0), hamiltonRoute.get(0));
+        assertSame(initial.get(1), hamiltonRoute.get(hamiltonRoute.size() - 1));
+        double totalDistance = 0.0;
+        for (int i = 1; i < hamiltonRoute.size() - 1; i++) {
+            assertEquals(store.getId(i), hamiltonRoute.get(i).getId());
+            assertEquals(hamiltonRoute.get(i - 1).getRightDistance(), hamiltonRoute.get(i).getLeftDistance(), 0.0);
+            totalDistance += hamiltonRoute.get(i - 1).getRightDistance();
+        }
+        totalDistance += hamiltonRoute.get(hamiltonRoute.size() - 2).getRightDistance();
+        assertEquals(totalDistance, route.getTotalDistance(), 0.000_1);
+    }
+
+    @Test
+    public void getElement() throws Exception {
+        LinkedRoute route = new LinkedRoute(store, initial, 0.0);
+        int node = insert(route, route.getFirst(), 5);
+        HamiltonBrewery bw = route.getElement(node);
+
+        assertEquals(store.getId(5), bw.getId());
+        assertEquals(route.getRightDistance(route.getFirst()), bw.getLeftDistance(), 0.0);
+        assertEquals(route.getRightDistance(node), bw.getRightDistance(), 0.0);
+
+        insert(route, node, 2);
+        assertSame(bw, route.getElement(node));
+        assertEquals(route.getRightDistance(node), bw.getRightDistance(), 0.0);
+        assertSame(bw, route.toHamiltonRoute().get(1));
+    }
+
+    @Test
+    public void gapQueue() throws Exception {
+        LinkedGapQueue queue = new LinkedGapQueue();
+        queue.put(0, 3, 10.0, 20.0);
+        queue.put(40, 4, 5.0, 5.0);
+        queue.put(0, 5, 1.0, 1.0);
+        queue.put(40, -1, 0.0, 0.0);
+
+        assertEquals(1, queue.size());
+        assertEquals(0, queue.peek());
+        assertEquals(5, queue.getCandidatePosition(0));
+        assertEquals(4, queue.getPutCount());
+        queue.put(0, -1, 0.0, 0.0);
+        assertEquals(-1, queue.peek());
+    }
+
+    /**
+     * Inserts store position after node with exact distances
+     */
+    private int insert(LinkedRoute route, int left, int position) {
+        int right = route.getNext(left);
+        double leftDistance = GeoDistance.distance(route.getLatitude(left), route.getLongitude(left),
+                store.getLatitude(position), store.getLongitude(position));
+        double rightDistance = GeoDistance.distance(store.getLatitude(position), store.getLongitude(position),
+                route.getLatitude(right), route.getLongitude(right));
+        return route.insertAfter(left, position, leftDistance, rightDistance);
+    }
+
+    private static double distance(LinkedRoute route, int from, int to) {
+        return GeoDistance.distance(route.getLatitude(from), route.getLongitude(from),
+                route.getLatitude(to), route.getLongitude(to));
+    }
+
+    private static Brewery brewery(int id, String name, double latitude, double longitude) {
+        Brewery bw = new Brewery();
+        bw.setId(id);
+        bw.setName(name);
+        bw.setCity("City");
+        bw.setLatitude(latitude);
+        bw.setLongitude(longitude);
+        return bw;
+    }
+}
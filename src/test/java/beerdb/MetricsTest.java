@@ -0,0 +1,100 @@
+package beerdb;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+public class MetricsTest {
+
+    private MetricsRegistry previous;
+    private MetricsRegistry registry;
+
+    @Before
+    public void setUp() throws Exception {
+        previous = Metrics.getRegistry();
+        registry = new InMemoryMetricsRegistry();
+        Metrics.setRegistry(registry);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Metrics.setRegistry(previous);
+    }
+
+    @Test
+    public void histogramQuantiles() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1_000L);
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(100_000, histogram.getMaxNanos());
+        assertEquals(50_500.0, histogram.getMeanNanos(), 0.000_1);
+        assertTrue(histogram.getQuantileNanos(0.5) >= 50_000);
+        assertTrue(histogram.getQuantileNanos(0.5) < 100_000);
+        assertEquals(100_000, histogram.getQuantileNanos(0.99));
+        assertEquals(0, new LatencyHistogram().getQuantileNanos(0.5));
+    }
+
+    @Test
+    public void dump() throws Exception {
+        registry.counter("a.count").add(3);
+        registry.histogram("b.time").record(2_000_000);
+        registry.distribution("c.size").record(5);
+        registry.distribution("c.size").record(7);
+
+        assertEquals(3L, registry.getValues().get("a.count"));
+        assertEquals(2L, registry.getValues().get("c.size.count"));
+        assertEquals(6.0, registry.getValues().get("c.size.mean").doubleValue(), 0.000_1);
+        assertEquals(7L, registry.getValues().get("c.size.max"));
+        assertEquals(1L, registry.getValues().get("b.time.count"));
+        assertEquals(2.0, registry.getValues().get("b.time.maxMillis").doubleValue(), 0.000_1);
+        assertTrue(registry.dump().startsWith("a.count 3\nb.time.count 1\n"));
+    }
+
+    @Test
+    public void jmxExporter() throws Exception {
+        String name = "beerdb:type=MetricsTest";
+        registry.counter("a.count").add(5);
+        assertTrue(JmxMetricsExporter.register(registry, name));
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            assertEquals(5L, server.getAttribute(new ObjectName(name), "a.count"));
+            assertEquals(registry.dump(), server.invoke(new ObjectName(name), "dump", new Object[0], new String[0]));
+            try {
+                server.invoke(new ObjectName(name), "reset", new Object[0], new String[0]);
+                fail("Unknown operation was invoked");
+            } catch (ReflectionException e) {
+                assertTrue(e.getCause() instanceof NoSuchMethodException);
+            }
+        } finally {
+            server.unregisterMBean(new ObjectName(name));
+        }
+    }
+
+    @Test
+    public void plannerMetrics() throws Exception {
+        HamiltonInsertion hi = DumpSnapshot.newHamiltonInsertion(1000);
+        RouteCache cache = new RouteCache(hi);
+        int size = cache.calculateHamiltonRoute(51.742503, 19.432956, 1000).size();
+        cache.calculateHamiltonRoute(51.742503, 19.432956, 1000);
+
+        assertEquals(1, registry.histogram("planner.plan").getCount());
+        assertEquals(size - 2, registry.counter("planner.iterations").sum());
+        assertTrue(registry.counter("planner.candidates").sum() >= size - 2);
+        ValueHistogram iterationCandidates = registry.distribution("planner.iteration.candidates");
+        assertEquals(size - 2, iterationCandidates.getCount());
+        assertTrue(iterationCandidates.getSum() <= registry.counter("planner.candidates").sum());
+        assertTrue(iterationCandidates.getMax() >= iterationCandidates.getQuantile(0.5));
+        assertEquals(1, registry.counter("cache.hits").sum());
+        assertEquals(1, registry.counter("cache.misses").sum());
+    }
+}
@@ -0,0 +1,60 @@
+package beerdb;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PlannerEventsTest {
+
+    private Path recordingFile;
+
+    @Before
+    public void setUp() throws Exception {
+        recordingFile = Files.createTempFile("planner", ".jfr");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(recordingFile);
+    }
+
+    @Test
+    public void planningPhasesAreRecorded() throws Exception {
+        HamiltonInsertion hi = DumpSnapshot.newHamiltonInsertion(1000);
+        ArrayList<HamiltonBrewery> route;
+        ArrayList<Beer> beers;
+        try (Recording recording = new Recording()) {
+            recording.enable("beerdb.InsertionRound").withoutThreshold();
+            recording.enable("beerdb.ClosestBrewery").withoutThreshold();
+            recording.enable("beerdb.BeerLookup").withoutThreshold();
+            recording.start();
+            route = hi.calculateHamiltonRoute(51.742503, 19.432956, 1000);
+            beers = hi.calculateDistinctBeerKinds(route);
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+
+        long rounds = events.stream().filter(e -> e.getEventType().getName().equals("beerdb.InsertionRound")).count();
+        long inserted = events.stream().filter(e -> e.getEventType().getName().equals("beerdb.InsertionRound")
+                && e.getBoolean("inserted")).count();
+        RecordedEvent lookup = events.stream().filter(e -> e.getEventType().getName().equals("beerdb.BeerLookup"))
+                .findFirst().orElseThrow(AssertionError::new);
+
+        assertEquals(route.size() - 2, inserted);
+        assertTrue(rounds >= inserted);
+        assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("beerdb.ClosestBrewery")));
+        assertEquals("index", lookup.getString("source"));
+        assertEquals(beers.size(), lookup.getInt("beerCount"));
+    }
+}
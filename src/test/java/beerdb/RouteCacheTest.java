@@ -0,0 +1,99 @@
+package beerdb;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+public class RouteCacheTest {
+
+    private static final double LATITUDE = 51.742503;
+    private static final double LONGITUDE = 19.432956;
+    private static final double DISTANCE = 1000;
+
+    private HamiltonInsertion hi;
+
+    @Before
+    public void setUp() throws Exception {
+        hi = DumpSnapshot.newHamiltonInsertion(DISTANCE);
+    }
+
+    @Test
+    public void sameCellIsCached() throws Exception {
+        RouteCache cache = new RouteCache(hi, 4, 0.1);
+        ArrayList<HamiltonBrewery> first = cache.calculateHamiltonRoute(LATITUDE, LONGITUDE, DISTANCE);
+        ArrayList<HamiltonBrewery> second = cache.calculateHamiltonRoute(LATITUDE + 0.005, LONGITUDE - 0.005, DISTANCE);
+
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertNotSame(first, second);
+        assertEquals(hi.calculateHamiltonRoute(LATITUDE, LONGITUDE, DISTANCE).size(), first.size());
+        assertRouteStartsAt(second, LATITUDE + 0.005, LONGITUDE - 0.005, DISTANCE);
+        assertEquals(first.get(1).getId(), second.get(1).getId());
+
+        second.clear();
+        assertEquals(first.size(), cache.calculateHamiltonRoute(LATITUDE, LONGITUDE, DISTANCE).size());
+    }
+
+    @Test
+    public void cachedRouteIsTrimmedAtRequestedStart() throws Exception {
+        RouteCache cache = new RouteCache(hi, 4, 1.0);
+        ArrayList<HamiltonBrewery> first = cache.calculateHamiltonRoute(LATITUDE, LONGITUDE, DISTANCE);
+        ArrayList<HamiltonBrewery> moved = cache.calculateHamiltonRoute(LATITUDE + 0.4, LONGITUDE - 0.4, DISTANCE);
+
+        assertEquals(1, cache.getHits());
+        assertRouteStartsAt(moved, LATITUDE + 0.4, LONGITUDE - 0.4, DISTANCE);
+        assertTrue(moved.size() < first.size());
+    }
+
+    private void assertRouteStartsAt(ArrayList<HamiltonBrewery> route, double latitude, double longitude,
+                                     double distanceLimit) {
+        HamiltonBrewery first = route.get(0);
+        HamiltonBrewery last = route.get(route.size() - 1);
+        assertEquals(latitude, first.getLatitude(), 0.0);
+        assertEquals(longitude, first.getLongitude(), 0.0);
+        assertEquals(latitude, last.getLatitude(), 0.0);
+        assertEquals(longitude, last.getLongitude(), 0.0);
+        for (int i = 1; i < route.size(); i++) {
+            HamiltonBrewery left = route.get(i - 1);
+            HamiltonBrewery right = route.get(i);
+            assertEquals(GeoDistance.distance(left.getLatitude(), left.getLongitude(), right.getLatitude(), right.getLongitude()),
+                    left.getRightDistance(), 0.000_1);
+            assertEquals(left.getRightDistance(), right.getLeftDistance(), 0.0);
+        }
+        assertTrue(hi.calculateRouteDistance(route) <= distanceLimit);
+    }
+
+    @Test
+    public void differentLimitOrCellMisses() throws Exception {
+        RouteCache cache = new RouteCache(hi, 4, 0.1);
+        cache.calculateHamiltonRoute(LATITUDE, LONGITUDE, DISTANCE);
+        cache.calculateHamiltonRoute(LATITUDE, LONGITUDE, DISTANCE / 2);
+        cache.calculateHamiltonRoute(LATITUDE + 1, LONGITUDE, DISTANCE);
+
+        assertEquals(3, cache.getMisses());
+        assertEquals(0, cache.getHits());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void leastRecentlyUsedIsEvicted() throws Exception {
+        RouteCache cache = new RouteCache(hi, 2, 0.1);
+        cache.calculateHamiltonRoute(LATITUDE, LONGITUDE, 100);
+        cache.calculateHamiltonRoute(LATITUDE, LONGITUDE, 200);
+        cache.calculateHamiltonRoute(LATITUDE, LONGITUDE, 100);
+        cache.calculateHamiltonRoute(LATITUDE, LONGITUDE, 300);
+        cache.calculateHamiltonRoute(LATITUDE, LONGITUDE, 100);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertEquals(2, cache.getHits());
+
+        cache.invalidate();
+        assertEquals(0, cache.size());
+        cache.calculateHamiltonRoute(LATITUDE, LONGITUDE, 100);
+        assertEquals(4, cache.getMisses());
+    }
+}
@@ -0,0 +1,91 @@
+package beerdb;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+public class RouteOptimizerTest {
+
+    @Test
+    public void optimizeRemovesCrossing() throws Exception {
+        // square visited as 0 -> A -> C -> B -> D -> 0 has crossing edges
+        ArrayList<HamiltonBrewery> route = route(
+                new double[]{50.0, 10.0},
+                new double[]{50.0, 11.0},
+                new double[]{51.0, 10.0},
+                new double[]{51.0, 11.0},
+                new double[]{50.5, 9.0},
+                new double[]{50.0, 10.0});
+        double before = distance(route);
+        HashSet<HamiltonBrewery> elements = new HashSet<>(route);
+        HamiltonBrewery first = route.get(0);
+        HamiltonBrewery last = route.get(route.size() - 1);
+
+        double saved = new RouteOptimizer().optimize(route, Long.MAX_VALUE);
+
+        assertTrue(saved > 0.0);
+        assertEquals(before - saved, distance(route), 0.000_1);
+        assertEquals(6, route.size());
+        assertEquals(elements, new HashSet<>(route));
+        assertSame(first, route.get(0));
+        assertSame(last, route.get(route.size() - 1));
+        for (int i = 0; i < route.size() - 1; i++) {
+            assertEquals(route.get(i).getRightDistance(), route.get(i + 1).getLeftDistance(), 0.000_1);
+        }
+    }
+
+    @Test
+    public void optimizeKeepsOptimalRoute() throws Exception {
+        ArrayList<HamiltonBrewery> route = route(
+                new double[]{50.0, 10.0},
+                new double[]{50.0, 11.0},
+                new double[]{51.0, 11.0},
+                new double[]{51.0, 10.0},
+                new double[]{50.0, 10.0});
+        ArrayList<HamiltonBrewery> copy = new ArrayList<>(route);
+
+        assertEquals(0.0, new RouteOptimizer().optimize(route, Long.MAX_VALUE), 0.0);
+        assertEquals(copy, route);
+    }
+
+    @Test
+    public void optimizeStopsAtPassedDeadline() throws Exception {
+        ArrayList<HamiltonBrewery> route = route(
+                new double[]{50.0, 10.0},
+                new double[]{50.0, 11.0},
+                new double[]{51.0, 10.0},
+                new double[]{51.0, 11.0},
+                new double[]{50.5, 9.0},
+                new double[]{50.0, 10.0});
+        ArrayList<HamiltonBrewery> copy = new ArrayList<>(route);
+
+        assertEquals(0.0, new RouteOptimizer().optimize(route, System.nanoTime() - 1), 0.0);
+        assertEquals(copy, route);
+    }
+
+    private static ArrayList<HamiltonBrewery> route(double[]... points) {
+        ArrayList<HamiltonBrewery> route = new ArrayList<>();
+        for (int i = 0; i < points.length; i++) {
+            HamiltonBrewery bw = HamiltonBrewery.getInstance(points[i][0], points[i][1], 0.0, "Brewery " + i);
+            bw.setId(i);
+            route.add(bw);
+        }
+        for (int i = 0; i < route.size() - 1; i++) {
+            double distance = GeoDistance.distance(points[i][0], points[i][1], points[i + 1][0], points[i + 1][1]);
+            route.get(i).setRightDistance(distance);
+            route.get(i + 1).setLeftDistance(distance);
+        }
+        return route;
+    }
+
+    private static double distance(ArrayList<HamiltonBrewery> route) {
+        double distance = 0.0;
+        for (int i = 0; i < route.size() - 1; i++) {
+            distance += route.get(i).getRightDistance();
+        }
+        return distance;
+    }
+}
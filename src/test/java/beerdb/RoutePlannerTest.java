@@ -0,0 +1,59 @@
+package beerdb;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class RoutePlannerTest {
+
+    private static final double LATITUDE = 51.742503;
+    private static final double LONGITUDE = 19.432956;
+    private static final double DISTANCE = 2000;
+
+    private HamiltonInsertion hi;
+    private ForkJoinPool pool;
+
+    @Before
+    public void setUp() throws Exception {
+        hi = DumpSnapshot.newHamiltonInsertion(DISTANCE);
+        pool = new ForkJoinPool(4);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        pool.shutdown();
+    }
+
+    @Test
+    public void strategiesBuildValidRoutes() throws Exception {
+        for (InsertionStrategy strategy : InsertionStrategy.values()) {
+            ArrayList<HamiltonBrewery> route = hi.calculateHamiltonRoute(LATITUDE, LONGITUDE, DISTANCE, strategy, 7);
+            HashSet<Integer> ids = new HashSet<>();
+
+            assertTrue(strategy.name(), route.size() > 2);
+            assertTrue(strategy.name(), hi.calculateRouteDistance(route) <= DISTANCE);
+            assertEquals("Initial", route.get(0).getName());
+            assertEquals("Initial", route.get(route.size() - 1).getName());
+            for (int i = 1; i < route.size() - 1; i++) {
+                assertTrue(strategy.name(), ids.add(route.get(i).getId()));
+                assertEquals(route.get(i - 1).getRightDistance(), route.get(i).getLeftDistance(), 0.000_1);
+            }
+        }
+    }
+
+    @Test
+    public void calculateBestRoute() throws Exception {
+        RoutePlanner planner = new RoutePlanner(hi, pool);
+        ArrayList<HamiltonBrewery> cheapest = hi.calculateHamiltonRoute(LATITUDE, LONGITUDE, DISTANCE);
+        ArrayList<HamiltonBrewery> best = planner.calculateBestRoute(LATITUDE, LONGITUDE, DISTANCE);
+
+        assertFalse(planner.isBetter(cheapest, best));
+        assertTrue(hi.calculateRouteDistance(best) <= DISTANCE);
+    }
+}
@@ -0,0 +1,135 @@
+package beerdb;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class RoutePublisherTest {
+
+    private static final double LATITUDE = 51.742503;
+    private static final double LONGITUDE = 19.432956;
+    private static final double DISTANCE = 2000;
+
+    private HamiltonInsertion hi;
+
+    @Before
+    public void setUp() throws Exception {
+        hi = DumpSnapshot.newHamiltonInsertion(DISTANCE);
+    }
+
+    @Test
+    public void updatesReplayToFinalRoute() throws Exception {
+        CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+        hi.publishHamiltonRoute(LATITUDE, LONGITUDE, DISTANCE).subscribe(subscriber);
+
+        assertTrue(subscriber.done.await(30, TimeUnit.SECONDS));
+        assertNull(subscriber.error);
+        List<RouteUpdate> updates = subscriber.updates;
+        RouteUpdate completed = updates.get(updates.size() - 1);
+        assertEquals(RouteUpdate.Kind.COMPLETED, completed.getKind());
+        assertEquals(RouteUpdate.Kind.INSERTED, updates.get(0).getKind());
+
+        ArrayList<HamiltonBrewery> expected = hi.calculateHamiltonRoute(LATITUDE, LONGITUDE, DISTANCE);
+        assertEquals(names(expected), names(replay(updates)));
+        assertEquals(names(expected), names(completed.getRoute()));
+        assertEquals(updates.size() - 1, completed.getIterations());
+        assertEquals(hi.calculateRouteDistance(expected), completed.getTotalDistance(), 0.000_1);
+    }
+
+    @Test
+    public void updatesReplayWithLocalSearch() throws Exception {
+        hi.setLocalSearchTimeBudgetMillis(200);
+        CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+        hi.publishHamiltonRoute(LATITUDE, LONGITUDE, DISTANCE).subscribe(subscriber);
+
+        assertTrue(subscriber.done.await(30, TimeUnit.SECONDS));
+        List<RouteUpdate> updates = subscriber.updates;
+        RouteUpdate completed = updates.get(updates.size() - 1);
+        assertEquals(RouteUpdate.Kind.COMPLETED, completed.getKind());
+        assertEquals(names(completed.getRoute()), names(replay(updates)));
+    }
+
+    @Test
+    public void cancelStopsPlanning() throws Exception {
+        CollectingSubscriber subscriber = new CollectingSubscriber(1) {
+            @Override
+            public void onNext(RouteUpdate item) {
+                super.onNext(item);
+                subscription.cancel();
+                done.countDown();
+            }
+        };
+        hi.publishHamiltonRoute(LATITUDE, LONGITUDE, DISTANCE).subscribe(subscriber);
+
+        assertTrue(subscriber.done.await(30, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(1, subscriber.updates.size());
+        assertEquals(RouteUpdate.Kind.INSERTED, subscriber.updates.get(0).getKind());
+    }
+
+    /**
+     * Applies all updates except the last one to initial route
+     */
+    private List<HamiltonBrewery> replay(List<RouteUpdate> updates) {
+        List<HamiltonBrewery> replayed = hi.initializeHamiltonRoute(LATITUDE, LONGITUDE);
+        for (RouteUpdate update : updates.subList(0, updates.size() - 1)) {
+            if (update.getKind() == RouteUpdate.Kind.INSERTED) {
+                // first element with left id, since starting points have the same id
+                int left = 0;
+                while (replayed.get(left).getId() != update.getLeftId()) {
+                    left++;
+                }
+                replayed.add(left + 1, update.getBrewery());
+            } else {
+                replayed = new ArrayList<>(update.getRoute());
+            }
+        }
+        return replayed;
+    }
+
+    private static String names(List<HamiltonBrewery> route) {
+        return route.stream().map(Brewery::getName).collect(Collectors.joining(","));
+    }
+
+    private static class CollectingSubscriber implements Flow.Subscriber<RouteUpdate> {
+        final List<RouteUpdate> updates = new ArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        final long request;
+        Flow.Subscription subscription;
+        volatile Throwable error;
+
+        CollectingSubscriber(long request) {
+            this.request = request;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(request);
+        }
+
+        @Override
+        public void onNext(RouteUpdate item) {
+            updates.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            done.countDown();
+        }
+    }
+}
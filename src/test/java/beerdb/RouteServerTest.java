@@ -0,0 +1,138 @@
+package beerdb;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class RouteServerTest {
+
+    private static final String QUERY = "?lat=51.742503&lon=19.432956&limit=1000";
+
+    private HamiltonInsertion hi;
+    private RouteServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        hi = DumpSnapshot.newHamiltonInsertion(1000);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void routeAndBeers() throws Exception {
+        startServer(hi, 2, 2);
+        ArrayList<HamiltonBrewery> route = hi.calculateHamiltonRoute(51.742503, 19.432956, 1000);
+
+        HttpURLConnection connection = get("/route" + QUERY);
+        String json = read(connection);
+        assertEquals(200, connection.getResponseCode());
+        assertTrue(json, json.startsWith("{\"latitude\":51.742503,\"longitude\":19.432956,\"distanceLimit\":1000.0,"));
+        assertTrue(json, json.contains("\"name\":\"" + route.get(1).getName() + "\""));
+        assertEquals(route.size() - 2, json.split("\"id\":").length - 1);
+
+        connection = get("/beers" + QUERY);
+        json = read(connection);
+        assertEquals(200, connection.getResponseCode());
+        assertTrue(json, json.startsWith("{\"breweryCount\":" + (route.size() - 2) + ",\"beers\":[{\"name\":"));
+        assertEquals(hi.calculateDistinctBeerKinds(route).size(), json.split("\"style\":").length - 1);
+    }
+
+    @Test
+    public void invalidRequests() throws Exception {
+        startServer(hi, 1, 0);
+
+        HttpURLConnection connection = get("/route?lat=51&lon=19");
+        assertEquals(400, connection.getResponseCode());
+        assertEquals("{\"error\":\"Missing parameter limit\"}", read(connection));
+        assertEquals(400, get("/route?lat=x&lon=19&limit=10").getResponseCode());
+        assertEquals(400, get("/route?lat=91&lon=19&limit=10").getResponseCode());
+    }
+
+    @Test
+    public void identicalRequestsAreCoalesced() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        int[] plans = new int[1];
+        HamiltonInsertion blocking = new HamiltonInsertion(DumpSnapshot.get(), 1000) {
+            @Override
+            public ArrayList<HamiltonBrewery> calculateHamiltonRoute(double latitude, double longitude, double distanceLimit) {
+                synchronized (plans) {
+                    plans[0]++;
+                }
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.calculateHamiltonRoute(latitude, longitude, distanceLimit);
+            }
+        };
+        startServer(blocking, 1, 0);
+
+        ExecutorService clients = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> responses = new ArrayList<>();
+            responses.add(clients.submit(() -> get("/route" + QUERY).getResponseCode()));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            for (int i = 0; i < 3; i++) {
+                responses.add(clients.submit(() -> get("/route" + QUERY).getResponseCode()));
+            }
+            // different request does not fit into full queue
+            assertEquals(503, get("/route?lat=50&lon=19&limit=1000").getResponseCode());
+
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<Integer> response : responses) {
+                assertEquals(200, (int) response.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, plans[0]);
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private void startServer(HamiltonInsertion hamiltonInsertion, int maxConcurrentPlans, int maxQueuedPlans)
+            throws IOException {
+        server = new RouteServer(hamiltonInsertion, new InetSocketAddress("127.0.0.1", 0),
+                maxConcurrentPlans, maxQueuedPlans);
+        server.start();
+    }
+
+    private HttpURLConnection get(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + server.getPort() + path).openConnection();
+        connection.setReadTimeout(10_000);
+        return connection;
+    }
+
+    private String read(HttpURLConnection connection) throws IOException {
+        InputStream in = connection.getResponseCode() < 400 ? connection.getInputStream() : connection.getErrorStream();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream stream = in) {
+            stream.transferTo(out);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
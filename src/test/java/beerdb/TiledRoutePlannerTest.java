@@ -0,0 +1,93 @@
+package beerdb;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class TiledRoutePlannerTest {
+
+    private static final double LATITUDE = 51.742503;
+    private static final double LONGITUDE = 19.432956;
+
+    private HamiltonInsertion hi;
+
+    @Before
+    public void setUp() throws Exception {
+        hi = DumpSnapshot.newHamiltonInsertion(10_000);
+    }
+
+    @Test
+    public void geohash() throws Exception {
+        assertEquals("u4pruydqqvj", Geohash.toString(57.64911, 10.40744, 11));
+        assertEquals("ezs42", Geohash.toString(42.6, -5.6, 5));
+        assertTrue(Geohash.encode(57.64911, 10.40744) >>> 55 == Geohash.encode(57.6, 10.4) >>> 55);
+    }
+
+    @Test
+    public void calculateHamiltonRoute() throws Exception {
+        TiledRoutePlanner planner = new TiledRoutePlanner(hi, new ForkJoinPool(4));
+        planner.setMaxTileSize(16);
+        ArrayList<HamiltonBrewery> route = planner.calculateHamiltonRoute(LATITUDE, LONGITUDE, 10_000);
+
+        assertEquals("Initial", route.get(0).getName());
+        assertEquals("Initial", route.get(route.size() - 1).getName());
+        assertTrue(route.size() > 100);
+        assertTrue(hi.calculateRouteDistance(route) <= 10_000);
+
+        HashSet<Integer> ids = new HashSet<>();
+        for (int i = 1; i < route.size() - 1; i++) {
+            assertTrue(ids.add(route.get(i).getId()));
+            assertEquals(route.get(i - 1).getRightDistance(), route.get(i).getLeftDistance(), 0.000_1);
+            assertEquals(GeoDistance.distance(route.get(i).getLatitude(), route.get(i).getLongitude(),
+                    route.get(i + 1).getLatitude(), route.get(i + 1).getLongitude()), route.get(i).getRightDistance(), 0.000_1);
+        }
+    }
+
+    @Test
+    public void calculateHamiltonRouteWithinSmallLimit() throws Exception {
+        TiledRoutePlanner planner = new TiledRoutePlanner(hi);
+        ArrayList<HamiltonBrewery> route = planner.calculateHamiltonRoute(LATITUDE, LONGITUDE, 1000);
+
+        assertTrue(hi.calculateRouteDistance(route) <= 1000);
+        assertTrue(route.size() > 2);
+        assertEquals(2, planner.calculateHamiltonRoute(LATITUDE, LONGITUDE, 0).size());
+    }
+
+    @Test
+    public void toursSelectedTilesOnly() throws Exception {
+        MetricsRegistry previous = Metrics.getRegistry();
+        MetricsRegistry registry = new InMemoryMetricsRegistry();
+        Metrics.setRegistry(registry);
+        try {
+            TiledRoutePlanner planner = new TiledRoutePlanner(hi);
+            planner.setMaxTileSize(16);
+            planner.calculateHamiltonRoute(LATITUDE, LONGITUDE, 2000);
+
+            assertTrue(registry.counter("planner.tiles.toured").sum() > 0);
+            assertTrue(registry.counter("planner.tiles.toured").sum() < registry.counter("planner.tiles").sum());
+        } finally {
+            Metrics.setRegistry(previous);
+        }
+    }
+
+    @Test
+    public void calculateHamiltonRouteWithinLargeLimit() throws Exception {
+        TiledRoutePlanner planner = new TiledRoutePlanner(hi);
+        ArrayList<HamiltonBrewery> insertionRoute = hi.calculateHamiltonRoute(LATITUDE, LONGITUDE, 20_000);
+        ArrayList<HamiltonBrewery> route = planner.calculateHamiltonRoute(LATITUDE, LONGITUDE, 20_000);
+
+        assertTrue(hi.calculateRouteDistance(route) <= 20_000);
+        assertTrue(route.size() >= insertionRoute.size());
+
+        insertionRoute = hi.calculateHamiltonRoute(LATITUDE, LONGITUDE, 40_000);
+        route = planner.calculateHamiltonRoute(LATITUDE, LONGITUDE, 40_000);
+
+        assertTrue(hi.calculateRouteDistance(route) <= 40_000);
+        assertTrue(route.size() > insertionRoute.size());
+    }
+}